@@ -161,7 +161,27 @@ else
     exit 1
 fi
 
-arguments=(-Dsun.misc.URLClassPath.disableJarChecking=true $JAVA_OPTS -jar "$jarfile" $RUN_ARGS "$@")
+# Class data sharing (Java 13 or later): on first use, archive the classes loaded by a training run
+# next to the jar, one archive per Java version, and map it on every later start.
+# Set CDS_ARCHIVE to choose the archive file, or to "false" to turn this off.
+cds_options=()
+if [[ "$CDS_ARCHIVE" != "false" ]]; then
+  java_release="$(dirname "$(dirname "$(readlink -f "$javaexe")")")/release"
+  java_version=$(sed -n 's/^JAVA_VERSION="\(.*\)"$/\1/p' "$java_release" 2> /dev/null)
+  if [[ "${java_version%%.*}" =~ ^[0-9]+$ ]] && [[ "${java_version%%.*}" -ge 13 ]]; then
+    [[ -z "$CDS_ARCHIVE" ]] && CDS_ARCHIVE="${jarfile%.*}-java${java_version}.jsa"
+    if [[ ! -f "$CDS_ARCHIVE" || "$jarfile" -nt "$CDS_ARCHIVE" ]] && [[ -w "$(dirname "$CDS_ARCHIVE")" ]]; then
+      # write to a private file first, so concurrent starts never map a half-written archive
+      "$javaexe" -XX:ArchiveClassesAtExit="$CDS_ARCHIVE.$$" -Xlog:disable -Xlog:all=warning:stderr \
+        $JAVA_OPTS -jar "$jarfile" -f inspect -n 1 > /dev/null 2>&1 && mv -f "$CDS_ARCHIVE.$$" "$CDS_ARCHIVE"
+      rm -f "$CDS_ARCHIVE.$$"
+    fi
+    # JVM warnings go to stderr, so a stale or unusable archive never ends up in the output
+    [[ -f "$CDS_ARCHIVE" ]] && cds_options=(-XX:SharedArchiveFile="$CDS_ARCHIVE" -Xlog:disable -Xlog:all=warning:stderr)
+  fi
+fi
+
+arguments=(-Dsun.misc.URLClassPath.disableJarChecking=true "${cds_options[@]}" $JAVA_OPTS -jar "$jarfile" $RUN_ARGS "$@")
 
 # Action functions
 start() {
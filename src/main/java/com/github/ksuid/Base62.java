@@ -1,6 +1,7 @@
 package com.github.ksuid;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.stream.IntStream;
 
 import static java.lang.Math.abs;
@@ -24,8 +25,31 @@ final class Base62 {
     // VisibleForTesting
     static final BigInteger BASE = valueOf(BASE_62_CHARACTERS.length);
 
+    // VisibleForTesting
+    static final int KSUID_ENCODED_LENGTH = 27;
+
     private static final int BYTE_BITS = 8;
     private static final double DIGIT_BITS = log(BASE_62_CHARACTERS.length) / log(2);
+    private static final int KSUID_DECODED_LENGTH = 20;
+    private static final long LIMB_MASK = 0xFFFFFFFFL;
+    // largest power of 62 for which remainder * 2^32 + limb still fits in a long
+    private static final int CHUNK_DIGITS = 5;
+    private static final long CHUNK_BASE = 62L * 62 * 62 * 62 * 62;
+    private static final byte[] DIGIT_VALUES = new byte[128];
+    // encoding of the largest KSUID, 20 bytes of 0xFF
+    private static final String MAX_KSUID = "aWgEPTl1tmebfsQzFP4bxwgy80V";
+    // the limb arithmetic is shared, only reading and writing digits depends on the type of characters
+    private static final DigitSink<char[]> CHAR_SINK = Base62::putChunk;
+    private static final DigitSink<byte[]> BYTE_SINK = Base62::putChunk;
+    private static final DigitSource<CharSequence> CHAR_SOURCE = Base62::chunkAt;
+    private static final DigitSource<byte[]> BYTE_SOURCE = Base62::chunkAt;
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int i = 0; i < BASE_62_CHARACTERS.length; i++) {
+            DIGIT_VALUES[BASE_62_CHARACTERS[i]] = (byte) i;
+        }
+    }
 
     private Base62() {
         throw new AssertionError("static utility class");
@@ -93,6 +117,262 @@ final class Base62 {
                         .toByteArray();
     }
 
+    /**
+     * Encode a 20-byte KSUID into exactly 27 Base62 characters.
+     * <p>
+     * Equivalent to {@link #base62Encode(byte[], int) base62Encode(bytes, 27)} but works on five 32-bit limbs
+     * instead of a {@link BigInteger} and does not allocate.
+     *
+     * @param src       array containing the KSUID bytes
+     * @param srcOffset offset of the KSUID bytes
+     * @param dst       array receiving the characters
+     * @param dstOffset offset of the first character
+     */
+    static void encodeKsuid(final byte[] src, final int srcOffset, final char[] dst, final int dstOffset) {
+        encodeLimbs(src, srcOffset, dst, dstOffset, CHAR_SINK);
+    }
+
+    /**
+     * Encode a 20-byte KSUID into exactly 27 ASCII Base62 characters.
+     *
+     * @param src       array containing the KSUID bytes
+     * @param srcOffset offset of the KSUID bytes
+     * @param dst       array receiving the ASCII characters
+     * @param dstOffset offset of the first character
+     * @see #encodeKsuid(byte[], int, char[], int)
+     */
+    static void encodeKsuid(final byte[] src, final int srcOffset, final byte[] dst, final int dstOffset) {
+        encodeLimbs(src, srcOffset, dst, dstOffset, BYTE_SINK);
+    }
+
+    /**
+     * Decode exactly 27 Base62 characters into a 20-byte KSUID.
+     * <p>
+     * Works on five 32-bit limbs instead of a {@link BigInteger} and does not allocate.
+     *
+     * @param src       characters to decode
+     * @param srcOffset offset of the first character
+     * @param dst       array receiving the KSUID bytes
+     * @param dstOffset offset of the KSUID bytes
+     * @throws IllegalArgumentException if a character is not a Base62 character
+     *                                  or the value does not fit in 20 bytes
+     */
+    static void decodeKsuid(final CharSequence src, final int srcOffset, final byte[] dst, final int dstOffset) {
+        decodeLimbs(src, srcOffset, CHAR_SOURCE, dst, dstOffset);
+    }
+
+    /**
+     * Decode only the timestamp, the high 32 bits, of exactly 27 Base62 characters.
+     * <p>
+     * Carries from the low limbs reach the high limb, so all five limbs are still computed, but in local variables:
+     * nothing is allocated and nothing is written out.
+     *
+     * @param src       characters to decode
+     * @param srcOffset offset of the first character
+     * @return the timestamp component
+     * @throws IllegalArgumentException if a character is not a Base62 character
+     *                                  or the value does not fit in 20 bytes
+     * @see #decodeKsuid(CharSequence, int, byte[], int)
+     */
+    static int decodeKsuidTimestamp(final CharSequence src, final int srcOffset) {
+        return decodeLimbs(src, srcOffset, CHAR_SOURCE, null, 0);
+    }
+
+    /**
+     * Check that exactly 27 characters are a valid KSUID string without decoding them. The encoding is fixed-width
+     * and the digits are in ASCII order, so the value fits in 20 bytes if the characters do not sort after those of
+     * the largest KSUID.
+     *
+     * @param src       characters to check
+     * @param srcOffset offset of the first character
+     * @throws IllegalArgumentException if a character is not a Base62 character
+     *                                  or the value does not fit in 20 bytes
+     */
+    static void checkKsuid(final CharSequence src, final int srcOffset) {
+        int order = 0;
+        for (int i = 0; i < KSUID_ENCODED_LENGTH; i++) {
+            final char c = src.charAt(srcOffset + i);
+            digitOf(c);
+            if (order == 0) {
+                order = c - MAX_KSUID.charAt(i);
+            }
+        }
+        if (order > 0) {
+            throw new IllegalArgumentException("ksuid string exceeds the maximum value of " + KSUID_DECODED_LENGTH + " bytes");
+        }
+    }
+
+    /**
+     * Decode exactly 27 ASCII Base62 characters into a 20-byte KSUID.
+     *
+     * @param src       ASCII characters to decode
+     * @param srcOffset offset of the first character
+     * @param dst       array receiving the KSUID bytes
+     * @param dstOffset offset of the KSUID bytes
+     * @throws IllegalArgumentException if a character is not a Base62 character
+     *                                  or the value does not fit in 20 bytes
+     * @see #decodeKsuid(CharSequence, int, byte[], int)
+     */
+    static void decodeKsuid(final byte[] src, final int srcOffset, final byte[] dst, final int dstOffset) {
+        decodeLimbs(src, srcOffset, BYTE_SOURCE, dst, dstOffset);
+    }
+
+    /**
+     * Encode a 20-byte KSUID as five 32-bit limbs into 27 characters.
+     *
+     * @param src       array containing the KSUID bytes
+     * @param srcOffset offset of the KSUID bytes
+     * @param dst       array receiving the characters
+     * @param dstOffset offset of the first character
+     * @param sink      writes digits into {@code dst}
+     */
+    private static <T> void encodeLimbs(final byte[] src, final int srcOffset, final T dst, final int dstOffset,
+                                        final DigitSink<T> sink) {
+        long l0 = readLimb(src, srcOffset);
+        long l1 = readLimb(src, srcOffset + 4);
+        long l2 = readLimb(src, srcOffset + 8);
+        long l3 = readLimb(src, srcOffset + 12);
+        long l4 = readLimb(src, srcOffset + 16);
+
+        int position = dstOffset + KSUID_ENCODED_LENGTH;
+        // five rounds of dividing by 62^5 leave a value below 62^2 as 160 bits are less than 62^27
+        for (int round = 0; round < CHUNK_DIGITS; round++) {
+            long remainder = l0 % CHUNK_BASE;
+            l0 /= CHUNK_BASE;
+            long value = remainder << 32 | l1;
+            l1 = value / CHUNK_BASE;
+            remainder = value - l1 * CHUNK_BASE;
+            value = remainder << 32 | l2;
+            l2 = value / CHUNK_BASE;
+            remainder = value - l2 * CHUNK_BASE;
+            value = remainder << 32 | l3;
+            l3 = value / CHUNK_BASE;
+            remainder = value - l3 * CHUNK_BASE;
+            value = remainder << 32 | l4;
+            l4 = value / CHUNK_BASE;
+            position -= CHUNK_DIGITS;
+            sink.putChunk(dst, position, CHUNK_DIGITS, (int) (value - l4 * CHUNK_BASE));
+        }
+        sink.putChunk(dst, dstOffset, 2, (int) l4);
+    }
+
+    /**
+     * Decode 27 characters into five 32-bit limbs.
+     *
+     * @param src       characters to decode
+     * @param srcOffset offset of the first character
+     * @param source    reads digits from {@code src}
+     * @param dst       array receiving the KSUID bytes, or null to only return the timestamp
+     * @param dstOffset offset of the KSUID bytes
+     * @return the timestamp component, the highest limb
+     * @throws IllegalArgumentException if a character is not a Base62 character
+     *                                  or the value does not fit in 20 bytes
+     */
+    private static <T> int decodeLimbs(final T src, final int srcOffset, final DigitSource<T> source,
+                                       final byte[] dst, final int dstOffset) {
+        long l0 = 0;
+        long l1 = 0;
+        long l2 = 0;
+        long l3 = 0;
+        // 27 digits are a leading chunk of 2 digits followed by 5 chunks of 5 digits
+        long l4 = source.chunkAt(src, srcOffset, 2);
+        long overflow = 0;
+        for (int position = srcOffset + 2; position < srcOffset + KSUID_ENCODED_LENGTH; position += CHUNK_DIGITS) {
+            long value = l4 * CHUNK_BASE + source.chunkAt(src, position, CHUNK_DIGITS);
+            l4 = value & LIMB_MASK;
+            value = l3 * CHUNK_BASE + (value >>> 32);
+            l3 = value & LIMB_MASK;
+            value = l2 * CHUNK_BASE + (value >>> 32);
+            l2 = value & LIMB_MASK;
+            value = l1 * CHUNK_BASE + (value >>> 32);
+            l1 = value & LIMB_MASK;
+            value = l0 * CHUNK_BASE + (value >>> 32);
+            l0 = value & LIMB_MASK;
+            overflow |= value >>> 32;
+        }
+        if (overflow != 0) {
+            throw new IllegalArgumentException("ksuid string exceeds the maximum value of " + KSUID_DECODED_LENGTH + " bytes");
+        }
+        if (dst != null) {
+            writeLimb(dst, dstOffset, l0);
+            writeLimb(dst, dstOffset + 4, l1);
+            writeLimb(dst, dstOffset + 8, l2);
+            writeLimb(dst, dstOffset + 12, l3);
+            writeLimb(dst, dstOffset + 16, l4);
+        }
+        return (int) l0;
+    }
+
+    /**
+     * Writes a chunk of digits, the only part of encoding that depends on the type of characters.
+     */
+    @FunctionalInterface
+    private interface DigitSink<T> {
+        void putChunk(T dst, int offset, int digits, int chunk);
+    }
+
+    /**
+     * Reads a chunk of digits, the only part of decoding that depends on the type of characters.
+     */
+    @FunctionalInterface
+    private interface DigitSource<T> {
+        long chunkAt(T src, int offset, int digits);
+    }
+
+    private static void putChunk(final byte[] dst, final int offset, final int digits, final int chunk) {
+        int value = chunk;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dst[i] = (byte) BASE_62_CHARACTERS[value % 62];
+            value /= 62;
+        }
+    }
+
+    private static void putChunk(final char[] dst, final int offset, final int digits, final int chunk) {
+        int value = chunk;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dst[i] = BASE_62_CHARACTERS[value % 62];
+            value /= 62;
+        }
+    }
+
+    private static long chunkAt(final byte[] src, final int offset, final int digits) {
+        if (digits == 2) {
+            return digitOf((char) (src[offset] & 0xFF)) * 62L + digitOf((char) (src[offset + 1] & 0xFF));
+        }
+        return (((digitOf((char) (src[offset] & 0xFF)) * 62L
+                + digitOf((char) (src[offset + 1] & 0xFF))) * 62
+                + digitOf((char) (src[offset + 2] & 0xFF))) * 62
+                + digitOf((char) (src[offset + 3] & 0xFF))) * 62
+                + digitOf((char) (src[offset + 4] & 0xFF));
+    }
+
+    private static long chunkAt(final CharSequence src, final int offset, final int digits) {
+        if (digits == 2) {
+            return digitOf(src.charAt(offset)) * 62L + digitOf(src.charAt(offset + 1));
+        }
+        return (((digitOf(src.charAt(offset)) * 62L
+                + digitOf(src.charAt(offset + 1))) * 62
+                + digitOf(src.charAt(offset + 2))) * 62
+                + digitOf(src.charAt(offset + 3))) * 62
+                + digitOf(src.charAt(offset + 4));
+    }
+
+    private static long readLimb(final byte[] bytes, final int offset) {
+        return Bytes.getInt(bytes, offset) & LIMB_MASK;
+    }
+
+    private static void writeLimb(final byte[] bytes, final int offset, final long limb) {
+        Bytes.putInt(bytes, offset, (int) limb);
+    }
+
+    private static int digitOf(final char c) {
+        final int digit = c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("'" + c + "' is not a valid Base62 character");
+        }
+        return digit;
+    }
+
     // VisibleForTesting
     static int indexOf(final char c) {
         if (c >= '0' && c <= '9') {
@@ -0,0 +1,397 @@
+package com.github.ksuid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Consumer;
+
+import static com.github.ksuid.Base62.KSUID_ENCODED_LENGTH;
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * Throughput, allocation and latency benchmark for the common KSUID operations, run by {@code ksuid -bench}.
+ * <p>
+ * Each operation runs on 1, 2, 4, ... up to the maximum number of threads. Every thread warms up for the
+ * warm-up time, then all threads start measuring together and time each operation with {@link System#nanoTime()},
+ * so reported latencies include the cost of reading the clock (usually 15-30 ns). Allocation per operation is
+ * read from {@code com.sun.management.ThreadMXBean} and is reported as {@code NaN} on JVMs without it.
+ * <p>
+ * {@code generate} and {@code monotonic} draw from the same random source, {@code monotonic} through one
+ * {@link MonotonicKsuidGenerator} shared by all threads, so the two show what its compare-and-set costs under
+ * contention.
+ * <p>
+ * The batch operations {@code rawCopy}, {@code stringEnc}, {@code stringDec}, {@code blockEnc} and {@code blockDec}
+ * each process one block of {@value #INPUTS} KSUIDs in ascending order, so their latencies are per block. They
+ * compare the block codec with copying raw records and with encoding and decoding the records as ASCII strings.
+ * The merge operations {@code merge2}, {@code merge16} and {@code merge256} each merge {@value #MERGED_RECORDS}
+ * records from 2, 16 or 256 sorted inputs with a {@link KsuidMerger}.
+ */
+final class Benchmark {
+    private static final int INPUTS = 1024;
+    private static final int MASK = INPUTS - 1;
+    private static final int MERGED_RECORDS = 1 << 16;
+    private static final Method ALLOCATED_BYTES = allocationCounter("com.sun.management.ThreadMXBean");
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final Duration warmup;
+    private final Duration measurement;
+
+    // written at the end of every run so the JIT cannot drop the measured operations
+    @SuppressWarnings("unused")
+    private volatile long sink;
+
+    Benchmark(final Random random, final Clock clock, final Duration warmup, final Duration measurement) {
+        this.warmup = warmup;
+        this.measurement = measurement;
+
+        final KsuidGenerator generator = new KsuidGenerator(random);
+
+        final Ksuid[] ksuids = new Ksuid[INPUTS];
+        final String[] strings = new String[INPUTS];
+        final byte[][] keys = new byte[INPUTS][];
+        for (int i = 0; i < INPUTS; i++) {
+            ksuids[i] = generator.newKsuid(Instant.now(clock));
+            strings[i] = ksuids[i].toString();
+            keys[i] = ksuids[i].asBytes();
+        }
+
+        // one generator shared by all threads, so the monotonic one contends on its last KSUID
+        final KsuidGenerator monotonicGenerator = new MonotonicKsuidGenerator(random, clock);
+        final KsuidGenerator fastGenerator = new FastKsuidGenerator();
+        operations.put("generate", i -> generator.newKsuid(Instant.now(clock)).getTimestamp());
+        operations.put("monotonic", i -> monotonicGenerator.newKsuid().getTimestamp());
+        operations.put("fastKsuid", i -> fastGenerator.newKsuid(Instant.now(clock)).getTimestamp());
+        operations.put("toString", i -> ksuids[i].toString().length());
+        operations.put("fromString", i -> Ksuid.fromString(strings[i]).getTimestamp());
+        operations.put("hex", i -> ksuids[i].asRaw().length());
+        operations.put("compare", i -> ksuids[i].compareTo(ksuids[(i + 1) & MASK]));
+        operations.put("compareKey", i -> KsuidKeys.comparator().compare(keys[i], keys[(i + 1) & MASK]));
+        operations.put("naiveKey", i -> compareBytes(keys[i], keys[(i + 1) & MASK]));
+
+        // one block of records in ascending order, as strings and block encoded
+        final Ksuid[] sorted = ksuids.clone();
+        Arrays.sort(sorted);
+        final byte[] records = new byte[INPUTS * TOTAL_BYTES];
+        final byte[] text = new byte[INPUTS * KSUID_ENCODED_LENGTH];
+        for (int i = 0; i < INPUTS; i++) {
+            System.arraycopy(sorted[i].rawBytes(), 0, records, i * TOTAL_BYTES, TOTAL_BYTES);
+            Base62.encodeKsuid(records, i * TOTAL_BYTES, text, i * KSUID_ENCODED_LENGTH);
+        }
+        final ByteBuffer block = KsuidBlockCodec.withBlockSize(INPUTS).encode(Arrays.asList(sorted));
+        final byte[] blockBytes = new byte[block.remaining()];
+        block.get(blockBytes);
+        final ThreadLocal<Batch> batches = ThreadLocal.withInitial(() -> new Batch(blockBytes));
+        operations.put("rawCopy", i -> batches.get().copy(records));
+        operations.put("stringEnc", i -> batches.get().encodeStrings(records));
+        operations.put("stringDec", i -> batches.get().decodeStrings(text));
+        operations.put("blockEnc", i -> batches.get().encodeBlock(records));
+        operations.put("blockDec", i -> batches.get().decodeBlock());
+
+        // records in ascending order, dealt round-robin to the inputs of each merge
+        final Random payloads = new Random(1L);
+        final byte[] merged = new byte[MERGED_RECORDS * TOTAL_BYTES];
+        final int timestamp = KsuidGenerator.toTimestamp(Instant.now(clock));
+        for (int i = 0; i < MERGED_RECORDS; i++) {
+            Bytes.putInt(merged, i * TOTAL_BYTES, timestamp + i / 8192);
+            Bytes.putLong(merged, i * TOTAL_BYTES + TIMESTAMP_BYTES, i);
+            Bytes.putLong(merged, i * TOTAL_BYTES + TIMESTAMP_BYTES + Long.BYTES, payloads.nextLong());
+        }
+        for (final int inputs : new int[] {2, 16, 256}) {
+            final byte[][] sources = new byte[inputs][MERGED_RECORDS / inputs * TOTAL_BYTES];
+            for (int i = 0; i < MERGED_RECORDS; i++) {
+                System.arraycopy(merged, i * TOTAL_BYTES, sources[i % inputs], i / inputs * TOTAL_BYTES, TOTAL_BYTES);
+            }
+            operations.put("merge" + inputs, i -> merge(sources));
+        }
+    }
+
+    /**
+     * Run all operations.
+     *
+     * @param maxThreads the highest thread count to run with
+     * @param listener   receives each result as soon as it is available
+     * @return all results
+     */
+    List<Result> run(final int maxThreads, final Consumer<Result> listener) {
+        final List<Result> results = new ArrayList<>();
+        for (final Map.Entry<String, Operation> operation : operations.entrySet()) {
+            for (final int threads : threadCounts(maxThreads)) {
+                final Result result = run(operation.getKey(), operation.getValue(), threads);
+                listener.accept(result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    // VisibleForTesting
+    static int[] threadCounts(final int maxThreads) {
+        final List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Result run(final String name, final Operation operation, final int threads) {
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(operation, barrier);
+            workers[i].setName("ksuid-bench-" + name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        double opsPerSecond = 0;
+        long allocatedBytes = 0;
+        long checksum = 0;
+        for (final Worker worker : workers) {
+            try {
+                worker.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("benchmark interrupted", e);
+            }
+            if (worker.failure != null) {
+                throw new IllegalStateException("benchmark " + name + " failed", worker.failure);
+            }
+            histogram.add(worker.histogram);
+            opsPerSecond += worker.histogram.getTotalCount() * 1e9 / worker.elapsedNanos;
+            allocatedBytes = allocatedBytes < 0 || worker.allocatedBytes < 0 ? -1 : allocatedBytes + worker.allocatedBytes;
+            checksum += worker.checksum;
+        }
+        sink = checksum;
+
+        final double bytesPerOp = allocatedBytes < 0 ? Double.NaN : (double) allocatedBytes / histogram.getTotalCount();
+        return new Result(name, threads, opsPerSecond, bytesPerOp, histogram);
+    }
+
+    private static long merge(final byte[][] inputs) {
+        final List<KsuidMerger.Source> sources = new ArrayList<>(inputs.length);
+        for (final byte[] input : inputs) {
+            final ByteBuffer records = ByteBuffer.wrap(input);
+            sources.add(dst -> {
+                final int length = Math.min(records.remaining(), dst.remaining() / TOTAL_BYTES * TOTAL_BYTES);
+                dst.put(input, records.position(), length);
+                records.position(records.position() + length);
+            });
+        }
+        try (KsuidMerger merger = new KsuidMerger(sources, false)) {
+            return merger.mergeTo((records, count) -> { });
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compare keys one unsigned byte at a time, the baseline of {@code compareKey}.
+     */
+    private static int compareBytes(final byte[] left, final byte[] right) {
+        final int length = Math.min(left.length, right.length);
+        for (int i = 0; i < length; i++) {
+            final int result = (left[i] & 0xFF) - (right[i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return left.length - right.length;
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+        } catch (final ReflectiveOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Look up the per-thread allocation counter of {@code beanClass}, which is not part of every JVM.
+     *
+     * @return {@code getThreadAllocatedBytes(long)} of the thread bean, or {@code null} if it is not available
+     */
+    // VisibleForTesting
+    static Method allocationCounter(final String beanClass) {
+        try {
+            final Class<?> type = Class.forName(beanClass, false, Benchmark.class.getClassLoader());
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (type.isInstance(bean)
+                    && (Boolean) type.getMethod("isThreadAllocatedMemorySupported").invoke(bean)
+                    && (Boolean) type.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean)) {
+                return type.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (final ReflectiveOperationException | LinkageError e) {
+            // allocations are reported as unavailable
+        }
+        return null;
+    }
+
+    /**
+     * Buffers of one thread for the batch operations, which each process one block of {@value #INPUTS} records.
+     */
+    private static final class Batch {
+        private final byte[] records = new byte[INPUTS * TOTAL_BYTES];
+        private final byte[] strings = new byte[INPUTS * KSUID_ENCODED_LENGTH];
+        private final KsuidBlockCodec.Encoder encoder = KsuidBlockCodec.withBlockSize(INPUTS).newEncoder();
+        private final ByteBuffer encoded = ByteBuffer.allocate(KsuidBlockCodec.maxEncodedSize(INPUTS));
+        private final ByteBuffer block;
+
+        private Batch(final byte[] block) {
+            this.block = ByteBuffer.wrap(block);
+        }
+
+        long copy(final byte[] src) {
+            System.arraycopy(src, 0, records, 0, records.length);
+            return records[0];
+        }
+
+        long encodeStrings(final byte[] src) {
+            for (int i = 0; i < INPUTS; i++) {
+                Base62.encodeKsuid(src, i * TOTAL_BYTES, strings, i * KSUID_ENCODED_LENGTH);
+            }
+            return strings[0];
+        }
+
+        long decodeStrings(final byte[] src) {
+            for (int i = 0; i < INPUTS; i++) {
+                Base62.decodeKsuid(src, i * KSUID_ENCODED_LENGTH, records, i * TOTAL_BYTES);
+            }
+            return records[0];
+        }
+
+        long encodeBlock(final byte[] src) {
+            // the block is encoded when its last record is added
+            for (int i = 0; i < INPUTS; i++) {
+                encoder.add(src, i * TOTAL_BYTES);
+            }
+            encoded.clear();
+            return encoder.drainTo(encoded);
+        }
+
+        long decodeBlock() {
+            block.clear();
+            return KsuidBlockCodec.decodeBlock(block, records, 0);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        long apply(int input);
+    }
+
+    private final class Worker extends Thread {
+        private final Operation operation;
+        private final CyclicBarrier barrier;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long elapsedNanos;
+        private long allocatedBytes;
+        private long checksum;
+        private Throwable failure;
+
+        private Worker(final Operation operation, final CyclicBarrier barrier) {
+            this.operation = operation;
+            this.barrier = barrier;
+        }
+
+        @Override
+        public void run() {
+            try {
+                measure();
+            } catch (final Throwable e) {
+                failure = e;
+                barrier.reset();
+            }
+        }
+
+        private void measure() throws InterruptedException, BrokenBarrierException {
+            long checksum = 0;
+            int input = 0;
+            final long warmupEnd = System.nanoTime() + warmup.toNanos();
+            while (System.nanoTime() < warmupEnd) {
+                checksum += operation.apply(input++ & MASK);
+            }
+            barrier.await();
+
+            final long allocatedBefore = allocatedBytes();
+            final long start = System.nanoTime();
+            final long end = start + measurement.toNanos();
+            long now = start;
+            while (now < end) {
+                checksum += operation.apply(input++ & MASK);
+                final long next = System.nanoTime();
+                histogram.record(next - now);
+                now = next;
+            }
+            final long allocatedAfter = allocatedBytes();
+
+            this.elapsedNanos = now - start;
+            this.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Measurements of one operation at one thread count.
+     */
+    static final class Result {
+        private final String name;
+        private final int threads;
+        private final double opsPerSecond;
+        private final double bytesPerOp;
+        private final LatencyHistogram histogram;
+
+        Result(final String name, final int threads, final double opsPerSecond, final double bytesPerOp,
+               final LatencyHistogram histogram) {
+            this.name = name;
+            this.threads = threads;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+            this.histogram = histogram;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getThreads() {
+            return threads;
+        }
+
+        long getOps() {
+            return histogram.getTotalCount();
+        }
+
+        double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.ksuid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Utility class to read and write big-endian integers in byte arrays and to compare byte ranges.
+ * <p>
+ * This is the Java 8 implementation. The multi-release JAR contains an implementation
+ * for Java 17 and later based on {@code VarHandle} byte array views.
+ * <p>
+ * Bounds are not checked beyond the checks of the array accesses themselves.
+ */
+final class Bytes {
+
+    private Bytes() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Read a big-endian int.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @return the int
+     */
+    static int getInt(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xFF) << 24
+                | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8
+                | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Read a big-endian long.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @return the long
+     */
+    static long getLong(final byte[] bytes, final int offset) {
+        return (long) getInt(bytes, offset) << 32 | (getInt(bytes, offset + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Write a big-endian int.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @param value  the int
+     */
+    static void putInt(final byte[] bytes, final int offset, final int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Write a big-endian long.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @param value  the long
+     */
+    static void putLong(final byte[] bytes, final int offset, final long value) {
+        putInt(bytes, offset, (int) (value >>> 32));
+        putInt(bytes, offset + 4, (int) value);
+    }
+
+    /**
+     * Compare two ranges of byte arrays in unsigned lexicographic order, a shorter range first if it is a prefix
+     * of the longer one. Reading whole longs does not pay off here without unaligned loads, so the bytes are
+     * compared one at a time.
+     *
+     * @param left      the first array
+     * @param leftFrom  first index of the first range, inclusive
+     * @param leftTo    last index of the first range, exclusive
+     * @param right     the second array
+     * @param rightFrom first index of the second range, inclusive
+     * @param rightTo   last index of the second range, exclusive
+     * @return a negative integer, zero, or a positive integer as the first range is less than,
+     *         equal to, or greater than the second range
+     */
+    static int compareUnsigned(final byte[] left, final int leftFrom, final int leftTo,
+                               final byte[] right, final int rightFrom, final int rightTo) {
+        final int leftLength = leftTo - leftFrom;
+        final int rightLength = rightTo - rightFrom;
+        final int length = Math.min(leftLength, rightLength);
+        for (int i = 0; i < length; i++) {
+            final int result = (left[leftFrom + i] & 0xFF) - (right[rightFrom + i] & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return leftLength - rightLength;
+    }
+
+    /**
+     * Compare the remaining bytes of two buffers in unsigned lexicographic order, without changing their positions.
+     * Direct buffers are compared a big-endian long at a time.
+     *
+     * @param left  the first buffer
+     * @param right the second buffer
+     * @return a negative integer, zero, or a positive integer as the first buffer is less than,
+     *         equal to, or greater than the second buffer
+     */
+    static int compareUnsigned(final ByteBuffer left, final ByteBuffer right) {
+        if (left.hasArray() && right.hasArray()) {
+            final int leftFrom = left.arrayOffset() + left.position();
+            final int rightFrom = right.arrayOffset() + right.position();
+            return compareUnsigned(left.array(), leftFrom, leftFrom + left.remaining(),
+                                   right.array(), rightFrom, rightFrom + right.remaining());
+        }
+        final int leftPosition = left.position();
+        final int rightPosition = right.position();
+        final int length = Math.min(left.remaining(), right.remaining());
+        int i = 0;
+        for (; i <= length - Long.BYTES; i += Long.BYTES) {
+            final long leftWord = getLong(left, leftPosition + i);
+            final long rightWord = getLong(right, rightPosition + i);
+            if (leftWord != rightWord) {
+                return Long.compareUnsigned(leftWord, rightWord);
+            }
+        }
+        for (; i < length; i++) {
+            final int result = (left.get(leftPosition + i) & 0xFF) - (right.get(rightPosition + i) & 0xFF);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return left.remaining() - right.remaining();
+    }
+
+    private static long getLong(final ByteBuffer buffer, final int index) {
+        final long value = buffer.getLong(index);
+        return buffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+}
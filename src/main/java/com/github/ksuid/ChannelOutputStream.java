@@ -0,0 +1,69 @@
+package com.github.ksuid;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Output stream writing to a {@link FileChannel} through a large direct buffer.
+ * <p>
+ * Writes are collected in the direct buffer and handed to the channel in one call once it is full,
+ * so the channel never has to copy heap arrays into a temporary native buffer.
+ * Instances are not threadsafe. Closing the stream closes the channel.
+ */
+final class ChannelOutputStream extends OutputStream {
+    static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    ChannelOutputStream(final FileChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            final int chunk = Math.min(remaining, buffer.remaining());
+            buffer.put(bytes, position, chunk);
+            position += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.ksuid;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static com.github.ksuid.Ksuid.EPOCH;
+import static com.github.ksuid.Ksuid.PAYLOAD_BYTES;
+
+/**
+ * Generate K-Sortable Globally Unique IDs (KSUID) quickly from a non-cryptographic pseudo random number generator,
+ * for test data, trace IDs and other internal IDs that nobody needs to be unable to guess.
+ * <p>
+ * Every thread draws the two payload longs from its own {@link SplittableRandom}, split from one root generator
+ * when the thread first uses the generator, so threads never contend and no payload array is filled and copied.
+ * A single thread generates tens of millions of KSUIDs per second.
+ * <p>
+ * The guarantees are weaker than those of a generator with a {@code SecureRandom}:
+ * <ul>
+ * <li>The KSUIDs are predictable. The state of a {@code SplittableRandom} can be recovered from a few of its outputs,
+ * and with it all KSUIDs the thread generated before and after. Never use them as tokens, secrets, or IDs that
+ * must not be enumerated.</li>
+ * <li>A thread's payloads are determined by 64 bits of seed rather than being 128 fresh random bits each, and
+ * {@link SplittableRandom#split() split} generators are only distinct with high probability. KSUIDs from one
+ * generator do not repeat in practice, but generators seeded independently in many processes collide far sooner
+ * than 128 random bits would, once their number approaches 2<sup>32</sup>.</li>
+ * <li>With a fixed seed the KSUIDs of the thread that constructs the generator are reproducible, those of other
+ * threads depend on the order in which the threads first use it.</li>
+ * </ul>
+ * <p>
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public class FastKsuidGenerator extends KsuidGenerator {
+    private final ThreadLocal<SplittableRandom> randoms;
+
+    /**
+     * Construct a fast KSUID generator seeded from the {@code SplittableRandom} default seed generator.
+     */
+    public FastKsuidGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Construct a fast KSUID generator with a fixed seed.
+     *
+     * @param seed the seed of the root generator
+     */
+    public FastKsuidGenerator(final long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private FastKsuidGenerator(final SplittableRandom root) {
+        this(ThreadLocal.withInitial(() -> {
+            synchronized (root) {
+                return root.split();
+            }
+        }));
+    }
+
+    private FastKsuidGenerator(final ThreadLocal<SplittableRandom> randoms) {
+        super(payloadSupplier(randoms));
+        this.randoms = randoms;
+    }
+
+    /**
+     * Generate a new KSUID with a timestamp component derived from the current time. Reads the clock with
+     * {@link System#currentTimeMillis()}, which is cheaper than creating an {@code Instant}.
+     *
+     * @return a Ksuid object
+     */
+    @Override
+    public Ksuid newKsuid() {
+        return newKsuid((int) (System.currentTimeMillis() / 1000 - EPOCH));
+    }
+
+    /**
+     * Generate a new KSUID with a timestamp component derived from an Instant.
+     *
+     * @param instant an Instant from which to derive the timestamp component
+     * @return a Ksuid object
+     */
+    @Override
+    public Ksuid newKsuid(final Instant instant) {
+        return newKsuid(toTimestamp(instant));
+    }
+
+    private Ksuid newKsuid(final int timestamp) {
+        final Object event = KsuidEvents.beginGenerate();
+        final SplittableRandom random = randoms.get();
+        final Ksuid ksuid = Ksuid.fromWords(timestamp, random.nextLong(), random.nextLong());
+        KsuidEvents.commitGenerate(event, getClass(), timestamp);
+        return ksuid;
+    }
+
+    private static Supplier<byte[]> payloadSupplier(final ThreadLocal<SplittableRandom> randoms) {
+        return () -> {
+            final SplittableRandom random = randoms.get();
+            final byte[] payload = new byte[PAYLOAD_BYTES];
+            Bytes.putLong(payload, 0, random.nextLong());
+            Bytes.putLong(payload, Long.BYTES, random.nextLong());
+            return payload;
+        };
+    }
+}
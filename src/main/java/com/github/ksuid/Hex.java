@@ -40,6 +40,19 @@ final class Hex {
         return bytes != null ? printHexBinary(bytes) : null;
     }
 
+    /**
+     * Writes the hexadecimal characters of an array of bytes into a character array, without allocating.
+     *
+     * @param bytes bytes to encode
+     * @param chars array receiving {@code bytes.length * 2} upper-case hexadecimal characters
+     */
+    static void hexEncode(final byte[] bytes, final char[] chars) {
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_CHARACTERS[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX_CHARACTERS[bytes[i] & 0xF];
+        }
+    }
+
 
     private static String printHexBinary(final byte[] bytes) {
         final StringBuilder r = new StringBuilder(bytes.length * 2);
@@ -0,0 +1,42 @@
+package com.github.ksuid;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Utility class to parse {@code host:port} addresses, shared by the implementations of {@link SocketAddresses}.
+ */
+final class InetSocketAddresses {
+    private InetSocketAddresses() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Parse a {@code host:port} address. IPv6 hosts may be given in brackets. An empty host is the loopback
+     * address, so a server only listens on all interfaces when asked to with {@code 0.0.0.0} or {@code [::]}.
+     *
+     * @param address {@code host:port} or {@code :port}
+     * @return the address, resolved if the host is a name
+     * @throws IllegalArgumentException if the address is not {@code host:port} or the port is invalid
+     */
+    static InetSocketAddress parse(final String address) {
+        final int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("address is not host:port: " + address);
+        }
+        String host = address.substring(0, colon);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        final int port;
+        try {
+            port = Integer.parseInt(address.substring(colon + 1));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("address has an invalid port: " + address);
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("address has an invalid port: " + address);
+        }
+        return host.isEmpty() ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port);
+    }
+}
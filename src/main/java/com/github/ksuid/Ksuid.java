@@ -1,16 +1,13 @@
 package com.github.ksuid;
 
 import java.io.Serializable;
-import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.Objects;
-import java.util.StringJoiner;
 
 import static com.github.ksuid.Base62.base62Decode;
-import static com.github.ksuid.Base62.base62Encode;
 import static com.github.ksuid.Hex.hexEncode;
 
 /**
@@ -24,14 +21,22 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
     static final int EPOCH = 1400000000;
     public static final int PAYLOAD_BYTES = 16;
 
-    private static final int TIMESTAMP_BYTES = 4;
-    private static final int TOTAL_BYTES = TIMESTAMP_BYTES + PAYLOAD_BYTES;
+    static final int TIMESTAMP_BYTES = 4;
+    static final int TOTAL_BYTES = TIMESTAMP_BYTES + PAYLOAD_BYTES;
     private static final int PAD_TO_LENGTH = 27;
-    private static final Comparator<Ksuid> COMPARATOR = Comparator.comparingInt(Ksuid::getTimestamp)
-                                                                  .thenComparing(Ksuid::getPayload);
 
     private static final long serialVersionUID = 3069563682618421304L;
 
+    /**
+     * The smallest KSUID, all bits zero. <code>000000000000000000000000000</code>
+     */
+    public static final Ksuid NIL = fromWords(0, 0, 0);
+
+    /**
+     * The largest KSUID, all bits one. <code>aWgEPTl1tmebfsQzFP4bxwgy80V</code>
+     */
+    public static final Ksuid MAX = fromWords(-1, -1, -1);
+
     private final int timestamp;
     private final byte[] payload;
     private final byte[] ksuidBytes;
@@ -43,10 +48,8 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
             }
 
             ksuidBytes = builder.ksuidBytes;
-            final ByteBuffer byteBuffer = ByteBuffer.wrap(ksuidBytes);
-            timestamp = byteBuffer.getInt();
-            payload = new byte[PAYLOAD_BYTES];
-            byteBuffer.get(payload);
+            timestamp = Bytes.getInt(ksuidBytes, 0);
+            payload = Arrays.copyOfRange(ksuidBytes, TIMESTAMP_BYTES, TOTAL_BYTES);
         } else {
             if (builder.payload.length != PAYLOAD_BYTES) {
                 throw new IllegalArgumentException("payload is not expected length of " + PAYLOAD_BYTES + " bytes");
@@ -54,13 +57,30 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
 
             timestamp = builder.timestamp;
             payload = builder.payload;
-            ksuidBytes = ByteBuffer.allocate(TOTAL_BYTES)
-                                   .putInt(timestamp)
-                                   .put(payload)
-                                   .array();
+            ksuidBytes = new byte[TOTAL_BYTES];
+            Bytes.putInt(ksuidBytes, 0, timestamp);
+            System.arraycopy(payload, 0, ksuidBytes, TIMESTAMP_BYTES, PAYLOAD_BYTES);
         }
     }
 
+    // for Lazy, which holds the decoded KSUID instead
+    private Ksuid() {
+        timestamp = 0;
+        payload = null;
+        ksuidBytes = null;
+    }
+
+    private Ksuid(final int timestamp, final long payloadHigh, final long payloadLow) {
+        this.timestamp = timestamp;
+        payload = new byte[PAYLOAD_BYTES];
+        Bytes.putLong(payload, 0, payloadHigh);
+        Bytes.putLong(payload, Long.BYTES, payloadLow);
+        ksuidBytes = new byte[TOTAL_BYTES];
+        Bytes.putInt(ksuidBytes, 0, timestamp);
+        Bytes.putLong(ksuidBytes, TIMESTAMP_BYTES, payloadHigh);
+        Bytes.putLong(ksuidBytes, TIMESTAMP_BYTES + Long.BYTES, payloadLow);
+    }
+
     /**
      * A builder to create a {@link Ksuid}.
      *
@@ -92,9 +112,85 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
      * @return  A {@code Ksuid} with the specified value
      */
     public static Ksuid fromString(final String ksuidString) {
-        return new Builder()
-                .withKsuidString(ksuidString)
-                .build();
+        try {
+            return new Builder()
+                    .withKsuidString(ksuidString)
+                    .build();
+        } catch (final IllegalArgumentException e) {
+            KsuidEvents.parseFailure(ksuidString, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a {@code Ksuid} that holds on to its string representation and decodes it only when the value is
+     * first needed, for KSUIDs that are mostly passed through unchanged, such as IDs parsed from a request and
+     * written to a response. The string is validated without decoding it and {@link #toString()} returns it
+     * as given. Equality, hash code, ordering and serialized form are those of {@link #fromString(String)}.
+     *
+     * @param ksuidString a 27-character KSUID string
+     * @return a {@code Ksuid} with the specified value
+     * @throws IllegalArgumentException if the string is not a valid KSUID string
+     */
+    public static Ksuid fromStringLazy(final String ksuidString) {
+        try {
+            if (ksuidString.length() != PAD_TO_LENGTH) {
+                throw new IllegalArgumentException("ksuid string is not expected length of " + PAD_TO_LENGTH + " characters");
+            }
+            Base62.checkKsuid(ksuidString, 0);
+        } catch (final IllegalArgumentException e) {
+            KsuidEvents.parseFailure(ksuidString, e.getMessage());
+            throw e;
+        }
+        return new Lazy(ksuidString);
+    }
+
+    /**
+     * Get the timestamp component of a KSUID string without creating a {@code Ksuid}, for example to bucket
+     * KSUIDs by time. The string is decoded in fixed-width limbs and nothing is allocated.
+     *
+     * @param ksuidString a 27-character KSUID string
+     * @return the timestamp component, as {@link #getTimestamp()} of the parsed KSUID
+     * @throws IllegalArgumentException if the string is not a valid KSUID string
+     */
+    public static int timestampOf(final CharSequence ksuidString) {
+        try {
+            if (ksuidString.length() != PAD_TO_LENGTH) {
+                throw new IllegalArgumentException("ksuid string is not expected length of " + PAD_TO_LENGTH + " characters");
+            }
+            return Base62.decodeKsuidTimestamp(ksuidString, 0);
+        } catch (final IllegalArgumentException e) {
+            KsuidEvents.parseFailure(ksuidString.toString(), e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Get the time component of a KSUID string without creating a {@code Ksuid}.
+     *
+     * @param ksuidString a 27-character KSUID string
+     * @return the time component, as {@link #getInstant()} of the parsed KSUID
+     * @throws IllegalArgumentException if the string is not a valid KSUID string
+     * @see #timestampOf(CharSequence)
+     */
+    public static Instant instantOf(final CharSequence ksuidString) {
+        return Instant.ofEpochSecond((long) timestampOf(ksuidString) + EPOCH);
+    }
+
+    /**
+     * Get the timestamp component of a raw 20-byte KSUID record, as returned by {@link #asBytes()},
+     * without creating a {@code Ksuid}. Only the first 4 bytes of the record are read.
+     *
+     * @param bytes  array containing the record
+     * @param offset offset of the record
+     * @return the timestamp component
+     * @throws IndexOutOfBoundsException if the timestamp bytes are out of the bounds of the array
+     */
+    public static int timestampOf(final byte[] bytes, final int offset) {
+        if (offset < 0 || offset > bytes.length - TIMESTAMP_BYTES) {
+            throw new IndexOutOfBoundsException("offset " + offset + " is out of bounds for length " + bytes.length);
+        }
+        return Bytes.getInt(bytes, offset);
     }
 
     /**
@@ -111,6 +207,97 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
                 .newKsuid(instant);
     }
 
+    /**
+     * Create a KSUID from the three big-endian words of its 160-bit value.
+     *
+     * @param timestamp   the timestamp component
+     * @param payloadHigh the first 8 payload bytes
+     * @param payloadLow  the last 8 payload bytes
+     * @return a new Ksuid
+     */
+    static Ksuid fromWords(final int timestamp, final long payloadHigh, final long payloadLow) {
+        return new Ksuid(timestamp, payloadHigh, payloadLow);
+    }
+
+    /**
+     * Get the KSUID that follows this one, this KSUID plus one as a 160-bit unsigned number.
+     * The increment carries from the payload into the timestamp. Useful as an exclusive bound of a key range.
+     *
+     * @return the next KSUID, or {@link #MAX} if this is {@code MAX}
+     */
+    public Ksuid next() {
+        return plus(1);
+    }
+
+    /**
+     * Get the KSUID that precedes this one, this KSUID minus one as a 160-bit unsigned number.
+     *
+     * @return the previous KSUID, or {@link #NIL} if this is {@code NIL}
+     */
+    public Ksuid prev() {
+        return plus(-1);
+    }
+
+    /**
+     * Add a signed amount to this KSUID as a 160-bit unsigned number. The result saturates at {@link #NIL}
+     * and {@link #MAX} instead of wrapping around.
+     *
+     * @param delta the amount to add, negative to subtract
+     * @return the sum, or this KSUID if {@code delta} is zero
+     */
+    public Ksuid plus(final long delta) {
+        if (delta == 0) {
+            return this;
+        }
+        long timestamp = this.timestamp & 0xFFFFFFFFL;
+        long high = Bytes.getLong(ksuidBytes, TIMESTAMP_BYTES);
+        long low = Bytes.getLong(ksuidBytes, TIMESTAMP_BYTES + Long.BYTES);
+        if (delta > 0) {
+            final long sum = low + delta;
+            if (Long.compareUnsigned(sum, low) < 0 && ++high == 0 && ++timestamp > 0xFFFFFFFFL) {
+                return MAX;
+            }
+            low = sum;
+        } else {
+            // -Long.MIN_VALUE is 2^63 when read as unsigned
+            final long magnitude = -delta;
+            if (Long.compareUnsigned(low, magnitude) < 0 && high-- == 0 && timestamp-- == 0) {
+                return NIL;
+            }
+            low -= magnitude;
+        }
+        return fromWords((int) timestamp, high, low);
+    }
+
+    /**
+     * Get the distance between this KSUID and another as the unsigned difference of their 160-bit values.
+     * Distances that do not fit in 64 bits saturate at 2<sup>64</sup>-1, which is {@code -1} as a signed long.
+     * Compare results with {@link Long#compareUnsigned(long, long)}.
+     *
+     * @param other the other KSUID
+     * @return the unsigned distance, zero if the KSUIDs are equal
+     */
+    public long distance(final Ksuid other) {
+        final int order = compareTo(other);
+        final byte[] larger = order >= 0 ? ksuidBytes : other.rawBytes();
+        final byte[] smaller = order >= 0 ? other.rawBytes() : ksuidBytes;
+        final long largerLow = Bytes.getLong(larger, TIMESTAMP_BYTES + Long.BYTES);
+        final long smallerLow = Bytes.getLong(smaller, TIMESTAMP_BYTES + Long.BYTES);
+        final long largerHigh = Bytes.getLong(larger, TIMESTAMP_BYTES);
+        final long smallerHigh = Bytes.getLong(smaller, TIMESTAMP_BYTES);
+        final long borrow = Long.compareUnsigned(largerLow, smallerLow) < 0 ? 1 : 0;
+        if (Bytes.getInt(larger, 0) != Bytes.getInt(smaller, 0)) {
+            // the timestamps differ by one at most if the difference is to fit in 64 bits
+            final boolean adjacent = (Bytes.getInt(larger, 0) & 0xFFFFFFFFL) - (Bytes.getInt(smaller, 0) & 0xFFFFFFFFL) == 1;
+            if (!adjacent || largerHigh != 0 || smallerHigh != -1 || borrow == 0) {
+                return -1;
+            }
+        } else if (largerHigh - smallerHigh - borrow != 0) {
+            return -1;
+        }
+        return largerLow - smallerLow;
+    }
+
     /**
      * Get the KSUID as a byte array.
      *
@@ -120,6 +307,24 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
         return Arrays.copyOf(ksuidBytes, ksuidBytes.length);
     }
 
+    /**
+     * Get the KSUID bytes without copying. The returned array must not be modified.
+     *
+     * @return KSUID bytes
+     */
+    byte[] rawBytes() {
+        return ksuidBytes;
+    }
+
+    /**
+     * Get the KSUID whose fields hold the value, which is this KSUID unless it is lazily decoded.
+     *
+     * @return the decoded KSUID
+     */
+    Ksuid decoded() {
+        return this;
+    }
+
     /**
      * Returns a {@code String} object representing this {@code Ksuid}. <code>0ujtsYcgvSTl8PAuAdqWYSMnLOv</code>
      *
@@ -149,6 +354,22 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
         return Instant.ofEpochSecond((long) timestamp + EPOCH);
     }
 
+    /**
+     * Get the KSUID time component as an Instant with sub-second precision.
+     * <p>
+     * The second fraction is read from the leading payload bytes as written by {@link SubsecondKsuidGenerator}.
+     * For KSUIDs from other generators those bytes are random, and so is the returned fraction of the second.
+     *
+     * @param precision {@link ChronoUnit#SECONDS SECONDS}, {@link ChronoUnit#MILLIS MILLIS} or {@link ChronoUnit#MICROS MICROS}
+     * @return an Instant
+     */
+    public Instant getInstant(final ChronoUnit precision) {
+        if (precision == ChronoUnit.SECONDS) {
+            return getInstant();
+        }
+        return Instant.ofEpochSecond((long) timestamp + EPOCH, SubsecondKsuidGenerator.nanosOf(payload, precision));
+    }
+
     /**
      * Get the KSUID time component in the system default timezone. e.g. <code>2017-10-09 21:00:47 -0700 PDT</code>
      *
@@ -165,7 +386,7 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
      * @return KSUID time component string
      */
     public String getTime(final ZoneId zoneId) {
-        return String.format("%1$tF %1$tT %1$tz %1$tZ", getInstant().atZone(zoneId));
+        return TimeFormatter.format((long) timestamp + EPOCH, zoneId);
     }
 
     /**
@@ -204,8 +425,24 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
      * @return KSUID inspect formatting string
      */
     public String toInspectString() {
-        return String.format("REPRESENTATION:%n%n  String: %1$s%n     Raw: %2$s%n%nCOMPONENTS:%n%n       Time: %3$s%n  Timestamp: %4$d%n    Payload: %5$s%n",
-                             toString(), asRaw(), getTime(), getTimestamp(), getPayload());
+        if (!TimeFormatter.usesAsciiDigits()) {
+            return String.format("REPRESENTATION:%n%n  String: %1$s%n     Raw: %2$s%n%nCOMPONENTS:%n%n       Time: %3$s%n  Timestamp: %4$d%n    Payload: %5$s%n",
+                                 toString(), asRaw(), getTime(), getTimestamp(), getPayload());
+        }
+        final String newline = System.lineSeparator();
+        final char[] hex = new char[TOTAL_BYTES * 2];
+        Hex.hexEncode(ksuidBytes, hex);
+        final StringBuilder builder = new StringBuilder(200);
+        builder.append("REPRESENTATION:").append(newline).append(newline)
+               .append("  String: ");
+        appendBase62(builder);
+        builder.append(newline)
+               .append("     Raw: ").append(hex).append(newline).append(newline)
+               .append("COMPONENTS:").append(newline).append(newline)
+               .append("       Time: ").append(getTime()).append(newline)
+               .append("  Timestamp: ").append(timestamp).append(newline)
+               .append("    Payload: ").append(hex, TIMESTAMP_BYTES * 2, PAYLOAD_BYTES * 2).append(newline);
+        return builder.toString();
     }
 
     /**
@@ -218,12 +455,33 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
      * @see #toString()
      */
     public String toLogString() {
-        return new StringJoiner(", ", this.getClass().getSimpleName() + "[", "]")
-                .add("string = " + toString())
-                .add("timestamp = " + timestamp)
-                .add("payload = " + Arrays.toString(payload))
-                .add("ksuidBytes = " + Arrays.toString(ksuidBytes))
-                .toString();
+        final StringBuilder builder = new StringBuilder(256);
+        builder.append(getClass().getSimpleName()).append("[string = ");
+        appendBase62(builder);
+        builder.append(", timestamp = ").append(timestamp)
+               .append(", payload = ");
+        appendBytes(builder, ksuidBytes, TIMESTAMP_BYTES, PAYLOAD_BYTES);
+        builder.append(", ksuidBytes = ");
+        appendBytes(builder, ksuidBytes, 0, TOTAL_BYTES);
+        return builder.append(']').toString();
+    }
+
+    private void appendBase62(final StringBuilder builder) {
+        final char[] chars = new char[PAD_TO_LENGTH];
+        Base62.encodeKsuid(ksuidBytes, 0, chars, 0);
+        builder.append(chars);
+    }
+
+    // same output as Arrays.toString(byte[]) on the range
+    private static void appendBytes(final StringBuilder builder, final byte[] bytes, final int offset, final int length) {
+        builder.append('[');
+        for (int i = offset; i < offset + length; i++) {
+            if (i > offset) {
+                builder.append(", ");
+            }
+            builder.append(bytes[i]);
+        }
+        builder.append(']');
     }
 
     @Override
@@ -235,18 +493,21 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
             return false;
         }
 
-        final Ksuid that = (Ksuid) o;
+        final Ksuid self = decoded();
+        final Ksuid that = ((Ksuid) o).decoded();
 
-        return Objects.equals(this.timestamp, that.timestamp) &&
-                Arrays.equals(this.payload, that.payload) &&
-                Arrays.equals(this.ksuidBytes, that.ksuidBytes);
+        return self.timestamp == that.timestamp &&
+                Arrays.equals(self.payload, that.payload) &&
+                Arrays.equals(self.ksuidBytes, that.ksuidBytes);
     }
 
     @Override
     public final int hashCode() {
-        int result = Objects.hash(timestamp);
-        result = 31 * result + Arrays.hashCode(payload);
-        result = 31 * result + Arrays.hashCode(ksuidBytes);
+        final Ksuid self = decoded();
+        // Objects.hash(timestamp) without boxing
+        int result = 31 + Integer.hashCode(self.timestamp);
+        result = 31 * result + Arrays.hashCode(self.payload);
+        result = 31 * result + Arrays.hashCode(self.ksuidBytes);
         return result;
     }
 
@@ -257,13 +518,47 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
      */
     @Override
     public String toString() {
-        return base62Encode(ksuidBytes, PAD_TO_LENGTH);
+        final char[] chars = new char[PAD_TO_LENGTH];
+        Base62.encodeKsuid(ksuidBytes, 0, chars, 0);
+        return new String(chars);
     }
 
+    /**
+     * Compares this KSUID with another one in the order of their bytes, which is also the order of
+     * their string representations. The timestamp component is compared as an unsigned value.
+     *
+     * @param other the KSUID to compare with
+     * @return a negative integer, zero, or a positive integer as this KSUID is less than, equal to,
+     *         or greater than the other KSUID
+     */
     @Override
     public int compareTo(final Ksuid other) {
         Objects.requireNonNull(other, "other ksuid must not be null");
-        return COMPARATOR.compare(this, other);
+        return compare(ksuidBytes, 0, other.rawBytes(), 0);
+    }
+
+    /**
+     * Compare two 20-byte KSUID records as unsigned big-endian numbers.
+     *
+     * @param left        array containing the first record
+     * @param leftOffset  offset of the first record
+     * @param right       array containing the second record
+     * @param rightOffset offset of the second record
+     * @return a negative integer, zero, or a positive integer as the first record is less than,
+     *         equal to, or greater than the second record
+     */
+    static int compare(final byte[] left, final int leftOffset, final byte[] right, final int rightOffset) {
+        final int result = Integer.compareUnsigned(Bytes.getInt(left, leftOffset), Bytes.getInt(right, rightOffset));
+        if (result != 0) {
+            return result;
+        }
+        final int payloadResult = Long.compareUnsigned(Bytes.getLong(left, leftOffset + TIMESTAMP_BYTES),
+                                                       Bytes.getLong(right, rightOffset + TIMESTAMP_BYTES));
+        if (payloadResult != 0) {
+            return payloadResult;
+        }
+        return Long.compareUnsigned(Bytes.getLong(left, leftOffset + TIMESTAMP_BYTES + Long.BYTES),
+                                    Bytes.getLong(right, rightOffset + TIMESTAMP_BYTES + Long.BYTES));
     }
 
 
@@ -328,7 +623,13 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
          * @return this builder
          */
         public Builder withKsuidString(final String ksuidString) {
-            this.ksuidBytes = base62Decode(ksuidString);
+            if (ksuidString.length() == PAD_TO_LENGTH) {
+                final byte[] bytes = new byte[TOTAL_BYTES];
+                Base62.decodeKsuid(ksuidString, 0, bytes, 0);
+                this.ksuidBytes = bytes;
+            } else {
+                this.ksuidBytes = base62Decode(ksuidString);
+            }
             return this;
         }
 
@@ -344,4 +645,126 @@ public class Ksuid implements Comparable<Ksuid>, Serializable {
         }
     }
 
+    /**
+     * A KSUID string that is decoded when its value is first needed. Every public method that reads the value
+     * is overridden to delegate to the decoded KSUID, and {@code equals} and {@code hashCode} go through
+     * {@link #decoded()}. The decoded KSUID is cached without synchronization, which is safe because it is
+     * immutable; threads that race decode the string more than once. It is serialized as the decoded KSUID.
+     */
+    private static final class Lazy extends Ksuid {
+        private static final long serialVersionUID = -4925512396476521570L;
+
+        private final String string;
+        private transient Ksuid decoded;
+
+        private Lazy(final String string) {
+            this.string = string;
+        }
+
+        @Override
+        Ksuid decoded() {
+            Ksuid result = decoded;
+            if (result == null) {
+                result = new Builder().withKsuidString(string).build();
+                decoded = result;
+            }
+            return result;
+        }
+
+        @Override
+        byte[] rawBytes() {
+            return decoded().rawBytes();
+        }
+
+        @Override
+        public Ksuid next() {
+            return decoded().next();
+        }
+
+        @Override
+        public Ksuid prev() {
+            return decoded().prev();
+        }
+
+        @Override
+        public Ksuid plus(final long delta) {
+            return delta == 0 ? this : decoded().plus(delta);
+        }
+
+        @Override
+        public long distance(final Ksuid other) {
+            return decoded().distance(other);
+        }
+
+        @Override
+        public byte[] asBytes() {
+            return decoded().asBytes();
+        }
+
+        @Override
+        @Deprecated
+        public String asString() {
+            return string;
+        }
+
+        @Override
+        public String asRaw() {
+            return decoded().asRaw();
+        }
+
+        @Override
+        public Instant getInstant() {
+            return decoded().getInstant();
+        }
+
+        @Override
+        public Instant getInstant(final ChronoUnit precision) {
+            return decoded().getInstant(precision);
+        }
+
+        @Override
+        public String getTime() {
+            return decoded().getTime();
+        }
+
+        @Override
+        public String getTime(final ZoneId zoneId) {
+            return decoded().getTime(zoneId);
+        }
+
+        @Override
+        public int getTimestamp() {
+            return decoded().getTimestamp();
+        }
+
+        @Override
+        public String getPayload() {
+            return decoded().getPayload();
+        }
+
+        @Override
+        public String toInspectString() {
+            return decoded().toInspectString();
+        }
+
+        @Override
+        public String toLogString() {
+            return decoded().toLogString();
+        }
+
+        @Override
+        public String toString() {
+            return string;
+        }
+
+        @Override
+        public int compareTo(final Ksuid other) {
+            return decoded().compareTo(other);
+        }
+
+        private Object writeReplace() {
+            return decoded();
+        }
+    }
+
 }
@@ -0,0 +1,322 @@
+package com.github.ksuid;
+
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.github.ksuid.Base62.KSUID_ENCODED_LENGTH;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * Encode and decode batches of KSUIDs to and from contiguous character buffers.
+ * <p>
+ * Each KSUID is written as its 27-character string representation followed by the separator,
+ * so record {@code i} starts at {@code i * stride()}. Decoding accepts the same layout, with or
+ * without the separator after the last record, and produces raw 20-byte KSUID records packed
+ * into one {@code byte[]} in the form returned by {@link Ksuid#asBytes()}.
+ * The separator characters are skipped, not validated, when decoding.
+ * <p>
+ * Instances are immutable and threadsafe. A {@link #parallel()} codec splits large batches into
+ * chunks that are encoded or decoded on the common {@link java.util.concurrent.ForkJoinPool ForkJoinPool}.
+ * <p>
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidBatchCodec {
+    private static final int CHUNK_RECORDS = 8192;
+
+    private final String separator;
+    private final int stride;
+    private final boolean parallel;
+
+    private KsuidBatchCodec(final String separator, final boolean parallel) {
+        this.separator = separator;
+        this.stride = KSUID_ENCODED_LENGTH + separator.length();
+        this.parallel = parallel;
+    }
+
+    /**
+     * A codec writing KSUID strings back to back without separators.
+     *
+     * @return codec with a stride of 27 characters
+     */
+    public static KsuidBatchCodec fixedWidth() {
+        return new KsuidBatchCodec("", false);
+    }
+
+    /**
+     * A codec writing each KSUID string followed by a separator, for example {@code "\n"} or {@code ","}.
+     *
+     * @param separator characters written after each KSUID, must be ASCII
+     * @return codec with a stride of 27 characters plus the separator length
+     */
+    public static KsuidBatchCodec withSeparator(final String separator) {
+        if (!separator.chars().allMatch(c -> c < 128)) {
+            throw new IllegalArgumentException("separator must be ASCII");
+        }
+        return new KsuidBatchCodec(separator, false);
+    }
+
+    /**
+     * A codec with the same layout as this one that splits large batches across cores.
+     *
+     * @return a parallel codec
+     */
+    public KsuidBatchCodec parallel() {
+        return new KsuidBatchCodec(separator, true);
+    }
+
+    /**
+     * Get the number of characters per encoded KSUID including the separator.
+     *
+     * @return stride in characters
+     */
+    public int stride() {
+        return stride;
+    }
+
+    /**
+     * Encode KSUIDs into characters.
+     *
+     * @param ksuids KSUIDs to encode
+     * @return characters of length {@code ksuids.size() * stride()}
+     */
+    public char[] encode(final List<Ksuid> ksuids) {
+        // copied once, so chunks index an array whatever the kind of list
+        return encode(ksuids.toArray(new Ksuid[0]));
+    }
+
+    /**
+     * Encode KSUIDs into characters.
+     *
+     * @param ksuids KSUIDs to encode
+     * @return characters of length {@code ksuids.length * stride()}
+     */
+    public char[] encode(final Ksuid... ksuids) {
+        final char[] chars = new char[ksuids.length * stride];
+        forEachChunk("encode", ksuids.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                writeRecord(ksuids[i].rawBytes(), 0, chars, i * stride);
+            }
+        });
+        return chars;
+    }
+
+    /**
+     * Encode KSUIDs into ASCII bytes.
+     *
+     * @param ksuids KSUIDs to encode
+     * @return ASCII bytes of length {@code ksuids.size() * stride()}
+     */
+    public byte[] encodeAscii(final List<Ksuid> ksuids) {
+        return encodeAscii(ksuids.toArray(new Ksuid[0]));
+    }
+
+    /**
+     * Encode KSUIDs into ASCII bytes.
+     *
+     * @param ksuids KSUIDs to encode
+     * @return ASCII bytes of length {@code ksuids.length * stride()}
+     */
+    public byte[] encodeAscii(final Ksuid... ksuids) {
+        final byte[] ascii = new byte[ksuids.length * stride];
+        forEachChunk("encodeAscii", ksuids.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                writeRecord(ksuids[i].rawBytes(), 0, ascii, i * stride);
+            }
+        });
+        return ascii;
+    }
+
+    /**
+     * Encode packed 20-byte KSUID records into characters.
+     *
+     * @param records KSUID records, the length must be a multiple of 20
+     * @return characters of length {@code records.length / 20 * stride()}
+     */
+    public char[] encodeRecords(final byte[] records) {
+        final int count = recordCount(records);
+        final char[] chars = new char[count * stride];
+        encodeRecords(records, 0, count, chars, 0);
+        return chars;
+    }
+
+    /**
+     * Encode packed 20-byte KSUID records into characters.
+     *
+     * @param records       array containing the KSUID records
+     * @param recordsOffset offset of the first record
+     * @param count         number of records to encode
+     * @param chars         array receiving {@code count * stride()} characters
+     * @param charsOffset   offset of the first character
+     */
+    public void encodeRecords(final byte[] records, final int recordsOffset, final int count,
+                              final char[] chars, final int charsOffset) {
+        checkRange(records.length, recordsOffset, count, TOTAL_BYTES);
+        checkRange(chars.length, charsOffset, count, stride);
+        forEachChunk("encodeRecords", count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                writeRecord(records, recordsOffset + i * TOTAL_BYTES, chars, charsOffset + i * stride);
+            }
+        });
+    }
+
+    /**
+     * Encode packed 20-byte KSUID records into ASCII bytes.
+     *
+     * @param records KSUID records, the length must be a multiple of 20
+     * @return ASCII bytes of length {@code records.length / 20 * stride()}
+     */
+    public byte[] encodeRecordsAscii(final byte[] records) {
+        final int count = recordCount(records);
+        final byte[] ascii = new byte[count * stride];
+        encodeRecordsAscii(records, 0, count, ascii, 0);
+        return ascii;
+    }
+
+    /**
+     * Encode packed 20-byte KSUID records into ASCII bytes.
+     *
+     * @param records       array containing the KSUID records
+     * @param recordsOffset offset of the first record
+     * @param count         number of records to encode
+     * @param ascii         array receiving {@code count * stride()} ASCII bytes
+     * @param asciiOffset   offset of the first ASCII byte
+     */
+    public void encodeRecordsAscii(final byte[] records, final int recordsOffset, final int count,
+                                   final byte[] ascii, final int asciiOffset) {
+        checkRange(records.length, recordsOffset, count, TOTAL_BYTES);
+        checkRange(ascii.length, asciiOffset, count, stride);
+        forEachChunk("encodeRecordsAscii", count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                writeRecord(records, recordsOffset + i * TOTAL_BYTES, ascii, asciiOffset + i * stride);
+            }
+        });
+    }
+
+    /**
+     * Decode characters into packed 20-byte KSUID records.
+     *
+     * @param chars encoded KSUIDs, with or without a separator after the last one
+     * @return KSUID records
+     * @throws IllegalArgumentException if the length does not match the layout or a KSUID is invalid
+     */
+    public byte[] decode(final char[] chars) {
+        final int count = encodedCount(chars.length);
+        final byte[] records = new byte[count * TOTAL_BYTES];
+        decode(chars, 0, count, records, 0);
+        return records;
+    }
+
+    /**
+     * Decode characters into packed 20-byte KSUID records.
+     *
+     * @param chars         array containing the encoded KSUIDs
+     * @param charsOffset   offset of the first character
+     * @param count         number of KSUIDs to decode
+     * @param records       array receiving {@code count * 20} bytes
+     * @param recordsOffset offset of the first record
+     * @throws IllegalArgumentException if a KSUID is invalid
+     */
+    public void decode(final char[] chars, final int charsOffset, final int count,
+                       final byte[] records, final int recordsOffset) {
+        checkRange(chars.length + separator.length(), charsOffset, count, stride);
+        checkRange(records.length, recordsOffset, count, TOTAL_BYTES);
+        final CharBuffer buffer = CharBuffer.wrap(chars);
+        forEachChunk("decode", count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Base62.decodeKsuid(buffer, charsOffset + i * stride, records, recordsOffset + i * TOTAL_BYTES);
+            }
+        });
+    }
+
+    /**
+     * Decode ASCII bytes into packed 20-byte KSUID records.
+     *
+     * @param ascii encoded KSUIDs, with or without a separator after the last one
+     * @return KSUID records
+     * @throws IllegalArgumentException if the length does not match the layout or a KSUID is invalid
+     */
+    public byte[] decodeAscii(final byte[] ascii) {
+        final int count = encodedCount(ascii.length);
+        final byte[] records = new byte[count * TOTAL_BYTES];
+        decodeAscii(ascii, 0, count, records, 0);
+        return records;
+    }
+
+    /**
+     * Decode ASCII bytes into packed 20-byte KSUID records.
+     *
+     * @param ascii         array containing the encoded KSUIDs
+     * @param asciiOffset   offset of the first ASCII byte
+     * @param count         number of KSUIDs to decode
+     * @param records       array receiving {@code count * 20} bytes
+     * @param recordsOffset offset of the first record
+     * @throws IllegalArgumentException if a KSUID is invalid
+     */
+    public void decodeAscii(final byte[] ascii, final int asciiOffset, final int count,
+                            final byte[] records, final int recordsOffset) {
+        checkRange(ascii.length + separator.length(), asciiOffset, count, stride);
+        checkRange(records.length, recordsOffset, count, TOTAL_BYTES);
+        forEachChunk("decodeAscii", count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Base62.decodeKsuid(ascii, asciiOffset + i * stride, records, recordsOffset + i * TOTAL_BYTES);
+            }
+        });
+    }
+
+    private void writeRecord(final byte[] record, final int recordOffset, final char[] chars, final int offset) {
+        Base62.encodeKsuid(record, recordOffset, chars, offset);
+        for (int i = 0; i < separator.length(); i++) {
+            chars[offset + KSUID_ENCODED_LENGTH + i] = separator.charAt(i);
+        }
+    }
+
+    private void writeRecord(final byte[] record, final int recordOffset, final byte[] ascii, final int offset) {
+        Base62.encodeKsuid(record, recordOffset, ascii, offset);
+        for (int i = 0; i < separator.length(); i++) {
+            ascii[offset + KSUID_ENCODED_LENGTH + i] = (byte) separator.charAt(i);
+        }
+    }
+
+    private void forEachChunk(final String operation, final int count, final ChunkAction action) {
+        final Object event = KsuidEvents.beginBulk();
+        if (!parallel || count <= CHUNK_RECORDS) {
+            action.apply(0, count);
+        } else {
+            final int chunks = (count + CHUNK_RECORDS - 1) / CHUNK_RECORDS;
+            IntStream.range(0, chunks)
+                     .parallel()
+                     .forEach(chunk -> action.apply(chunk * CHUNK_RECORDS, Math.min(count, (chunk + 1) * CHUNK_RECORDS)));
+        }
+        KsuidEvents.commitBulk(event, operation, count);
+    }
+
+    private int encodedCount(final int length) {
+        if (length % stride == 0) {
+            return length / stride;
+        }
+        if ((length + separator.length()) % stride == 0) {
+            return (length + separator.length()) / stride;
+        }
+        throw new IllegalArgumentException("encoded length " + length + " is not a multiple of " + stride);
+    }
+
+    private static int recordCount(final byte[] records) {
+        if (records.length % TOTAL_BYTES != 0) {
+            throw new IllegalArgumentException("records length " + records.length + " is not a multiple of " + TOTAL_BYTES);
+        }
+        return records.length / TOTAL_BYTES;
+    }
+
+    private static void checkRange(final int length, final int offset, final int count, final int size) {
+        if (offset < 0 || count < 0 || (long) offset + (long) count * size > length) {
+            throw new IndexOutOfBoundsException("offset " + offset + " and count " + count + " exceed length " + length);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        void apply(int from, int to);
+    }
+}
@@ -0,0 +1,505 @@
+package com.github.ksuid;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.github.ksuid.Ksuid.PAYLOAD_BYTES;
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * Encode and decode KSUIDs to and from a compact stream of blocks.
+ * <p>
+ * Each block holds up to {@link #blockSize()} KSUIDs and starts with two unsigned varints, the number of KSUIDs
+ * and the number of bytes that follow, so a reader can skip a block without decoding it. The block body is the
+ * first timestamp as 4 big-endian bytes, the timestamps as runs of equal values, and then the 16-byte payloads
+ * in the order of the KSUIDs. The first run is just its length; every further run is the zig-zag varint
+ * difference to the previous timestamp followed by its length. Blocks are independent of each other.
+ * <p>
+ * The payloads are random and are stored as they are, so the timestamps are what shrinks: sorted KSUIDs from
+ * a busy source take a little more than 16 bytes each, against 20 raw and 27 as strings. KSUIDs in any order
+ * can be encoded, but every change of timestamp starts a new run, so sort them first for the best result,
+ * for example with {@link #encodeSorted(Collection)}.
+ * <p>
+ * Instances are immutable and threadsafe, {@link Encoder encoders} are not.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidBlockCodec {
+    /**
+     * Number of KSUIDs per block of {@link #create()}.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    /**
+     * Largest number of KSUIDs in a block.
+     */
+    public static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    // two varints of up to 3 bytes each for at most MAX_BLOCK_SIZE KSUIDs
+    private static final int MAX_HEADER_BYTES = 6;
+    // a run of one: a zig-zag delta of up to 33 bits and a length of up to 17 bits
+    private static final int MAX_RUN_BYTES = 5 + 3;
+
+    private final int blockSize;
+
+    private KsuidBlockCodec(final int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * A codec with blocks of {@link #DEFAULT_BLOCK_SIZE} KSUIDs.
+     *
+     * @return codec
+     */
+    public static KsuidBlockCodec create() {
+        return new KsuidBlockCodec(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * A codec with blocks of up to {@code blockSize} KSUIDs. Larger blocks save a few bytes of headers,
+     * smaller blocks make random access finer.
+     *
+     * @param blockSize KSUIDs per block, between 1 and {@link #MAX_BLOCK_SIZE}
+     * @return codec
+     */
+    public static KsuidBlockCodec withBlockSize(final int blockSize) {
+        if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("blockSize must be between 1 and " + MAX_BLOCK_SIZE);
+        }
+        return new KsuidBlockCodec(blockSize);
+    }
+
+    /**
+     * Get the number of KSUIDs per block.
+     *
+     * @return KSUIDs per block
+     */
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Get the largest number of bytes a block of KSUIDs can take, whatever their order.
+     *
+     * @param count number of KSUIDs in the block
+     * @return bytes
+     */
+    public static int maxEncodedSize(final int count) {
+        return MAX_HEADER_BYTES + TIMESTAMP_BYTES + count * (MAX_RUN_BYTES + PAYLOAD_BYTES);
+    }
+
+    /**
+     * Create an encoder for a stream of KSUIDs.
+     *
+     * @return encoder
+     */
+    public Encoder newEncoder() {
+        return new Encoder(blockSize);
+    }
+
+    /**
+     * Encode KSUIDs in their order.
+     *
+     * @param ksuids KSUIDs to encode
+     * @return buffer containing the blocks between position 0 and its limit
+     */
+    public ByteBuffer encode(final Collection<Ksuid> ksuids) {
+        final Object event = KsuidEvents.beginBulk();
+        final Encoder encoder = newEncoder();
+        for (final Ksuid ksuid : ksuids) {
+            encoder.add(ksuid);
+        }
+        encoder.finish();
+        final ByteBuffer buffer = ByteBuffer.allocate(encoder.pendingBytes());
+        encoder.drainTo(buffer);
+        buffer.flip();
+        KsuidEvents.commitBulk(event, "encodeBlocks", ksuids.size());
+        return buffer;
+    }
+
+    /**
+     * Encode KSUIDs in ascending order.
+     *
+     * @param ksuids KSUIDs to sort and encode, the collection is not modified
+     * @return buffer containing the blocks between position 0 and its limit
+     */
+    public ByteBuffer encodeSorted(final Collection<Ksuid> ksuids) {
+        final List<Ksuid> sorted = new ArrayList<>(ksuids);
+        sorted.sort(null);
+        return encode(sorted);
+    }
+
+    /**
+     * Decode all blocks from the position to the limit of a buffer. The position is moved to the limit.
+     *
+     * @param src buffer containing complete blocks
+     * @return the KSUIDs in the order they were encoded
+     * @throws IllegalArgumentException if a block is invalid or incomplete
+     */
+    public static List<Ksuid> decode(final ByteBuffer src) {
+        final Object event = KsuidEvents.beginBulk();
+        final List<Ksuid> ksuids = new ArrayList<>();
+        byte[] records = new byte[DEFAULT_BLOCK_SIZE * TOTAL_BYTES];
+        while (src.hasRemaining()) {
+            final int count = peekCount(src);
+            if (count * TOTAL_BYTES > records.length) {
+                records = new byte[count * TOTAL_BYTES];
+            }
+            if (decodeBlock(src, records, 0) < 0) {
+                throw new IllegalArgumentException("incomplete block at position " + src.position());
+            }
+            for (int i = 0; i < count; i++) {
+                final byte[] bytes = new byte[TOTAL_BYTES];
+                System.arraycopy(records, i * TOTAL_BYTES, bytes, 0, TOTAL_BYTES);
+                ksuids.add(Ksuid.newBuilder().withKsuidBytes(bytes).build());
+            }
+        }
+        KsuidEvents.commitBulk(event, "decodeBlocks", ksuids.size());
+        return ksuids;
+    }
+
+    /**
+     * Decode the block at the position of a buffer into packed 20-byte KSUID records, in the form returned by
+     * {@link Ksuid#asBytes()}. If the block is complete the position is moved past it, otherwise the buffer is
+     * left unchanged so that the caller can read more input and try again.
+     *
+     * @param src           buffer positioned at the start of a block
+     * @param records       array receiving the records
+     * @param recordsOffset offset of the first record
+     * @return the number of KSUIDs decoded, or -1 if the block is incomplete
+     * @throws IllegalArgumentException  if the block is invalid
+     * @throws IndexOutOfBoundsException if the records do not fit
+     */
+    public static int decodeBlock(final ByteBuffer src, final byte[] records, final int recordsOffset) {
+        final int start = src.position();
+        final int count = readVarint(src);
+        final int bodyBytes = readVarint(src);
+        if (count == -1 || bodyBytes == -1 || src.remaining() < bodyBytes) {
+            src.position(start);
+            return -1;
+        }
+        checkHeader(start, count, bodyBytes);
+        if (recordsOffset < 0 || (long) recordsOffset + (long) count * TOTAL_BYTES > records.length) {
+            throw new IndexOutOfBoundsException("offset " + recordsOffset + " and count " + count + " exceed length " + records.length);
+        }
+        final int end = src.position() + bodyBytes;
+        final ByteBuffer body = src.duplicate();
+        body.limit(end);
+        try {
+            decodeBody(body, count, records, recordsOffset);
+        } catch (final IllegalArgumentException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("invalid block at position " + start);
+        }
+        if (body.hasRemaining()) {
+            throw new IllegalArgumentException("invalid block at position " + start);
+        }
+        src.position(end);
+        return count;
+    }
+
+    /**
+     * Skip the block at the position of a buffer without decoding it.
+     *
+     * @param src buffer positioned at the start of a block
+     * @return the number of KSUIDs in the skipped block, or -1 if it is incomplete and the buffer was left unchanged
+     * @throws IllegalArgumentException if the block header is invalid
+     */
+    public static int skipBlock(final ByteBuffer src) {
+        final int start = src.position();
+        final int count = readVarint(src);
+        final int bodyBytes = readVarint(src);
+        if (count == -1 || bodyBytes == -1 || src.remaining() < bodyBytes) {
+            src.position(start);
+            return -1;
+        }
+        checkHeader(start, count, bodyBytes);
+        src.position(src.position() + bodyBytes);
+        return count;
+    }
+
+    /**
+     * Get the first timestamp of the block at the position of a buffer, without moving the position.
+     * Together with {@link #skipBlock(ByteBuffer)} this finds the blocks of a time range in sorted streams.
+     *
+     * @param src buffer positioned at the start of a complete block
+     * @return the timestamp of the first KSUID of the block
+     * @throws IllegalArgumentException if the block is invalid or incomplete
+     */
+    public static int firstTimestamp(final ByteBuffer src) {
+        final ByteBuffer header = src.duplicate();
+        final int count = readVarint(header);
+        final int bodyBytes = readVarint(header);
+        if (count == -1 || bodyBytes == -1 || header.remaining() < bodyBytes) {
+            throw new IllegalArgumentException("incomplete block at position " + src.position());
+        }
+        checkHeader(src.position(), count, bodyBytes);
+        return header.getInt();
+    }
+
+    private static int peekCount(final ByteBuffer src) {
+        final int count = readVarint(src.duplicate());
+        if (count == -1) {
+            throw new IllegalArgumentException("incomplete block at position " + src.position());
+        }
+        return Math.min(count, MAX_BLOCK_SIZE);
+    }
+
+    private static void checkHeader(final int start, final int count, final int bodyBytes) {
+        if (count < 1 || count > MAX_BLOCK_SIZE || bodyBytes < TIMESTAMP_BYTES + 1 + count * PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("invalid block at position " + start);
+        }
+    }
+
+    private static void decodeBody(final ByteBuffer body, final int count, final byte[] records, final int recordsOffset) {
+        long timestamp = body.getInt() & 0xFFFFFFFFL;
+        int decoded = 0;
+        while (decoded < count) {
+            if (decoded > 0) {
+                timestamp += unzigzag(readVarlong(body));
+                if (timestamp < 0 || timestamp > 0xFFFFFFFFL) {
+                    throw new IllegalArgumentException("timestamp out of range");
+                }
+            }
+            final int run = readVarint(body);
+            if (run < 1 || run > count - decoded) {
+                throw new IllegalArgumentException("invalid run length");
+            }
+            for (int end = decoded + run; decoded < end; decoded++) {
+                Bytes.putInt(records, recordsOffset + decoded * TOTAL_BYTES, (int) timestamp);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            body.get(records, recordsOffset + i * TOTAL_BYTES + TIMESTAMP_BYTES, PAYLOAD_BYTES);
+        }
+    }
+
+    /**
+     * Encode a block of packed 20-byte records.
+     *
+     * @return offset after the block
+     */
+    private static int encodeBlock(final byte[] records, final int count, final byte[] out, final int offset) {
+        int runBytes = 0;
+        int previous = Bytes.getInt(records, 0);
+        int run = 1;
+        for (int i = 1; i < count; i++) {
+            final int timestamp = Bytes.getInt(records, i * TOTAL_BYTES);
+            if (timestamp == previous) {
+                run++;
+            } else {
+                runBytes += varintSize(run) + varlongSize(zigzag(delta(previous, timestamp)));
+                previous = timestamp;
+                run = 1;
+            }
+        }
+        runBytes += varintSize(run);
+
+        int position = writeVarint(out, offset, count);
+        position = writeVarint(out, position, TIMESTAMP_BYTES + runBytes + count * PAYLOAD_BYTES);
+
+        previous = Bytes.getInt(records, 0);
+        Bytes.putInt(out, position, previous);
+        position += TIMESTAMP_BYTES;
+        run = 1;
+        for (int i = 1; i < count; i++) {
+            final int timestamp = Bytes.getInt(records, i * TOTAL_BYTES);
+            if (timestamp == previous) {
+                run++;
+            } else {
+                position = writeVarint(out, position, run);
+                position = writeVarlong(out, position, zigzag(delta(previous, timestamp)));
+                previous = timestamp;
+                run = 1;
+            }
+        }
+        position = writeVarint(out, position, run);
+
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(records, i * TOTAL_BYTES + TIMESTAMP_BYTES, out, position, PAYLOAD_BYTES);
+            position += PAYLOAD_BYTES;
+        }
+        return position;
+    }
+
+    private static long delta(final int from, final int to) {
+        return (to & 0xFFFFFFFFL) - (from & 0xFFFFFFFFL);
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintSize(final int value) {
+        return varlongSize(value & 0xFFFFFFFFL);
+    }
+
+    private static int varlongSize(final long value) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(value | 1) + 6) / 7;
+    }
+
+    private static int writeVarint(final byte[] out, final int offset, final int value) {
+        return writeVarlong(out, offset, value & 0xFFFFFFFFL);
+    }
+
+    private static int writeVarlong(final byte[] out, final int offset, final long value) {
+        int position = offset;
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out[position++] = (byte) (v | 0x80);
+            v >>>= 7;
+        }
+        out[position++] = (byte) v;
+        return position;
+    }
+
+    /**
+     * Read a varint of up to 31 bits.
+     *
+     * @return the value, or -1 if the buffer ends before the varint
+     */
+    private static int readVarint(final ByteBuffer src) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!src.hasRemaining()) {
+                return -1;
+            }
+            final byte b = src.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0 || shift == 28 && (b & 0x70) != 0) {
+                    throw new IllegalArgumentException("varint out of range at position " + (src.position() - 1));
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long at position " + (src.position() - 1));
+    }
+
+    private static long readVarlong(final ByteBuffer src) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = src.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long at position " + (src.position() - 1));
+    }
+
+    /**
+     * Streaming encoder. KSUIDs are collected into blocks, and each full block is encoded at once into an internal
+     * buffer from which the caller {@link #drainTo(ByteBuffer) drains} bytes into buffers of any size.
+     * <p>
+     * The internal buffer keeps growing until it is drained, so drain it regularly when encoding long streams.
+     */
+    public static final class Encoder {
+        private final int blockSize;
+        private final byte[] records;
+        private int count;
+        private byte[] encoded;
+        private int encodedStart;
+        private int encodedEnd;
+        private long blocks;
+
+        private Encoder(final int blockSize) {
+            this.blockSize = blockSize;
+            this.records = new byte[blockSize * TOTAL_BYTES];
+            this.encoded = new byte[maxEncodedSize(blockSize)];
+        }
+
+        /**
+         * Add a KSUID to the current block, encoding the block once it is full.
+         *
+         * @param ksuid KSUID to add
+         */
+        public void add(final Ksuid ksuid) {
+            add(ksuid.rawBytes(), 0);
+        }
+
+        /**
+         * Add a KSUID given as a 20-byte record to the current block, encoding the block once it is full.
+         *
+         * @param bytes  array containing the KSUID bytes
+         * @param offset offset of the KSUID bytes
+         */
+        public void add(final byte[] bytes, final int offset) {
+            System.arraycopy(bytes, offset, records, count * TOTAL_BYTES, TOTAL_BYTES);
+            if (++count == blockSize) {
+                encodePending();
+            }
+        }
+
+        /**
+         * Encode the KSUIDs added since the last full block as a shorter block. Call it at the end of the stream
+         * or whenever the bytes written so far should be decodable on their own.
+         */
+        public void finish() {
+            if (count > 0) {
+                encodePending();
+            }
+        }
+
+        /**
+         * Get the number of encoded bytes not yet drained.
+         *
+         * @return bytes
+         */
+        public int pendingBytes() {
+            return encodedEnd - encodedStart;
+        }
+
+        /**
+         * Get the number of blocks encoded so far.
+         *
+         * @return blocks
+         */
+        public long blockCount() {
+            return blocks;
+        }
+
+        /**
+         * Move as many encoded bytes as fit into a buffer. Blocks may be split between calls.
+         *
+         * @param dst buffer receiving the bytes
+         * @return the number of bytes moved
+         */
+        public int drainTo(final ByteBuffer dst) {
+            final int bytes = Math.min(dst.remaining(), pendingBytes());
+            dst.put(encoded, encodedStart, bytes);
+            encodedStart += bytes;
+            if (encodedStart == encodedEnd) {
+                encodedStart = 0;
+                encodedEnd = 0;
+            }
+            return bytes;
+        }
+
+        private void encodePending() {
+            final int needed = maxEncodedSize(count);
+            if (encoded.length - encodedEnd < needed) {
+                final int pending = pendingBytes();
+                if (encoded.length - pending < needed) {
+                    final byte[] grown = new byte[Math.max(encoded.length * 2, pending + needed)];
+                    System.arraycopy(encoded, encodedStart, grown, 0, pending);
+                    encoded = grown;
+                } else {
+                    System.arraycopy(encoded, encodedStart, encoded, 0, pending);
+                }
+                encodedStart = 0;
+                encodedEnd = pending;
+            }
+            encodedEnd = encodeBlock(records, count, encoded, encodedEnd);
+            count = 0;
+            blocks++;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.ksuid;
+
+/**
+ * JDK Flight Recorder events for generation, parsing and bulk operations.
+ * <p>
+ * The events themselves are defined in the Java 17 classes of the multi-release jar and loaded reflectively,
+ * so the library still runs on Java 8 and on runtimes without the {@code jdk.jfr} module; there every method
+ * of this class does nothing. All events are disabled by default and cost a check of one flag until a
+ * recording enables them by name:
+ * <ul>
+ * <li>{@code com.github.ksuid.Generate}: one KSUID generated, with the time spent waiting for entropy
+ * and the clock second it was generated in</li>
+ * <li>{@code com.github.ksuid.ParseFailure}: {@link Ksuid#fromString(String)} rejected its input</li>
+ * <li>{@code com.github.ksuid.Bulk}: a batch encoded, decoded, generated or checked, with its size</li>
+ * </ul>
+ * <p>
+ * The begin methods return the event being recorded, or {@code null} if it is disabled. The other methods
+ * accept that {@code null} and then do nothing, so call sites need no checks of their own.
+ */
+final class KsuidEvents {
+    private static final Sink SINK = load("jdk.jfr.FlightRecorder");
+
+    private KsuidEvents() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Receives the events; implemented with JFR in the Java 17 classes.
+     */
+    interface Sink {
+        Object beginGenerate();
+
+        void entropyWait(Object event, long nanos);
+
+        void commitGenerate(Object event, Class<?> generator, int timestamp);
+
+        void parseFailure(String input, String message);
+
+        Object beginBulk();
+
+        void commitBulk(Object event, String operation, long count);
+    }
+
+    /**
+     * Check whether the events can be recorded on this runtime.
+     *
+     * @return true if the JFR events were loaded
+     */
+    static boolean isAvailable() {
+        return !(SINK instanceof NoSink);
+    }
+
+    /**
+     * Start a generation event.
+     *
+     * @return the event, or null if it is disabled
+     */
+    static Object beginGenerate() {
+        return SINK.beginGenerate();
+    }
+
+    /**
+     * Add time spent waiting for the random payload to a generation event.
+     *
+     * @param event the event, or null
+     * @param nanos time spent in nanoseconds
+     */
+    static void entropyWait(final Object event, final long nanos) {
+        if (event != null) {
+            SINK.entropyWait(event, nanos);
+        }
+    }
+
+    /**
+     * Finish a generation event.
+     *
+     * @param event     the event, or null
+     * @param generator the generator class
+     * @param timestamp timestamp of the generated KSUID
+     */
+    static void commitGenerate(final Object event, final Class<?> generator, final int timestamp) {
+        if (event != null) {
+            SINK.commitGenerate(event, generator, timestamp);
+        }
+    }
+
+    /**
+     * Record that a KSUID string could not be parsed.
+     *
+     * @param input   the rejected string
+     * @param message why it was rejected
+     */
+    static void parseFailure(final String input, final String message) {
+        SINK.parseFailure(input, message);
+    }
+
+    /**
+     * Start a bulk operation event.
+     *
+     * @return the event, or null if it is disabled
+     */
+    static Object beginBulk() {
+        return SINK.beginBulk();
+    }
+
+    /**
+     * Finish a bulk operation event.
+     *
+     * @param event     the event, or null
+     * @param operation name of the operation
+     * @param count     number of KSUIDs processed
+     */
+    static void commitBulk(final Object event, final String operation, final long count) {
+        if (event != null) {
+            SINK.commitBulk(event, operation, count);
+        }
+    }
+
+    /**
+     * Load the JFR sink if both it and the Flight Recorder are present.
+     *
+     * @param recorderClass name of a class of the {@code jdk.jfr} module
+     * @return the JFR sink, or a sink that does nothing
+     */
+    // VisibleForTesting
+    static Sink load(final String recorderClass) {
+        try {
+            // the sink resolves jdk.jfr lazily, on its first event, so look for the module up front
+            Class.forName(recorderClass, false, KsuidEvents.class.getClassLoader());
+            return (Sink) Class.forName("com.github.ksuid.JfrEventSink").getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | LinkageError e) {
+            // Java 8 classes, or a runtime without jdk.jfr
+            return new NoSink();
+        }
+    }
+
+    // VisibleForTesting
+    static final class NoSink implements Sink {
+        @Override
+        public Object beginGenerate() {
+            return null;
+        }
+
+        @Override
+        public void entropyWait(final Object event, final long nanos) {
+            // disabled
+        }
+
+        @Override
+        public void commitGenerate(final Object event, final Class<?> generator, final int timestamp) {
+            // disabled
+        }
+
+        @Override
+        public void parseFailure(final String input, final String message) {
+            // disabled
+        }
+
+        @Override
+        public Object beginBulk() {
+            return null;
+        }
+
+        @Override
+        public void commitBulk(final Object event, final String operation, final long count) {
+            // disabled
+        }
+    }
+}
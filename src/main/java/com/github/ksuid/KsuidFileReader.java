@@ -0,0 +1,327 @@
+package com.github.ksuid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+import static com.github.ksuid.KsuidFileWriter.HEADER_BYTES;
+import static com.github.ksuid.KsuidFileWriter.SORTED_FLAG;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Read a file of fixed-width 20-byte KSUID records written by {@link KsuidFileWriter}.
+ * <p>
+ * The records are memory-mapped, so opening even a large file is immediate and only the pages
+ * that are actually touched are read from disk. Lookups by index, binary searches and timestamp
+ * reads work directly on the mapped memory; a {@link Ksuid} is only created for records that are
+ * handed out. Records appended after the file was opened are not visible.
+ * <p>
+ * Instances are threadsafe. The mapped memory is released by the garbage collector, not by {@link #close()}.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public class KsuidFileReader implements Closeable {
+    // records per mapping, a single MappedByteBuffer cannot exceed Integer.MAX_VALUE bytes
+    private static final int SEGMENT_RECORDS = Integer.MAX_VALUE / TOTAL_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private final boolean sorted;
+
+    /**
+     * Open and map a KSUID file.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be opened or is not a KSUID file
+     */
+    public KsuidFileReader(final Path path) throws IOException {
+        channel = FileChannel.open(path, READ);
+        try {
+            sorted = (KsuidFileWriter.readHeader(channel, path) & SORTED_FLAG) != 0;
+            size = (channel.size() - HEADER_BYTES) / TOTAL_BYTES;
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+            for (int i = 0; i < segments.length; i++) {
+                final long first = (long) i * SEGMENT_RECORDS;
+                final long records = Math.min(SEGMENT_RECORDS, size - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * TOTAL_BYTES, records * TOTAL_BYTES);
+            }
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of records in the file.
+     *
+     * @return number of records
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Check whether the records are in ascending order, which is required for binary searches.
+     *
+     * @return true if the file is sorted
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Get the KSUID at an index.
+     *
+     * @param index the record index
+     * @return the KSUID
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Ksuid get(final long index) {
+        final byte[] bytes = new byte[TOTAL_BYTES];
+        copy(index, bytes, 0);
+        return Ksuid.newBuilder().withKsuidBytes(bytes).build();
+    }
+
+    /**
+     * Copy the 20-byte record at an index into an array.
+     *
+     * @param index  the record index
+     * @param bytes  array receiving the record
+     * @param offset offset in the array
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void copy(final long index, final byte[] bytes, final int offset) {
+        final ByteBuffer segment = segment(index).duplicate();
+        segment.position(position(index));
+        segment.get(bytes, offset, TOTAL_BYTES);
+    }
+
+    /**
+     * Point a view at the record at an index, to read it in place without creating a {@link Ksuid}.
+     *
+     * @param index the record index
+     * @param view  the view to point at the record
+     * @return the view
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public KsuidView view(final long index, final KsuidView view) {
+        return view.wrap(segment(index), position(index));
+    }
+
+    /**
+     * Get the timestamp component of the record at an index, without reading the rest of the record.
+     *
+     * @param index the record index
+     * @return the KSUID timestamp component
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int getTimestamp(final long index) {
+        return segment(index).getInt(position(index));
+    }
+
+    /**
+     * Search a sorted file for a KSUID.
+     *
+     * @param ksuid the KSUID to search for
+     * @return the index of the KSUID if it is in the file, otherwise {@code (-(insertion point) - 1)}
+     *         as defined by {@link java.util.Arrays#binarySearch(Object[], Object)}
+     * @throws IllegalStateException if the file is not sorted
+     */
+    public long binarySearch(final Ksuid ksuid) {
+        checkSorted();
+        final byte[] key = ksuid.rawBytes();
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            final long middle = (low + high) >>> 1;
+            final int result = compare(middle, key);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Search a sorted file for the first record at or after an Instant.
+     *
+     * @param instant the Instant, truncated to seconds; it may be outside the range of KSUID timestamps
+     * @return index of the first record whose time component is not before the Instant, or {@link #size()} if there is none
+     * @throws IllegalStateException if the file is not sorted
+     */
+    public long binarySearch(final Instant instant) {
+        checkSorted();
+        final long seconds = instant.getEpochSecond() - Ksuid.EPOCH;
+        if (seconds > 0xFFFFFFFFL) {
+            return size;
+        }
+        // instants before the KSUID epoch are before all records
+        final int timestamp = (int) Math.max(seconds, 0);
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (Integer.compareUnsigned(getTimestamp(middle), timestamp) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get a stream of all KSUIDs in the file.
+     *
+     * @param parallel whether the stream is parallel
+     * @return stream of KSUIDs
+     */
+    public Stream<Ksuid> stream(final boolean parallel) {
+        return StreamSupport.stream(spliterator(0, size), parallel);
+    }
+
+    /**
+     * Get a stream of the KSUIDs with a time component in {@code [from, to)}. The file must be sorted.
+     *
+     * @param from     start of the time range, inclusive
+     * @param to       end of the time range, exclusive
+     * @param parallel whether the stream is parallel
+     * @return stream of KSUIDs
+     * @throws IllegalStateException if the file is not sorted
+     */
+    public Stream<Ksuid> stream(final Instant from, final Instant to, final boolean parallel) {
+        final long start = binarySearch(from);
+        final long end = Math.max(start, binarySearch(to));
+        return StreamSupport.stream(spliterator(start, end), parallel);
+    }
+
+    /**
+     * Get a spliterator over the KSUIDs in a range of records. It splits evenly by index.
+     *
+     * @param from first record index, inclusive
+     * @param to   last record index, exclusive
+     * @return spliterator of KSUIDs
+     */
+    public Spliterator<Ksuid> spliterator(final long from, final long to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") is out of bounds for size " + size);
+        }
+        return new RecordSpliterator(from, to);
+    }
+
+    /**
+     * Close the file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int compare(final long index, final byte[] key) {
+        final ByteBuffer segment = segment(index);
+        final int position = position(index);
+        final int result = Integer.compareUnsigned(segment.getInt(position), Bytes.getInt(key, 0));
+        if (result != 0) {
+            return result;
+        }
+        final int payloadResult = Long.compareUnsigned(segment.getLong(position + TIMESTAMP_BYTES),
+                                                       Bytes.getLong(key, TIMESTAMP_BYTES));
+        if (payloadResult != 0) {
+            return payloadResult;
+        }
+        return Long.compareUnsigned(segment.getLong(position + TIMESTAMP_BYTES + Long.BYTES),
+                                    Bytes.getLong(key, TIMESTAMP_BYTES + Long.BYTES));
+    }
+
+    private void checkSorted() {
+        if (!sorted) {
+            throw new IllegalStateException("KSUID file is not sorted");
+        }
+    }
+
+    private MappedByteBuffer segment(final long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " is out of bounds for size " + size);
+        }
+        return segments[(int) (index / SEGMENT_RECORDS)];
+    }
+
+    private static int position(final long index) {
+        return (int) (index % SEGMENT_RECORDS) * TOTAL_BYTES;
+    }
+
+    private final class RecordSpliterator implements Spliterator<Ksuid> {
+        private long index;
+        private final long end;
+
+        private RecordSpliterator(final long index, final long end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Ksuid> action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super Ksuid> action) {
+            while (index < end) {
+                action.accept(get(index++));
+            }
+        }
+
+        @Override
+        public Spliterator<Ksuid> trySplit() {
+            final long middle = (index + end) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            final Spliterator<Ksuid> prefix = new RecordSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            final int characteristics = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+            return sorted ? characteristics | SORTED : characteristics;
+        }
+
+        @Override
+        public Comparator<? super Ksuid> getComparator() {
+            if (!sorted) {
+                throw new IllegalStateException();
+            }
+            // natural order
+            return null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.ksuid;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append KSUIDs to a file of fixed-width 20-byte records.
+ * <p>
+ * The file starts with a 16-byte header: the 8 magic bytes {@code KSUIDREC}, a 4-byte format version and
+ * 4 bytes of flags. The header is followed by KSUIDs in the form returned by {@link Ksuid#asBytes()},
+ * back to back. The only flag marks files whose records are in ascending order; the writer keeps track of
+ * the order and clears the flag as soon as a record is out of order, before that record is written, so the
+ * flag holds even if the writer is never closed. Use {@link KsuidFileReader} to read the file.
+ * <p>
+ * Records are collected in a direct buffer and written through a {@link FileChannel}. Opening an existing
+ * file appends to it, dropping a partially written last record if there is one.
+ * <p>
+ * Instances are not threadsafe.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public class KsuidFileWriter implements Closeable, Flushable {
+    static final byte[] MAGIC = {'K', 'S', 'U', 'I', 'D', 'R', 'E', 'C'};
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int SORTED_FLAG = 1;
+
+    private static final int BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * TOTAL_BYTES);
+    private final byte[] last = new byte[TOTAL_BYTES];
+    private int headerFlags;
+    private boolean empty;
+    private boolean sorted;
+
+    /**
+     * Open a file for appending, creating it if it does not exist.
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be opened or is not a KSUID file
+     */
+    public KsuidFileWriter(final Path path) throws IOException {
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+        try {
+            final long size = channel.size();
+            if (size == 0) {
+                empty = true;
+                sorted = true;
+                writeHeader(SORTED_FLAG);
+                channel.position(HEADER_BYTES);
+            } else {
+                headerFlags = readHeader(channel, path);
+                final long records = (size - HEADER_BYTES) / TOTAL_BYTES;
+                final long end = HEADER_BYTES + records * TOTAL_BYTES;
+                channel.truncate(end);
+                channel.position(end);
+                empty = records == 0;
+                sorted = (headerFlags & SORTED_FLAG) != 0;
+                if (!empty) {
+                    readFully(channel, ByteBuffer.wrap(last), end - TOTAL_BYTES);
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a KSUID.
+     *
+     * @param ksuid the KSUID
+     * @throws IOException if writing fails
+     */
+    public void write(final Ksuid ksuid) throws IOException {
+        write(ksuid.rawBytes(), 0);
+    }
+
+    /**
+     * Append a 20-byte KSUID record, in the form returned by {@link Ksuid#asBytes()}.
+     *
+     * @param bytes  array containing the record
+     * @param offset offset of the record in the array
+     * @throws IOException if writing fails
+     */
+    public void write(final byte[] bytes, final int offset) throws IOException {
+        if (sorted && !empty && Ksuid.compare(last, 0, bytes, offset) > 0) {
+            sorted = false;
+            writeHeader(headerFlags & ~SORTED_FLAG);
+        }
+        System.arraycopy(bytes, offset, last, 0, TOTAL_BYTES);
+        empty = false;
+
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+        buffer.put(bytes, offset, TOTAL_BYTES);
+    }
+
+    /**
+     * Check whether all records written to the file so far are in ascending order.
+     *
+     * @return true if the file is sorted
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Write buffered records to the file.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Write buffered records, then close the file.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeHeader(final int flags) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                                            .put(MAGIC)
+                                            .putInt(VERSION)
+                                            .putInt(flags);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        headerFlags = flags;
+    }
+
+    static int readHeader(final FileChannel channel, final Path path) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IOException("not a KSUID file: " + path);
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, 0);
+        header.flip();
+        for (final byte b : MAGIC) {
+            if (header.get() != b) {
+                throw new IOException("not a KSUID file: " + path);
+            }
+        }
+        final int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported KSUID file version " + version + ": " + path);
+        }
+        return header.getInt();
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer target, final long position) throws IOException {
+        long offset = position;
+        while (target.hasRemaining()) {
+            final int read = channel.read(target, offset);
+            if (read < 0) {
+                throw new IOException("unexpected end of file");
+            }
+            offset += read;
+        }
+    }
+}
@@ -17,8 +17,10 @@ import static com.github.ksuid.Ksuid.PAYLOAD_BYTES;
  * See <a href="https://github.com/segmentio/ksuid">https://github.com/segmentio/ksuid</a>.
  */
 public class KsuidGenerator {
-    private static final KsuidGenerator INSTANCE = new KsuidGenerator(new SecureRandom());
-    
+    private static final int BULK_KSUIDS = 1024;
+
+    // the source of the payloads if the generator was constructed with one, for bulk generation
+    private final Random random;
     private final Supplier<byte[]> payloadSupplier;
 
     /**
@@ -34,11 +36,11 @@ public class KsuidGenerator {
     }
 
     static KsuidGenerator getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
     static Ksuid createKsuid() {
-        return INSTANCE.newKsuid();
+        return Holder.INSTANCE.newKsuid();
     }
 
     /**
@@ -47,7 +49,7 @@ public class KsuidGenerator {
      * @param random source of random bytes for payload, SecureRandom is recommended
      */
     public KsuidGenerator(final Random random) {
-        this(() -> {
+        this(random, () -> {
             final byte[] payload = new byte[PAYLOAD_BYTES];
             random.nextBytes(payload);
             return payload;
@@ -60,9 +62,14 @@ public class KsuidGenerator {
      * @param payloadSupplier supplier of byte arrays which must be {@link Ksuid#PAYLOAD_BYTES PAYLOAD_BYTES} in length
      */
     public KsuidGenerator(final Supplier<byte[]> payloadSupplier) {
+        this(null, payloadSupplier);
+    }
+
+    private KsuidGenerator(final Random random, final Supplier<byte[]> payloadSupplier) {
         if (payloadSupplier.get().length != PAYLOAD_BYTES) {
             throw new IllegalArgumentException("payloadBytesSupplier must supply byte arrays of length " + PAYLOAD_BYTES);
         }
+        this.random = random;
         this.payloadSupplier = payloadSupplier;
     }
 
@@ -84,10 +91,100 @@ public class KsuidGenerator {
      * @return a Ksuid object
      */
     public Ksuid newKsuid(final Instant instant) {
-        return Ksuid.newBuilder()
-                    .withTimestamp((int) (instant.toEpochMilli() / 1000 - EPOCH)) // 4 bytes
-                    .withPayload(payloadSupplier.get()) // 16 bytes
-                    .build();
+        final Object event = KsuidEvents.beginGenerate();
+        final int timestamp = toTimestamp(instant);
+        final Ksuid ksuid = Ksuid.newBuilder()
+                                 .withTimestamp(timestamp) // 4 bytes
+                                 .withPayload(nextPayload(event)) // 16 bytes
+                                 .build();
+        KsuidEvents.commitGenerate(event, getClass(), timestamp);
+        return ksuid;
+    }
+
+    /**
+     * Generate several KSUIDs with a timestamp component derived from one Instant, for handing out IDs in batches.
+     * <p>
+     * A {@code KsuidGenerator} constructed with a {@link Random} draws the payloads of up to {@value #BULK_KSUIDS}
+     * KSUIDs with one call to {@link Random#nextBytes(byte[])}, so a {@code SecureRandom} is locked and its
+     * state mixed once per batch rather than once per KSUID. With a {@code java.util.Random} the KSUIDs are those
+     * that as many calls to {@link #newKsuid(Instant)} would generate. Generators constructed with a payload
+     * supplier, and subclasses that do not override this method, call {@code newKsuid(Instant)} for each KSUID.
+     *
+     * @param instant an Instant from which to derive the timestamp component
+     * @param count   number of KSUIDs
+     * @return the KSUIDs in the order they were generated
+     * @throws IllegalArgumentException if {@code count} is negative
+     */
+    public Ksuid[] newKsuids(final Instant instant, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        final Ksuid[] ksuids = new Ksuid[count];
+        if (random == null || getClass() != KsuidGenerator.class) {
+            for (int i = 0; i < count; i++) {
+                ksuids[i] = newKsuid(instant);
+            }
+            return ksuids;
+        }
+        final Object event = KsuidEvents.beginBulk();
+        final int timestamp = toTimestamp(instant);
+        byte[] payloads = new byte[Math.min(count, BULK_KSUIDS) * PAYLOAD_BYTES];
+        for (int start = 0; start < count; start += BULK_KSUIDS) {
+            final int size = Math.min(count - start, BULK_KSUIDS);
+            if (payloads.length != size * PAYLOAD_BYTES) {
+                payloads = new byte[size * PAYLOAD_BYTES];
+            }
+            random.nextBytes(payloads);
+            for (int i = 0; i < size; i++) {
+                ksuids[start + i] = Ksuid.fromWords(timestamp, Bytes.getLong(payloads, i * PAYLOAD_BYTES),
+                                                    Bytes.getLong(payloads, i * PAYLOAD_BYTES + Long.BYTES));
+            }
+        }
+        KsuidEvents.commitBulk(event, "newKsuids", count);
+        return ksuids;
+    }
+
+    /**
+     * Get a new payload from the payload supplier.
+     *
+     * @return payload bytes of length {@link Ksuid#PAYLOAD_BYTES PAYLOAD_BYTES}
+     */
+    byte[] nextPayload() {
+        return payloadSupplier.get();
+    }
+
+    /**
+     * Get a new payload from the payload supplier, adding the time it took to a generation event if one is recorded.
+     *
+     * @param event the generation event from {@link KsuidEvents#beginGenerate()}, or null
+     * @return payload bytes of length {@link Ksuid#PAYLOAD_BYTES PAYLOAD_BYTES}
+     */
+    byte[] nextPayload(final Object event) {
+        if (event == null) {
+            return nextPayload();
+        }
+        final long start = System.nanoTime();
+        final byte[] payload = nextPayload();
+        KsuidEvents.entropyWait(event, System.nanoTime() - start);
+        return payload;
+    }
+
+    /**
+     * Derive the KSUID timestamp component from an Instant.
+     *
+     * @param instant an Instant
+     * @return seconds since the KSUID epoch
+     */
+    static int toTimestamp(final Instant instant) {
+        return (int) (instant.toEpochMilli() / 1000 - EPOCH);
+    }
+
+    /**
+     * Holds the shared generator, so its {@code SecureRandom} is only seeded when it is first used
+     * and not whenever a generator is constructed.
+     */
+    private static final class Holder {
+        private static final KsuidGenerator INSTANCE = new KsuidGenerator(new SecureRandom());
     }
 
 }
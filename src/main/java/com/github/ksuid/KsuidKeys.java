@@ -0,0 +1,120 @@
+package com.github.ksuid;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+
+/**
+ * Comparators and prefix helpers for raw KSUIDs used as keys of byte-ordered stores, such as LSM trees and B-trees
+ * keyed by {@link Ksuid#asBytes()}.
+ * <p>
+ * The comparators order keys as unsigned bytes, lexicographically, with a key before any longer key it is a prefix
+ * of. For 20-byte keys this is exactly the order of {@link Ksuid#compareTo(Ksuid)}, and keys that start with a raw
+ * KSUID followed by other bytes sort by KSUID first. On Java 17 and later the keys are compared with the vectorized
+ * {@code Arrays.compareUnsigned} and {@code ByteBuffer.mismatch}, which compare 8 or more bytes at a time.
+ * <p>
+ * Since the first 4 bytes of a raw KSUID are its timestamp, the first 1 to 4 bytes are a prefix shared by all keys
+ * of a bucket of 2<sup>24</sup>, 2<sup>16</sup>, 2<sup>8</sup> or 1 seconds, see {@link #timestampPrefix(Instant, int)}.
+ * <p>
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidKeys {
+    private static final Comparator<byte[]> BYTES_COMPARATOR = (left, right) ->
+            compare(left, 0, left.length, right, 0, right.length);
+
+    private static final Comparator<ByteBuffer> BUFFER_COMPARATOR = KsuidKeys::compare;
+
+    private KsuidKeys() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Get a comparator of whole byte arrays in unsigned lexicographic order.
+     *
+     * @return the comparator
+     */
+    public static Comparator<byte[]> comparator() {
+        return BYTES_COMPARATOR;
+    }
+
+    /**
+     * Get a comparator of the remaining bytes of buffers in unsigned lexicographic order, for heap and direct buffers
+     * of any byte order. The positions of the buffers are not changed.
+     *
+     * @return the comparator
+     */
+    public static Comparator<ByteBuffer> bufferComparator() {
+        return BUFFER_COMPARATOR;
+    }
+
+    /**
+     * Compare two slices of byte arrays in unsigned lexicographic order.
+     *
+     * @param left        array containing the first key
+     * @param leftOffset  offset of the first key
+     * @param leftLength  length of the first key
+     * @param right       array containing the second key
+     * @param rightOffset offset of the second key
+     * @param rightLength length of the second key
+     * @return a negative integer, zero, or a positive integer as the first key is less than,
+     *         equal to, or greater than the second key
+     */
+    public static int compare(final byte[] left, final int leftOffset, final int leftLength,
+                              final byte[] right, final int rightOffset, final int rightLength) {
+        return Bytes.compareUnsigned(left, leftOffset, leftOffset + leftLength, right, rightOffset, rightOffset + rightLength);
+    }
+
+    /**
+     * Compare the remaining bytes of two buffers in unsigned lexicographic order. The positions of the buffers
+     * are not changed.
+     *
+     * @param left  the first key
+     * @param right the second key
+     * @return a negative integer, zero, or a positive integer as the first key is less than,
+     *         equal to, or greater than the second key
+     */
+    public static int compare(final ByteBuffer left, final ByteBuffer right) {
+        return Bytes.compareUnsigned(left, right);
+    }
+
+    /**
+     * Get the first bytes of the timestamp of all KSUIDs created in the bucket of seconds that contains an instant.
+     * A prefix of 4 bytes selects one second, of 3 bytes 256 seconds, of 2 bytes 65,536 seconds (about 18 hours)
+     * and of 1 byte 2<sup>24</sup> seconds (about 194 days). Buckets are aligned to the KSUID epoch.
+     *
+     * @param instant the instant
+     * @param length  length of the prefix, between 1 and 4
+     * @return the prefix
+     * @throws IllegalArgumentException if {@code length} is out of range
+     */
+    public static byte[] timestampPrefix(final Instant instant, final int length) {
+        if (length < 1 || length > TIMESTAMP_BYTES) {
+            throw new IllegalArgumentException("prefix length must be between 1 and " + TIMESTAMP_BYTES + ": " + length);
+        }
+        final byte[] timestamp = new byte[TIMESTAMP_BYTES];
+        Bytes.putInt(timestamp, 0, KsuidGenerator.toTimestamp(instant));
+        return Arrays.copyOf(timestamp, length);
+    }
+
+    /**
+     * Get the smallest key that is greater than all keys starting with a prefix, the exclusive upper bound of
+     * a prefix scan. Trailing {@code 0xFF} bytes are dropped and the last remaining byte is incremented.
+     *
+     * @param prefix the prefix
+     * @return the upper bound, or {@code null} if the prefix is empty or all {@code 0xFF} and has no upper bound
+     */
+    public static byte[] prefixUpperBound(final byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                final byte[] bound = Arrays.copyOf(prefix, i + 1);
+                bound[i]++;
+                return bound;
+            }
+        }
+        return null;
+    }
+}
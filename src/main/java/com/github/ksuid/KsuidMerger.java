@@ -0,0 +1,344 @@
+package com.github.ksuid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.github.ksuid.Base62.KSUID_ENCODED_LENGTH;
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Merge inputs of KSUIDs that are each in ascending order, such as the logs of several nodes, into one sequence
+ * in ascending order, written to a sink in batches of raw 20-byte records.
+ * <p>
+ * The inputs are merged with a tournament tree of losers, so each record takes about {@code log2(n)}
+ * comparisons of n inputs. The current record of every input is held as a timestamp and two payload longs,
+ * and neither the comparisons nor the copying of records allocate. Each input is read ahead by
+ * {@value #INPUT_RECORDS} records, so memory use is bounded by about {@code n * 10} KB whatever the length of the
+ * inputs. Equal KSUIDs from several inputs, or repeated within one, are optionally written only once.
+ * <p>
+ * Inputs are created from iterators and streams of {@link Ksuid}s, with {@link #source(Iterator)}, or of
+ * strings, with {@link #stringSource(Iterator)}, and from files or channels of raw records, with
+ * {@link #source(Path)} and {@link #source(ReadableByteChannel)}. An input that is not in ascending order fails
+ * the merge with an {@link IllegalStateException}.
+ * <p>
+ * Instances are not threadsafe and merge once. Closing the merger closes all sources.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidMerger implements Closeable {
+    private static final int INPUT_RECORDS = 512;
+    private static final int BATCH_RECORDS = 4096;
+    private static final int PAYLOAD_LOW_OFFSET = TIMESTAMP_BYTES + Long.BYTES;
+    // timestamp of an exhausted source, greater than all unsigned 32-bit timestamps
+    private static final long EXHAUSTED = Long.MAX_VALUE;
+
+    /**
+     * Input of records in ascending order.
+     */
+    @FunctionalInterface
+    public interface Source extends Closeable {
+        /**
+         * Read whole 20-byte records into a heap buffer, starting at its position, and advance the position.
+         * At least one record is read unless the input is exhausted or the buffer has less than 20 bytes remaining.
+         *
+         * @param records buffer receiving the records
+         * @throws IOException if the input cannot be read
+         */
+        void read(ByteBuffer records) throws IOException;
+
+        /**
+         * Close the input. Does nothing unless overridden.
+         *
+         * @throws IOException if closing fails
+         */
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * Receiver of the merged records.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        /**
+         * Accept a batch of records. The array is reused for the next batch.
+         *
+         * @param records array of records, back to back from offset 0
+         * @param count   number of records
+         * @throws IOException if the records cannot be written
+         */
+        void accept(byte[] records, int count) throws IOException;
+    }
+
+    private final Source[] sources;
+    private final boolean distinct;
+    private final ByteBuffer[] buffers;
+    // the current record of each source, with the timestamp widened to a long
+    private final long[] timestamps;
+    private final long[] payloadHighs;
+    private final long[] payloadLows;
+    private boolean merged;
+
+    /**
+     * Construct a merger of sources.
+     *
+     * @param sources  the sources, each in ascending order
+     * @param distinct whether to write equal KSUIDs only once
+     * @throws IllegalArgumentException if there are no sources
+     */
+    public KsuidMerger(final List<? extends Source> sources, final boolean distinct) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("no sources to merge");
+        }
+        this.sources = sources.toArray(new Source[0]);
+        this.distinct = distinct;
+        final int size = this.sources.length;
+        buffers = new ByteBuffer[size];
+        timestamps = new long[size];
+        payloadHighs = new long[size];
+        payloadLows = new long[size];
+    }
+
+    /**
+     * Get a source of the KSUIDs of an iterator, or of a stream with {@link java.util.stream.Stream#iterator()}.
+     *
+     * @param ksuids the KSUIDs in ascending order
+     * @return a source
+     */
+    public static Source source(final Iterator<Ksuid> ksuids) {
+        return records -> {
+            while (records.remaining() >= TOTAL_BYTES && ksuids.hasNext()) {
+                records.put(ksuids.next().rawBytes());
+            }
+        };
+    }
+
+    /**
+     * Get a source of the KSUID strings of an iterator, for example of the lines of a file. Reading fails with an
+     * {@code IllegalArgumentException} at a string that is not a valid KSUID.
+     *
+     * @param strings the 27-character KSUID strings in ascending order
+     * @return a source
+     */
+    public static Source stringSource(final Iterator<? extends CharSequence> strings) {
+        return records -> {
+            while (records.remaining() >= TOTAL_BYTES && strings.hasNext()) {
+                final CharSequence string = strings.next();
+                if (string.length() != KSUID_ENCODED_LENGTH) {
+                    throw new IllegalArgumentException("ksuid string is not expected length of " + KSUID_ENCODED_LENGTH
+                                                       + " characters: " + string);
+                }
+                Base62.decodeKsuid(string, 0, records.array(), records.arrayOffset() + records.position());
+                records.position(records.position() + TOTAL_BYTES);
+            }
+        };
+    }
+
+    /**
+     * Get a source of the raw records read from a blocking channel. Reading fails with an {@code IOException}
+     * if the channel ends with a partial record. Closing the source closes the channel.
+     *
+     * @param channel channel of raw 20-byte records in ascending order
+     * @return a source
+     */
+    public static Source source(final ReadableByteChannel channel) {
+        return new Source() {
+            @Override
+            public void read(final ByteBuffer records) throws IOException {
+                if (records.remaining() < TOTAL_BYTES) {
+                    return;
+                }
+                final int start = records.position();
+                final int limit = records.limit();
+                records.limit(start + records.remaining() / TOTAL_BYTES * TOTAL_BYTES);
+                try {
+                    while (records.position() == start || (records.position() - start) % TOTAL_BYTES != 0) {
+                        if (channel.read(records) < 0) {
+                            final int partial = (records.position() - start) % TOTAL_BYTES;
+                            if (partial != 0) {
+                                throw new IOException("channel ends with a partial record of " + partial + " bytes");
+                            }
+                            return;
+                        }
+                    }
+                } finally {
+                    records.limit(limit);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+
+    /**
+     * Open a file of raw records as a source, either a file written by {@link KsuidFileWriter} or 20-byte records
+     * back to back. Closing the source closes the file.
+     *
+     * @param path the file, with records in ascending order
+     * @return a source
+     * @throws IOException if the file cannot be opened
+     */
+    public static Source source(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, READ);
+        try {
+            channel.position(RecordFiles.hasHeader(channel) ? KsuidFileWriter.HEADER_BYTES : 0);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return source(channel);
+    }
+
+    /**
+     * Merge the sources into a sink.
+     *
+     * @param sink receives the merged records in batches of up to {@value #BATCH_RECORDS}
+     * @return number of records written to the sink
+     * @throws IOException           if a source cannot be read or the sink fails
+     * @throws IllegalStateException if a source is not in ascending order, or the sources were already merged
+     */
+    public long mergeTo(final BatchSink sink) throws IOException {
+        if (merged) {
+            throw new IllegalStateException("sources were already merged");
+        }
+        merged = true;
+        for (int i = 0; i < sources.length; i++) {
+            buffers[i] = ByteBuffer.allocate(INPUT_RECORDS * TOTAL_BYTES);
+            buffers[i].flip();
+            advance(i);
+        }
+        final LoserTree tree = new LoserTree(sources.length) {
+            @Override
+            int compare(final int left, final int right) {
+                return compareRecords(timestamps[left], payloadHighs[left], payloadLows[left],
+                                      timestamps[right], payloadHighs[right], payloadLows[right]);
+            }
+        };
+        tree.init();
+
+        final byte[] batch = new byte[BATCH_RECORDS * TOTAL_BYTES];
+        int batchSize = 0;
+        long count = 0;
+        long lastTimestamp = EXHAUSTED;
+        long lastPayloadHigh = 0;
+        long lastPayloadLow = 0;
+        for (int winner = tree.winner(); timestamps[winner] != EXHAUSTED; winner = tree.winner()) {
+            final long timestamp = timestamps[winner];
+            final long payloadHigh = payloadHighs[winner];
+            final long payloadLow = payloadLows[winner];
+            if (!distinct || timestamp != lastTimestamp
+                    || payloadHigh != lastPayloadHigh || payloadLow != lastPayloadLow) {
+                if (batchSize == BATCH_RECORDS) {
+                    sink.accept(batch, batchSize);
+                    batchSize = 0;
+                }
+                final int offset = batchSize * TOTAL_BYTES;
+                Bytes.putInt(batch, offset, (int) timestamp);
+                Bytes.putLong(batch, offset + TIMESTAMP_BYTES, payloadHigh);
+                Bytes.putLong(batch, offset + PAYLOAD_LOW_OFFSET, payloadLow);
+                batchSize++;
+                count++;
+                lastTimestamp = timestamp;
+                lastPayloadHigh = payloadHigh;
+                lastPayloadLow = payloadLow;
+            }
+            advance(winner);
+            if (compareRecords(timestamps[winner], payloadHighs[winner], payloadLows[winner],
+                               timestamp, payloadHigh, payloadLow) < 0) {
+                throw new IllegalStateException("source " + winner + " is not in ascending order");
+            }
+            tree.replay();
+        }
+        if (batchSize > 0) {
+            sink.accept(batch, batchSize);
+        }
+        return count;
+    }
+
+    /**
+     * Merge the sources into a file.
+     *
+     * @param writer writer of the file
+     * @return number of records written
+     * @throws IOException           if a source cannot be read or the file cannot be written
+     * @throws IllegalStateException if a source is not in ascending order, or the sources were already merged
+     */
+    public long mergeTo(final KsuidFileWriter writer) throws IOException {
+        return mergeTo((records, count) -> {
+            for (int i = 0; i < count; i++) {
+                writer.write(records, i * TOTAL_BYTES);
+            }
+        });
+    }
+
+    /**
+     * Close all sources.
+     *
+     * @throws IOException if closing a source fails
+     */
+    @Override
+    public void close() throws IOException {
+        final List<IOException> failures = new ArrayList<>();
+        for (final Source source : sources) {
+            try {
+                source.close();
+            } catch (final IOException e) {
+                failures.add(e);
+            }
+        }
+        if (!failures.isEmpty()) {
+            final IOException failure = failures.get(0);
+            failures.subList(1, failures.size()).forEach(failure::addSuppressed);
+            throw failure;
+        }
+    }
+
+    private void advance(final int input) throws IOException {
+        final ByteBuffer buffer = buffers[input];
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            sources[input].read(buffer);
+            buffer.flip();
+            if (buffer.remaining() % TOTAL_BYTES != 0) {
+                throw new IllegalStateException("source " + input + " read a partial record");
+            }
+            if (!buffer.hasRemaining()) {
+                timestamps[input] = EXHAUSTED;
+                return;
+            }
+        }
+        final byte[] bytes = buffer.array();
+        final int offset = buffer.position();
+        timestamps[input] = Bytes.getInt(bytes, offset) & 0xFFFFFFFFL;
+        payloadHighs[input] = Bytes.getLong(bytes, offset + TIMESTAMP_BYTES);
+        payloadLows[input] = Bytes.getLong(bytes, offset + PAYLOAD_LOW_OFFSET);
+        buffer.position(offset + TOTAL_BYTES);
+    }
+
+    private static int compareRecords(final long leftTimestamp, final long leftPayloadHigh, final long leftPayloadLow,
+                                      final long rightTimestamp, final long rightPayloadHigh, final long rightPayloadLow) {
+        // exhausted sources compare greater than all records and equal to each other
+        final int result = Long.compare(leftTimestamp, rightTimestamp);
+        if (result != 0) {
+            return result;
+        }
+        final int payloadResult = Long.compareUnsigned(leftPayloadHigh, rightPayloadHigh);
+        if (payloadResult != 0) {
+            return payloadResult;
+        }
+        return Long.compareUnsigned(leftPayloadLow, rightPayloadLow);
+    }
+}
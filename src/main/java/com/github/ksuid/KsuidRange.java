@@ -0,0 +1,304 @@
+package com.github.ksuid;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * A half-open interval {@code [lower, upper)} of KSUIDs, for splitting a scan by KSUID key into parallel parts.
+ * <p>
+ * KSUIDs are ordered as unsigned 160-bit numbers, and the payloads of generated KSUIDs are uniformly random,
+ * so the keys of any one second are spread evenly over its 2<sup>128</sup> values. {@link #split(int)} cuts
+ * a range into parts of equal 160-bit length, which hold about the same number of KSUIDs if the rate was steady;
+ * {@link #split(int, long[])} takes per-second counts and balances the parts by them instead. Parts are
+ * contiguous and do not overlap: the upper bound of each is the lower bound of the next. A part is empty if
+ * the range holds fewer values than there are parts.
+ * <p>
+ * Since the upper bound is exclusive, a range never contains {@link Ksuid#MAX}.
+ * Instances are immutable. Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidRange {
+    private static final BigInteger SECOND = BigInteger.ONE.shiftLeft(Ksuid.PAYLOAD_BYTES * Byte.SIZE);
+
+    private final Ksuid lower;
+    private final Ksuid upper;
+
+    private KsuidRange(final Ksuid lower, final Ksuid upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Get the range of KSUIDs from {@code lower}, inclusive, to {@code upper}, exclusive.
+     *
+     * @param lower lower bound, inclusive
+     * @param upper upper bound, exclusive
+     * @return the range
+     * @throws IllegalArgumentException if {@code lower} is greater than {@code upper}
+     */
+    public static KsuidRange of(final Ksuid lower, final Ksuid upper) {
+        if (lower.compareTo(upper) > 0) {
+            throw new IllegalArgumentException("lower bound " + lower + " is greater than upper bound " + upper);
+        }
+        return new KsuidRange(lower, upper);
+    }
+
+    /**
+     * Get the range of all KSUIDs with a time component from the second of {@code from}, inclusive, to the second
+     * of {@code to}, exclusive. Both instants are truncated to whole seconds.
+     *
+     * @param from start of the time range, inclusive
+     * @param to   end of the time range, exclusive
+     * @return the range
+     * @throws IllegalArgumentException if {@code from} is after {@code to}
+     */
+    public static KsuidRange of(final Instant from, final Instant to) {
+        return of(Ksuid.fromWords(KsuidGenerator.toTimestamp(from), 0, 0),
+                  Ksuid.fromWords(KsuidGenerator.toTimestamp(to), 0, 0));
+    }
+
+    /**
+     * Get the lower bound.
+     *
+     * @return the smallest KSUID in the range, unless the range is empty
+     */
+    public Ksuid getLower() {
+        return lower;
+    }
+
+    /**
+     * Get the upper bound.
+     *
+     * @return the first KSUID after the range
+     */
+    public Ksuid getUpper() {
+        return upper;
+    }
+
+    /**
+     * Check whether the range is empty.
+     *
+     * @return true if the bounds are equal
+     */
+    public boolean isEmpty() {
+        return lower.equals(upper);
+    }
+
+    /**
+     * Check whether a KSUID lies in the range.
+     *
+     * @param ksuid the KSUID
+     * @return true if {@code lower <= ksuid < upper}
+     */
+    public boolean contains(final Ksuid ksuid) {
+        return lower.compareTo(ksuid) <= 0 && ksuid.compareTo(upper) < 0;
+    }
+
+    /**
+     * Split the range into parts of equal length.
+     *
+     * @param parts number of parts
+     * @return the parts in ascending order
+     * @throws IllegalArgumentException if {@code parts} is not positive
+     */
+    public List<KsuidRange> split(final int parts) {
+        return toList(boundaries(parts));
+    }
+
+    /**
+     * Split the range into parts holding about the same number of KSUIDs according to per-second counts,
+     * for example from a histogram of the table being scanned. Within a second the KSUIDs are taken to be
+     * spread evenly, and a second the range only partly covers counts in proportion to the part covered.
+     *
+     * @param parts   number of parts
+     * @param weights the counts of the seconds the range overlaps, the first for the second of the lower bound
+     * @return the parts in ascending order
+     * @throws IllegalArgumentException if {@code parts} is not positive, if there is not exactly one count for
+     *                                  each second the range overlaps, or if a count is negative or all are zero
+     */
+    public List<KsuidRange> split(final int parts, final long[] weights) {
+        return toList(boundaries(parts, weights));
+    }
+
+    /**
+     * Get a spliterator over the parts of equal length, for a parallel stream with one part per task.
+     *
+     * @param parts number of parts
+     * @return spliterator of the parts in ascending order
+     * @throws IllegalArgumentException if {@code parts} is not positive
+     * @see #split(int)
+     */
+    public Spliterator<KsuidRange> spliterator(final int parts) {
+        return new PartSpliterator(boundaries(parts), 0, parts);
+    }
+
+    /**
+     * Get a spliterator over the parts balanced by per-second counts, for a parallel stream with one part per task.
+     *
+     * @param parts   number of parts
+     * @param weights the counts of the seconds the range overlaps, the first for the second of the lower bound
+     * @return spliterator of the parts in ascending order
+     * @throws IllegalArgumentException as {@link #split(int, long[])} does
+     * @see #split(int, long[])
+     */
+    public Spliterator<KsuidRange> spliterator(final int parts, final long[] weights) {
+        return new PartSpliterator(boundaries(parts, weights), 0, parts);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final KsuidRange other = (KsuidRange) o;
+        return lower.equals(other.lower) && upper.equals(other.upper);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * lower.hashCode() + upper.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + lower + ", " + upper + ")";
+    }
+
+    private Ksuid[] boundaries(final int parts) {
+        checkParts(parts);
+        final BigInteger start = toBigInteger(lower);
+        final BigInteger length = toBigInteger(upper).subtract(start);
+        final Ksuid[] boundaries = new Ksuid[parts + 1];
+        boundaries[0] = lower;
+        for (int i = 1; i < parts; i++) {
+            boundaries[i] = fromBigInteger(start.add(length.multiply(BigInteger.valueOf(i))
+                                                           .divide(BigInteger.valueOf(parts))));
+        }
+        boundaries[parts] = upper;
+        return boundaries;
+    }
+
+    private Ksuid[] boundaries(final int parts, final long[] weights) {
+        checkParts(parts);
+        final long firstSecond = lower.getTimestamp() & 0xFFFFFFFFL;
+        final long seconds = isEmpty() ? 0 : (upper.prev().getTimestamp() & 0xFFFFFFFFL) - firstSecond + 1;
+        if (weights.length != seconds) {
+            throw new IllegalArgumentException("expected " + seconds + " weights but got " + weights.length);
+        }
+
+        // weight of each second scaled by the length of the part of it inside the range, so that partly
+        // covered seconds count in proportion and the cuts come out exact in 160-bit space
+        final BigInteger[] starts = new BigInteger[weights.length];
+        final BigInteger[] cumulative = new BigInteger[weights.length + 1];
+        cumulative[0] = BigInteger.ZERO;
+        final BigInteger rangeStart = toBigInteger(lower);
+        final BigInteger rangeEnd = toBigInteger(upper);
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("weight " + i + " is negative: " + weights[i]);
+            }
+            final BigInteger secondStart = BigInteger.valueOf(firstSecond + i).shiftLeft(SECOND.bitLength() - 1);
+            starts[i] = secondStart.max(rangeStart);
+            final BigInteger end = secondStart.add(SECOND).min(rangeEnd);
+            cumulative[i + 1] = cumulative[i].add(BigInteger.valueOf(weights[i]).multiply(end.subtract(starts[i])));
+        }
+        final BigInteger total = cumulative[weights.length];
+        if (total.signum() == 0) {
+            throw new IllegalArgumentException("weights are all zero");
+        }
+
+        final Ksuid[] boundaries = new Ksuid[parts + 1];
+        boundaries[0] = lower;
+        int second = 0;
+        for (int i = 1; i < parts; i++) {
+            final BigInteger target = total.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(parts));
+            // the first second whose cumulative weight reaches past the target, never one weighing zero
+            while (cumulative[second + 1].compareTo(target) <= 0) {
+                second++;
+            }
+            final BigInteger offset = target.subtract(cumulative[second]).divide(BigInteger.valueOf(weights[second]));
+            boundaries[i] = fromBigInteger(starts[second].add(offset));
+        }
+        boundaries[parts] = upper;
+        return boundaries;
+    }
+
+    private static void checkParts(final int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be positive: " + parts);
+        }
+    }
+
+    private static List<KsuidRange> toList(final Ksuid[] boundaries) {
+        final List<KsuidRange> ranges = new ArrayList<>(boundaries.length - 1);
+        for (int i = 1; i < boundaries.length; i++) {
+            ranges.add(new KsuidRange(boundaries[i - 1], boundaries[i]));
+        }
+        return Collections.unmodifiableList(ranges);
+    }
+
+    private static BigInteger toBigInteger(final Ksuid ksuid) {
+        return new BigInteger(1, ksuid.rawBytes());
+    }
+
+    private static Ksuid fromBigInteger(final BigInteger value) {
+        final byte[] magnitude = value.toByteArray();
+        final byte[] bytes = new byte[TOTAL_BYTES];
+        // drop the sign byte of values with the top bit set, pad small values with leading zeros
+        final int length = Math.min(magnitude.length, TOTAL_BYTES);
+        System.arraycopy(magnitude, magnitude.length - length, bytes, TOTAL_BYTES - length, length);
+        return Ksuid.newBuilder().withKsuidBytes(bytes).build();
+    }
+
+    private static final class PartSpliterator implements Spliterator<KsuidRange> {
+        private final Ksuid[] boundaries;
+        private int index;
+        private final int end;
+
+        private PartSpliterator(final Ksuid[] boundaries, final int index, final int end) {
+            this.boundaries = boundaries;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super KsuidRange> action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(new KsuidRange(boundaries[index], boundaries[++index]));
+            return true;
+        }
+
+        @Override
+        public Spliterator<KsuidRange> trySplit() {
+            final int middle = (index + end) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            final Spliterator<KsuidRange> prefix = new PartSpliterator(boundaries, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
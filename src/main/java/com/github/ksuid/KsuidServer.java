@@ -0,0 +1,305 @@
+package com.github.ksuid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * Server handing out KSUIDs to local processes over TCP or, on Java 17 and later, a Unix domain socket,
+ * run by {@code ksuid -serve}.
+ * <p>
+ * The protocol is a stream of 5-byte requests, a format byte followed by a big-endian int count of KSUIDs
+ * between 1 and {@link #MAX_COUNT}. Each request is answered by {@code count * 20} raw bytes for {@link #RAW}
+ * or {@code count * 27} ASCII characters for {@link #STRING}, without header or separator. Clients may send
+ * further requests before reading the responses; they are answered in order, and all requests that arrive
+ * together are answered with one write. An invalid request closes the connection.
+ * <p>
+ * One selector thread serves all connections from one generator, so a {@link MonotonicKsuidGenerator} hands out
+ * strictly increasing KSUIDs across all clients. Each connection keeps its read and write buffers for its lifetime;
+ * the write buffer only grows when a single response does not fit, and stops reading while responses are pending.
+ */
+final class KsuidServer implements Closeable {
+    /**
+     * Format byte requesting 20-byte raw KSUIDs.
+     */
+    static final byte RAW = 'R';
+
+    /**
+     * Format byte requesting 27-character KSUID strings.
+     */
+    static final byte STRING = 'S';
+
+    static final int REQUEST_BYTES = 5;
+    static final int MAX_COUNT = 1 << 16;
+    static final int STRING_BYTES = 27;
+
+    private static final int READ_BUFFER_BYTES = REQUEST_BYTES * 256;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final ServerSocketChannel serverChannel;
+    private final String address;
+    private final KsuidGenerator generator;
+    private final Clock clock;
+    private final Selector selector;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean closed;
+
+    // only written by the selector thread
+    private volatile long connectionCount;
+    private volatile long requestCount;
+    private volatile long ksuidCount;
+
+    /**
+     * Open a server. It does not accept connections until {@link #run()} is called.
+     *
+     * @param address   {@code host:port}, or {@code unix:/path} on Java 17 and later
+     * @param generator generator of the KSUIDs handed out
+     * @throws IOException if the address cannot be bound
+     */
+    KsuidServer(final String address, final KsuidGenerator generator) throws IOException {
+        this(address, generator, Clock.systemUTC());
+    }
+
+    /**
+     * Open a server. It does not accept connections until {@link #run()} is called.
+     *
+     * @param address   {@code host:port}, or {@code unix:/path} on Java 17 and later
+     * @param generator generator of the KSUIDs handed out
+     * @param clock     clock from which the timestamp of each request's KSUIDs is taken
+     * @throws IOException if the address cannot be bound
+     */
+    KsuidServer(final String address, final KsuidGenerator generator, final Clock clock) throws IOException {
+        this.serverChannel = SocketAddresses.openServer(address);
+        this.generator = generator;
+        this.clock = clock;
+        try {
+            this.address = SocketAddresses.toString(serverChannel);
+            this.selector = Selector.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (final IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the address the server listens on, with the actual port if it was opened on port 0.
+     *
+     * @return the address, in the form accepted by {@code ksuid -load}
+     */
+    String getAddress() {
+        return address;
+    }
+
+    long getConnectionCount() {
+        return connectionCount;
+    }
+
+    long getRequestCount() {
+        return requestCount;
+    }
+
+    long getKsuidCount() {
+        return ksuidCount;
+    }
+
+    /**
+     * Serve connections on the calling thread until {@link #close()} is called. Returns at once if the server
+     * is already closed.
+     *
+     * @throws IOException if the selector fails
+     */
+    void run() throws IOException {
+        if (!started.compareAndSet(false, true)) {
+            if (closed) {
+                return;
+            }
+            throw new IllegalStateException("server already started");
+        }
+        try {
+            while (!closed) {
+                selector.select();
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        final Connection connection = (Connection) key.attachment();
+                        try {
+                            connection.handle(key);
+                        } catch (final IOException | UncheckedIOException e) {
+                            connection.close(key);
+                        }
+                    }
+                }
+            }
+        } finally {
+            closeChannels();
+        }
+    }
+
+    /**
+     * Stop serving and close all connections. Can be called from any thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (started.compareAndSet(false, true)) {
+            closeChannels();
+        } else {
+            selector.wakeup();
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        if (channel.getLocalAddress() instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        connectionCount++;
+    }
+
+    private void closeChannels() {
+        for (final SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (final IOException e) {
+                // closing anyway
+            }
+        }
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (final IOException e) {
+            // closing anyway
+        }
+        SocketAddresses.cleanUp(address);
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        // kept in fill mode between events
+        private ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+
+        private Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void handle(final SelectionKey key) throws IOException {
+            if (key.isWritable() && !flush()) {
+                return;
+            }
+            if (key.isReadable() && channel.read(in) < 0) {
+                close(key);
+                return;
+            }
+            boolean flushed;
+            do {
+                if (!serve()) {
+                    close(key);
+                    return;
+                }
+                flushed = flush();
+            } while (flushed && in.position() >= REQUEST_BYTES);
+            // while responses are pending, requests wait in the socket buffer
+            key.interestOps(flushed ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+        }
+
+        /**
+         * Answer all complete requests in the read buffer that fit in the write buffer.
+         *
+         * @return false if a request is invalid
+         */
+        private boolean serve() {
+            in.flip();
+            try {
+                while (in.remaining() >= REQUEST_BYTES) {
+                    final byte format = in.get(in.position());
+                    final int count = in.getInt(in.position() + 1);
+                    if (format != RAW && format != STRING || count < 1 || count > MAX_COUNT) {
+                        return false;
+                    }
+                    final int responseBytes = count * (format == RAW ? TOTAL_BYTES : STRING_BYTES);
+                    if (out.remaining() < responseBytes) {
+                        if (out.position() > 0) {
+                            break;
+                        }
+                        out = ByteBuffer.allocate(Integer.highestOneBit(responseBytes - 1) << 1);
+                    }
+                    in.position(in.position() + REQUEST_BYTES);
+                    generate(format, count);
+                }
+                return true;
+            } finally {
+                in.compact();
+            }
+        }
+
+        private void generate(final byte format, final int count) {
+            final Object event = KsuidEvents.beginBulk();
+            final byte[] dst = out.array();
+            int offset = out.arrayOffset() + out.position();
+            // one batch per request, so a SecureRandom is locked once rather than once per KSUID
+            final Ksuid[] ksuids = generator.newKsuids(clock.instant(), count);
+            for (final Ksuid ksuid : ksuids) {
+                final byte[] bytes = ksuid.rawBytes();
+                if (format == RAW) {
+                    System.arraycopy(bytes, 0, dst, offset, TOTAL_BYTES);
+                    offset += TOTAL_BYTES;
+                } else {
+                    Base62.encodeKsuid(bytes, 0, dst, offset);
+                    offset += STRING_BYTES;
+                }
+            }
+            out.position(offset - out.arrayOffset());
+            requestCount++;
+            ksuidCount += count;
+            KsuidEvents.commitBulk(event, "serve", count);
+        }
+
+        /**
+         * Write as much of the pending responses as the socket takes.
+         *
+         * @return true if nothing is pending anymore
+         */
+        private boolean flush() throws IOException {
+            out.flip();
+            try {
+                channel.write(out);
+                return !out.hasRemaining();
+            } finally {
+                out.compact();
+            }
+        }
+
+        private void close(final SelectionKey key) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                // closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.github.ksuid;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * Find duplicates in very large collections of KSUIDs without keeping all of them in memory.
+ * <p>
+ * The KSUIDs are checked in two passes. The first pass {@link #add(Ksuid) adds} every KSUID to a blocked Bloom filter,
+ * which needs about {@code -1.44 * log2(falsePositiveRate)} bits per KSUID, and remembers the KSUIDs the filter may
+ * have seen before. Only if there are such suspects, the second pass {@link #confirm(Ksuid) confirms} them by counting
+ * how often each suspect occurs; KSUIDs the filter has never seen are skipped without allocating. The result is exact:
+ * {@link #getDuplicates()} contains exactly the KSUIDs that occurred more than once.
+ * <p>
+ * The filter is split into 512-bit blocks, one cache line each, so adding a KSUID touches one cache line.
+ * The payload of a KSUID is already random, so instead of a general-purpose hash function the payload and timestamp
+ * are folded into 64 bits and spread with a multiplication, which also separates monotonic KSUIDs that differ only
+ * in their lowest bits. The bits within the block are the top bits of successive steps of a 64-bit linear congruential
+ * generator seeded from that value; double hashing within 512 bits lets all positions collapse onto a few bits for
+ * about one KSUID in 512, which caps the false positive rate near 1e-4 however large the filter is.
+ * <p>
+ * Instances are not threadsafe.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidUniquenessChecker {
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+    private static final int MAX_HASHES = 16;
+    private static final int BIT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(BLOCK_BITS);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final long LCG_MULTIPLIER = 0x5851F42D4C957F2DL;
+    private static final long LCG_INCREMENT = 0x14057B7EF767814FL;
+
+    private final long[] bits;
+    private final int blocks;
+    private final int hashes;
+    private final double falsePositiveRate;
+    private final byte[] scratch = new byte[TOTAL_BYTES];
+    private final Map<Ksuid, Integer> suspects = new HashMap<>();
+    private long added;
+    private boolean confirming;
+
+    /**
+     * Construct a checker with a filter sized for the expected number of KSUIDs.
+     *
+     * @param expectedCount     number of KSUIDs that will be added
+     * @param falsePositiveRate target rate of KSUIDs wrongly suspected, between 0 and 1 exclusive
+     * @throws IllegalArgumentException if the rate is out of range or the filter would be too large
+     */
+    public KsuidUniquenessChecker(final long expectedCount, final double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1 exclusive");
+        }
+        final double bitsPerKsuid = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        final long totalBits = (long) Math.ceil(Math.max(1, expectedCount) * bitsPerKsuid);
+        final long blockCount = (totalBits + BLOCK_BITS - 1) / BLOCK_BITS;
+        if (blockCount > Integer.MAX_VALUE / BLOCK_LONGS) {
+            throw new IllegalArgumentException("filter for " + expectedCount + " KSUIDs exceeds the maximum array size");
+        }
+        this.blocks = (int) blockCount;
+        this.bits = new long[blocks * BLOCK_LONGS];
+        this.hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerKsuid * Math.log(2))));
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * First pass: add a KSUID.
+     *
+     * @param ksuid the KSUID
+     * @return true if the KSUID may have been added before and is now a suspect
+     */
+    public boolean add(final Ksuid ksuid) {
+        return add(ksuid.rawBytes(), 0);
+    }
+
+    /**
+     * First pass: add a KSUID string.
+     *
+     * @param ksuid the 27-character KSUID string
+     * @return true if the KSUID may have been added before and is now a suspect
+     * @throws IllegalArgumentException if the string is not a valid KSUID
+     */
+    public boolean add(final CharSequence ksuid) {
+        return add(decode(ksuid), 0);
+    }
+
+    /**
+     * First pass: add a 20-byte KSUID record, in the form returned by {@link Ksuid#asBytes()}.
+     *
+     * @param bytes  array containing the record
+     * @param offset offset of the record in the array
+     * @return true if the KSUID may have been added before and is now a suspect
+     */
+    public boolean add(final byte[] bytes, final int offset) {
+        if (confirming) {
+            throw new IllegalStateException("cannot add KSUIDs after the second pass has started");
+        }
+        added++;
+        final long h = mix(bytes, offset);
+        final int base = block(h) * BLOCK_LONGS;
+        long x = h * MIX_MULTIPLIER;
+        boolean present = true;
+        for (int i = 0; i < hashes; i++) {
+            final int bit = (int) (x >>> BIT_SHIFT);
+            x = x * LCG_MULTIPLIER + LCG_INCREMENT;
+            final int index = base + (bit >>> 6);
+            final long mask = 1L << bit;
+            if ((bits[index] & mask) == 0) {
+                present = false;
+                bits[index] |= mask;
+            }
+        }
+        if (present) {
+            suspects.put(Ksuid.newBuilder().withKsuidBytes(copy(bytes, offset)).build(), 0);
+        }
+        return present;
+    }
+
+    /**
+     * Second pass: count a KSUID if it is a suspect.
+     *
+     * @param ksuid the KSUID
+     */
+    public void confirm(final Ksuid ksuid) {
+        confirm(ksuid.rawBytes(), 0);
+    }
+
+    /**
+     * Second pass: count a KSUID string if it is a suspect.
+     *
+     * @param ksuid the 27-character KSUID string
+     * @throws IllegalArgumentException if the string is not a valid KSUID
+     */
+    public void confirm(final CharSequence ksuid) {
+        confirm(decode(ksuid), 0);
+    }
+
+    /**
+     * Second pass: count a 20-byte KSUID record if it is a suspect.
+     *
+     * @param bytes  array containing the record
+     * @param offset offset of the record in the array
+     */
+    public void confirm(final byte[] bytes, final int offset) {
+        confirming = true;
+        if (suspects.isEmpty() || !mightContain(bytes, offset)) {
+            return;
+        }
+        final Ksuid ksuid = Ksuid.newBuilder().withKsuidBytes(copy(bytes, offset)).build();
+        suspects.computeIfPresent(ksuid, (key, count) -> count + 1);
+    }
+
+    /**
+     * Run both passes over a source of KSUIDs. The second pass is skipped if the first one found no suspects.
+     *
+     * @param source supplies a new stream of the same KSUIDs for each pass
+     * @return the duplicates
+     */
+    public Set<Ksuid> findDuplicates(final Supplier<? extends Stream<Ksuid>> source) {
+        final Object event = KsuidEvents.beginBulk();
+        try (Stream<Ksuid> stream = source.get()) {
+            stream.forEachOrdered(this::add);
+        }
+        if (hasSuspects()) {
+            try (Stream<Ksuid> stream = source.get()) {
+                stream.forEachOrdered(this::confirm);
+            }
+        }
+        KsuidEvents.commitBulk(event, "findDuplicates", added);
+        return getDuplicates();
+    }
+
+    /**
+     * Check whether the first pass found KSUIDs that may be duplicates, so a second pass is needed.
+     *
+     * @return true if there are suspects
+     */
+    public boolean hasSuspects() {
+        return !suspects.isEmpty();
+    }
+
+    /**
+     * Get the number of distinct KSUIDs the first pass suspects of being duplicates.
+     *
+     * @return number of suspects
+     */
+    public int getSuspectCount() {
+        return suspects.size();
+    }
+
+    /**
+     * Get the KSUIDs that occurred more than once. Only complete after the second pass.
+     *
+     * @return unmodifiable set of duplicates
+     */
+    public Set<Ksuid> getDuplicates() {
+        return Collections.unmodifiableSet(suspects.entrySet()
+                                                   .stream()
+                                                   .filter(entry -> entry.getValue() > 1)
+                                                   .map(Map.Entry::getKey)
+                                                   .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Get the number of KSUIDs added in the first pass.
+     *
+     * @return number of KSUIDs
+     */
+    public long getCount() {
+        return added;
+    }
+
+    /**
+     * Get the target false positive rate the filter was sized for.
+     *
+     * @return false positive rate
+     */
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Get the number of bits set per KSUID.
+     *
+     * @return number of hash functions
+     */
+    public int getHashCount() {
+        return hashes;
+    }
+
+    /**
+     * Get the size of the filter.
+     *
+     * @return filter size in bytes
+     */
+    public long getFilterBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    private boolean mightContain(final byte[] bytes, final int offset) {
+        final long h = mix(bytes, offset);
+        final int base = block(h) * BLOCK_LONGS;
+        long x = h * MIX_MULTIPLIER;
+        for (int i = 0; i < hashes; i++) {
+            final int bit = (int) (x >>> BIT_SHIFT);
+            x = x * LCG_MULTIPLIER + LCG_INCREMENT;
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(final byte[] bytes, final int offset) {
+        final long timestamp = Bytes.getInt(bytes, offset);
+        final long payloadHigh = Bytes.getLong(bytes, offset + TIMESTAMP_BYTES);
+        final long payloadLow = Bytes.getLong(bytes, offset + TIMESTAMP_BYTES + Long.BYTES);
+        final long h = (payloadLow ^ Long.rotateLeft(payloadHigh, 32) ^ timestamp) * GOLDEN_GAMMA;
+        // the high bits pick the block, fold them into the low bits that pick the bits within the block
+        return h ^ (h >>> 32);
+    }
+
+    private int block(final long h) {
+        // maps the high 32 bits onto [0, blocks) without a division
+        return (int) (((h >>> 32) * blocks) >>> 32);
+    }
+
+    private byte[] decode(final CharSequence ksuid) {
+        if (ksuid.length() != Base62.KSUID_ENCODED_LENGTH) {
+            throw new IllegalArgumentException("ksuid string is not expected length of " + Base62.KSUID_ENCODED_LENGTH + " characters");
+        }
+        Base62.decodeKsuid(ksuid, 0, scratch, 0);
+        return scratch;
+    }
+
+    private static byte[] copy(final byte[] bytes, final int offset) {
+        final byte[] copy = new byte[TOTAL_BYTES];
+        System.arraycopy(bytes, offset, copy, 0, TOTAL_BYTES);
+        return copy;
+    }
+}
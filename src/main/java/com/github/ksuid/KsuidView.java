@@ -0,0 +1,269 @@
+package com.github.ksuid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+
+import static com.github.ksuid.Ksuid.EPOCH;
+import static com.github.ksuid.Ksuid.TIMESTAMP_BYTES;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * A mutable, reusable view of one 20-byte KSUID record in a byte array or buffer, for scanning many records
+ * without creating a {@link Ksuid} for each.
+ * <p>
+ * Point a view at a record with one of the {@code wrap} methods, then read, compare and encode it. The record is
+ * read when the view is pointed at it, as a timestamp and two payload longs, so later changes to the underlying
+ * memory are not seen until the view is pointed at it again. No method allocates except {@link #toKsuid()} and
+ * {@link #toString()}; call {@code toKsuid()} for records that are retained.
+ * <p>
+ * Views are not threadsafe. {@code equals} and {@code hashCode} are those of {@code Object}, since the content
+ * of a view changes; compare contents with {@link #compareTo(KsuidView)} and {@link #contentEquals(Ksuid)}.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidView implements Comparable<KsuidView> {
+    private static final int PAYLOAD_LOW_OFFSET = TIMESTAMP_BYTES + Long.BYTES;
+    private static final int STRING_LENGTH = 27;
+
+    private int timestamp;
+    private long payloadHigh;
+    private long payloadLow;
+    // the record as bytes for the Base62 encoder, filled on demand
+    private final byte[] bytes = new byte[TOTAL_BYTES];
+    private boolean bytesValid;
+
+    /**
+     * Construct a view of {@link Ksuid#NIL}.
+     */
+    public KsuidView() {
+        bytesValid = true;
+    }
+
+    /**
+     * Point the view at a record in an array.
+     *
+     * @param src    the array
+     * @param offset offset of the record
+     * @return this view
+     * @throws IndexOutOfBoundsException if the record does not fit in the array at the offset
+     */
+    public KsuidView wrap(final byte[] src, final int offset) {
+        if (offset < 0 || offset > src.length - TOTAL_BYTES) {
+            throw new IndexOutOfBoundsException("offset " + offset + " is out of bounds for length " + src.length);
+        }
+        return set(Bytes.getInt(src, offset),
+                   Bytes.getLong(src, offset + TIMESTAMP_BYTES),
+                   Bytes.getLong(src, offset + PAYLOAD_LOW_OFFSET));
+    }
+
+    /**
+     * Point the view at a record in a heap or direct buffer, at an absolute index. The record is read big-endian
+     * whatever the order of the buffer, and its position is not changed.
+     *
+     * @param src   the buffer
+     * @param index index of the record
+     * @return this view
+     * @throws IndexOutOfBoundsException if the record does not fit in the buffer limit at the index
+     */
+    public KsuidView wrap(final ByteBuffer src, final int index) {
+        if (index < 0 || index > src.limit() - TOTAL_BYTES) {
+            throw new IndexOutOfBoundsException("index " + index + " is out of bounds for limit " + src.limit());
+        }
+        if (src.order() == ByteOrder.BIG_ENDIAN) {
+            return set(src.getInt(index), src.getLong(index + TIMESTAMP_BYTES), src.getLong(index + PAYLOAD_LOW_OFFSET));
+        }
+        return set(Integer.reverseBytes(src.getInt(index)),
+                   Long.reverseBytes(src.getLong(index + TIMESTAMP_BYTES)),
+                   Long.reverseBytes(src.getLong(index + PAYLOAD_LOW_OFFSET)));
+    }
+
+    /**
+     * Point the view at a KSUID.
+     *
+     * @param ksuid the KSUID
+     * @return this view
+     */
+    public KsuidView wrap(final Ksuid ksuid) {
+        return wrap(ksuid.rawBytes(), 0);
+    }
+
+    /**
+     * Get the timestamp component.
+     *
+     * @return the timestamp, as {@link Ksuid#getTimestamp()}
+     */
+    public int getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the time component as an Instant.
+     *
+     * @return an Instant, as {@link Ksuid#getInstant()}
+     */
+    public Instant getInstant() {
+        return Instant.ofEpochSecond((long) timestamp + EPOCH);
+    }
+
+    /**
+     * Get the first 8 payload bytes.
+     *
+     * @return the first half of the payload as a big-endian long
+     */
+    public long getPayloadHigh() {
+        return payloadHigh;
+    }
+
+    /**
+     * Get the last 8 payload bytes.
+     *
+     * @return the second half of the payload as a big-endian long
+     */
+    public long getPayloadLow() {
+        return payloadLow;
+    }
+
+    /**
+     * Compare this record with another in the order of {@link Ksuid#compareTo(Ksuid)}.
+     *
+     * @param other the other view
+     * @return a negative integer, zero, or a positive integer as this record is less than,
+     *         equal to, or greater than the other
+     */
+    @Override
+    public int compareTo(final KsuidView other) {
+        return compare(other.timestamp, other.payloadHigh, other.payloadLow);
+    }
+
+    /**
+     * Compare this record with a KSUID in the order of {@link Ksuid#compareTo(Ksuid)}.
+     *
+     * @param ksuid the KSUID
+     * @return a negative integer, zero, or a positive integer as this record is less than,
+     *         equal to, or greater than the KSUID
+     */
+    public int compareTo(final Ksuid ksuid) {
+        final byte[] other = ksuid.rawBytes();
+        return compare(Bytes.getInt(other, 0),
+                       Bytes.getLong(other, TIMESTAMP_BYTES),
+                       Bytes.getLong(other, PAYLOAD_LOW_OFFSET));
+    }
+
+    /**
+     * Check whether this record is the same KSUID as a {@code Ksuid}.
+     *
+     * @param ksuid the KSUID
+     * @return true if all 20 bytes are equal
+     */
+    public boolean contentEquals(final Ksuid ksuid) {
+        final byte[] other = ksuid.rawBytes();
+        return payloadLow == Bytes.getLong(other, PAYLOAD_LOW_OFFSET)
+                && payloadHigh == Bytes.getLong(other, TIMESTAMP_BYTES)
+                && timestamp == Bytes.getInt(other, 0);
+    }
+
+    /**
+     * Copy the 20-byte record into an array.
+     *
+     * @param dst    the array
+     * @param offset offset of the record in the array
+     * @throws IndexOutOfBoundsException if the record does not fit in the array at the offset
+     */
+    public void copyTo(final byte[] dst, final int offset) {
+        if (offset < 0 || offset > dst.length - TOTAL_BYTES) {
+            throw new IndexOutOfBoundsException("offset " + offset + " is out of bounds for length " + dst.length);
+        }
+        Bytes.putInt(dst, offset, timestamp);
+        Bytes.putLong(dst, offset + TIMESTAMP_BYTES, payloadHigh);
+        Bytes.putLong(dst, offset + PAYLOAD_LOW_OFFSET, payloadLow);
+    }
+
+    /**
+     * Write the 20-byte record at the position of a buffer, big-endian whatever the order of the buffer,
+     * and advance the position.
+     *
+     * @param dst the buffer
+     * @throws java.nio.BufferOverflowException if fewer than 20 bytes remain in the buffer
+     */
+    public void copyTo(final ByteBuffer dst) {
+        dst.put(bytes());
+    }
+
+    /**
+     * Encode the record as the 27 characters of its string representation.
+     *
+     * @param dst    array receiving the characters
+     * @param offset offset of the first character
+     * @throws IndexOutOfBoundsException if the characters do not fit in the array at the offset
+     */
+    public void encodeTo(final char[] dst, final int offset) {
+        if (offset < 0 || offset > dst.length - STRING_LENGTH) {
+            throw new IndexOutOfBoundsException("offset " + offset + " is out of bounds for length " + dst.length);
+        }
+        Base62.encodeKsuid(bytes(), 0, dst, offset);
+    }
+
+    /**
+     * Encode the record as the 27 ASCII characters of its string representation.
+     *
+     * @param dst    array receiving the characters
+     * @param offset offset of the first character
+     * @throws IndexOutOfBoundsException if the characters do not fit in the array at the offset
+     */
+    public void encodeTo(final byte[] dst, final int offset) {
+        if (offset < 0 || offset > dst.length - STRING_LENGTH) {
+            throw new IndexOutOfBoundsException("offset " + offset + " is out of bounds for length " + dst.length);
+        }
+        Base62.encodeKsuid(bytes(), 0, dst, offset);
+    }
+
+    /**
+     * Get the record as an immutable KSUID.
+     *
+     * @return a new Ksuid
+     */
+    public Ksuid toKsuid() {
+        return Ksuid.fromWords(timestamp, payloadHigh, payloadLow);
+    }
+
+    /**
+     * Get the string representation of the record, as {@link Ksuid#toString()}.
+     *
+     * @return the 27-character string
+     */
+    @Override
+    public String toString() {
+        final char[] chars = new char[STRING_LENGTH];
+        Base62.encodeKsuid(bytes(), 0, chars, 0);
+        return new String(chars);
+    }
+
+    private KsuidView set(final int timestamp, final long payloadHigh, final long payloadLow) {
+        this.timestamp = timestamp;
+        this.payloadHigh = payloadHigh;
+        this.payloadLow = payloadLow;
+        bytesValid = false;
+        return this;
+    }
+
+    private int compare(final int otherTimestamp, final long otherPayloadHigh, final long otherPayloadLow) {
+        final int result = Integer.compareUnsigned(timestamp, otherTimestamp);
+        if (result != 0) {
+            return result;
+        }
+        final int payloadResult = Long.compareUnsigned(payloadHigh, otherPayloadHigh);
+        if (payloadResult != 0) {
+            return payloadResult;
+        }
+        return Long.compareUnsigned(payloadLow, otherPayloadLow);
+    }
+
+    private byte[] bytes() {
+        if (!bytesValid) {
+            copyTo(bytes, 0);
+            bytesValid = true;
+        }
+        return bytes;
+    }
+}
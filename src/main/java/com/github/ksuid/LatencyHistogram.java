@@ -0,0 +1,105 @@
+package com.github.ksuid;
+
+/**
+ * Histogram of non-negative latencies in nanoseconds with log-linear buckets, in the style of HdrHistogram.
+ * <p>
+ * Values below 128 are counted exactly. Larger values fall into one of 64 equal buckets within their power of two,
+ * so a reported value is never more than 1/64 (about 1.6%) above the recorded value. Recording is a single array
+ * increment, so it can be done for every operation of a benchmark.
+ * <p>
+ * Instances are not threadsafe; record per thread and {@link #add(LatencyHistogram) add} the histograms afterwards.
+ */
+final class LatencyHistogram {
+    private static final int LINEAR_BITS = 7;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+    private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    /**
+     * Record a value.
+     *
+     * @param value value in nanoseconds, negative values are recorded as zero
+     */
+    void record(final long value) {
+        final long v = Math.max(0, value);
+        counts[indexOf(v)]++;
+        totalCount++;
+        totalValue += v;
+        if (v > maxValue) {
+            maxValue = v;
+        }
+    }
+
+    /**
+     * Add all values recorded in another histogram to this one.
+     *
+     * @param other the other histogram
+     */
+    void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaxValue() {
+        return maxValue;
+    }
+
+    double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * Get the value at a percentile: the highest value equivalent to the smallest bucket containing
+     * at least {@code percentile} percent of the recorded values.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value at the percentile, or 0 if nothing was recorded
+     */
+    long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts[i];
+            if (count >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    // VisibleForTesting
+    static int indexOf(final long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        // value is in [2^k, 2^(k+1)), keep its top LINEAR_BITS - 1 bits
+        final int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - LINEAR_BITS;
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // VisibleForTesting
+    static long highestEquivalentValue(final int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        final int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        final long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
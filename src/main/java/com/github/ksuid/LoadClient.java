@@ -0,0 +1,202 @@
+package com.github.ksuid;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+
+/**
+ * Load test client for {@link KsuidServer}, run by {@code ksuid -load}.
+ * <p>
+ * Every connection runs on its own thread and keeps a fixed number of requests in flight: it sends that many
+ * requests up front and then one more for every response it receives. Latency is measured from sending a request
+ * to receiving the last byte of its response, so with deeper pipelines it includes the time waiting behind the
+ * earlier requests. Only requests sent after the warm-up time are measured.
+ */
+final class LoadClient {
+    private final String address;
+    private final byte format;
+    private final int connections;
+    private final int depth;
+    private final int batch;
+    private final Duration warmup;
+    private final Duration measurement;
+
+    /**
+     * Construct a load test client.
+     *
+     * @param address     address of the server
+     * @param format      {@link KsuidServer#RAW} or {@link KsuidServer#STRING}
+     * @param connections number of connections
+     * @param depth       number of requests in flight on each connection
+     * @param batch       number of KSUIDs per request
+     * @param warmup      time before measuring
+     * @param measurement time measured
+     */
+    LoadClient(final String address, final byte format, final int connections, final int depth, final int batch,
+               final Duration warmup, final Duration measurement) {
+        if (format != KsuidServer.RAW && format != KsuidServer.STRING) {
+            throw new IllegalArgumentException("format must be RAW or STRING");
+        }
+        if (connections < 1 || depth < 1) {
+            throw new IllegalArgumentException("connections and depth must be positive");
+        }
+        if (batch < 1 || batch > KsuidServer.MAX_COUNT) {
+            throw new IllegalArgumentException("batch must be between 1 and " + KsuidServer.MAX_COUNT);
+        }
+        this.address = address;
+        this.format = format;
+        this.connections = connections;
+        this.depth = depth;
+        this.batch = batch;
+        this.warmup = warmup;
+        this.measurement = measurement;
+    }
+
+    /**
+     * Run the load test.
+     *
+     * @return the measured throughput and latency
+     * @throws IOException if a connection fails
+     */
+    Result run() throws IOException {
+        final Worker[] workers = new Worker[connections];
+        try {
+            for (int i = 0; i < connections; i++) {
+                workers[i] = new Worker(SocketAddresses.connect(address));
+                workers[i].setName("ksuid-load-" + i);
+                workers[i].setDaemon(true);
+            }
+        } catch (final IOException e) {
+            for (final Worker worker : workers) {
+                if (worker != null) {
+                    worker.channel.close();
+                }
+            }
+            throw e;
+        }
+
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmup.toNanos();
+        final long measureTo = measureFrom + measurement.toNanos();
+        for (final Worker worker : workers) {
+            worker.measureFrom = measureFrom;
+            worker.measureTo = measureTo;
+            worker.start();
+        }
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (final Worker worker : workers) {
+            try {
+                worker.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("load test interrupted", e);
+            }
+            if (worker.failure != null) {
+                throw worker.failure;
+            }
+            histogram.add(worker.histogram);
+        }
+        final double seconds = measurement.toNanos() / 1e9;
+        return new Result(histogram.getTotalCount() / seconds, histogram.getTotalCount() * batch / seconds, histogram);
+    }
+
+    static final class Result {
+        private final double requestsPerSecond;
+        private final double ksuidsPerSecond;
+        private final LatencyHistogram histogram;
+
+        private Result(final double requestsPerSecond, final double ksuidsPerSecond, final LatencyHistogram histogram) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.ksuidsPerSecond = ksuidsPerSecond;
+            this.histogram = histogram;
+        }
+
+        double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        double getKsuidsPerSecond() {
+            return ksuidsPerSecond;
+        }
+
+        LatencyHistogram getHistogram() {
+            return histogram;
+        }
+    }
+
+    private final class Worker extends Thread {
+        private final SocketChannel channel;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final ByteBuffer request = ByteBuffer.allocate(KsuidServer.REQUEST_BYTES * depth);
+        private final ByteBuffer response = ByteBuffer.allocateDirect(batch * (format == KsuidServer.RAW ? TOTAL_BYTES : KsuidServer.STRING_BYTES));
+        // send times of the requests in flight, oldest at head
+        private final long[] sentAt = new long[depth];
+        private long measureFrom;
+        private long measureTo;
+        private IOException failure;
+
+        private Worker(final SocketChannel channel) {
+            this.channel = channel;
+            for (int i = 0; i < depth; i++) {
+                request.put(format).putInt(batch);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                try {
+                    load();
+                } finally {
+                    channel.close();
+                }
+            } catch (final IOException e) {
+                failure = e;
+            }
+        }
+
+        private void load() throws IOException {
+            final long now = System.nanoTime();
+            request.flip();
+            write(request);
+            for (int i = 0; i < depth; i++) {
+                sentAt[i] = now;
+            }
+
+            request.limit(KsuidServer.REQUEST_BYTES);
+            int head = 0;
+            int inFlight = depth;
+            while (inFlight > 0) {
+                response.clear();
+                while (response.hasRemaining()) {
+                    if (channel.read(response) < 0) {
+                        throw new EOFException("server closed the connection");
+                    }
+                }
+                final long received = System.nanoTime();
+                if (sentAt[head] >= measureFrom && sentAt[head] < measureTo) {
+                    histogram.record(received - sentAt[head]);
+                }
+                if (received < measureTo) {
+                    request.rewind();
+                    write(request);
+                    sentAt[head] = System.nanoTime();
+                } else {
+                    inFlight--;
+                }
+                head = head + 1 == depth ? 0 : head + 1;
+            }
+        }
+
+        private void write(final ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
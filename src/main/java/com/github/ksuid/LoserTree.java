@@ -0,0 +1,90 @@
+package com.github.ksuid;
+
+/**
+ * Tournament tree of losers for merging sorted inputs, identified by their index.
+ * <p>
+ * Each internal node remembers the input that lost the match played there, and node 0 the overall winner.
+ * After the winner's input advances only the matches on the path from its leaf to the root are replayed,
+ * so selecting the next record takes {@code log2(size)} comparisons, each between a known pair of inputs.
+ * Subclasses compare the current records of two inputs and must order exhausted inputs after all others.
+ * Ties are won by the input with the lower index.
+ */
+abstract class LoserTree {
+    private final int size;
+    private final int[] nodes;
+
+    /**
+     * Construct a tree over a number of inputs. Call {@link #init()} once the first records are available.
+     *
+     * @param size number of inputs, at least one
+     */
+    LoserTree(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.size = size;
+        this.nodes = new int[size];
+    }
+
+    /**
+     * Compare the current records of two inputs.
+     *
+     * @param left  index of the first input
+     * @param right index of the second input
+     * @return a negative integer, zero, or a positive integer as the record of {@code left} is less than,
+     *         equal to, or greater than the record of {@code right}
+     */
+    abstract int compare(int left, int right);
+
+    /**
+     * Play all matches.
+     */
+    final void init() {
+        // winners of the matches, with the leaves in the second half
+        final int[] winners = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            winners[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            final int left = winners[2 * node];
+            final int right = winners[2 * node + 1];
+            if (wins(right, left)) {
+                winners[node] = right;
+                nodes[node] = left;
+            } else {
+                winners[node] = left;
+                nodes[node] = right;
+            }
+        }
+        nodes[0] = winners[1];
+    }
+
+    /**
+     * Get the input with the smallest current record.
+     *
+     * @return index of the input
+     */
+    final int winner() {
+        return nodes[0];
+    }
+
+    /**
+     * Replay the matches of the winner after its input advanced or was exhausted.
+     */
+    final void replay() {
+        int winner = nodes[0];
+        for (int node = (size + winner) >>> 1; node > 0; node >>>= 1) {
+            final int loser = nodes[node];
+            if (wins(loser, winner)) {
+                nodes[node] = winner;
+                winner = loser;
+            }
+        }
+        nodes[0] = winner;
+    }
+
+    private boolean wins(final int challenger, final int holder) {
+        final int result = compare(challenger, holder);
+        return result < 0 || result == 0 && challenger < holder;
+    }
+}
@@ -1,57 +1,70 @@
 package com.github.ksuid;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.SecureRandom;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Random;
-import java.util.function.Consumer;
+import java.util.Set;
 import java.util.function.IntConsumer;
 import java.util.function.Supplier;
-import java.util.stream.IntStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 /**
  * Main program for generating ksuids from command-line.
  *
  * <p>
  * Mimics https://github.com/segmentio/ksuid/blob/v1.0.4/cmd/ksuid/main.go
+ *
+ * <p>
+ * Every call starts a new JVM, so the common paths avoid work that is not needed for the request:
+ * the {@code SecureRandom} is only created when KSUIDs are generated, and parsing, printing and
+ * flag handling do without lambdas, regular expressions and {@link java.util.Formatter}.
  */
 public final class Main {
+    private static final List<String> FORMATS = Arrays.asList("string", "inspect", "time", "timestamp", "payload", "raw", "template");
 
     private final PrintStream printStream;
     private final IntConsumer exit;
-    private final Random random;
+    private final Supplier<? extends Random> randomSupplier;
     private final Clock clock;
     private final Flags flags = new Flags();
-    private final Map<String, Consumer<Ksuid>> printers;
+    private Random random;
 
     public static void main(final String... args) {
-        final Main main = new Main(System.out, System::exit, new SecureRandom(), Clock.systemUTC());
+        final Main main = new Main(System.out, System::exit, SecureRandom::new, Clock.systemUTC());
         main.run(args);
     }
 
     Main(final PrintStream printStream, final IntConsumer exit, final Random random, final Clock clock) {
+        this(printStream, exit, () -> random, clock);
+    }
+
+    Main(final PrintStream printStream, final IntConsumer exit, final Supplier<? extends Random> randomSupplier, final Clock clock) {
         this.printStream = printStream;
         this.exit = exit;
-        this.random = random;
+        this.randomSupplier = randomSupplier;
         this.clock = clock;
-
-        printers = new HashMap<>();
-        printers.put("string", this::printString);
-        printers.put("inspect", this::printInspect);
-        printers.put("time", this::printTime);
-        printers.put("timestamp", this::printTimestamp);
-        printers.put("payload", this::printPayload);
-        printers.put("raw", this::printRaw);
-        printers.put("template", this::printTemplate);
     }
 
     public void run(final String... args) {
@@ -66,27 +79,158 @@ public final class Main {
     private void tryRun(final String... args) {
         parseFlags(args);
 
-        final Consumer<Ksuid> printer = printers.get(flags.format);
+        if (flags.bench) {
+            runBenchmarks();
+            return;
+        }
 
-        final List<Ksuid> ksuids = new ArrayList<>();
-        final KsuidGenerator ksuidGenerator = new KsuidGenerator(random);
-        if (flags.positionalArguments.isEmpty()) {
-            IntStream.range(0, flags.count)
-                    .forEach(any -> {
-                        final Instant now = Instant.now(clock);
-                        final Ksuid ksuid = ksuidGenerator.newKsuid(now);
-                        ksuids.add(ksuid);
-                    });
+        if (flags.check != null) {
+            runCheck();
+            return;
         }
 
-        flags.positionalArguments.forEach(arg -> ksuids.add(parse(arg)));
+        if (flags.serve != null) {
+            runServer();
+            return;
+        }
+
+        if (flags.load != null) {
+            runLoad();
+            return;
+        }
+
+        if (flags.output == null) {
+            try {
+                generate(new BufferedOutputStream(printStream, 1 << 16), printStream);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+
+        final long expectedSize = flags.mmap ? expectedOutputSize() : -1;
+        try (OutputStream target = openOutput(expectedSize)) {
+            final PrintStream out = new PrintStream(target, false);
+            generate(target, out);
+            out.flush();
+            if (out.checkError()) {
+                throw new IOException("write failed");
+            }
+        } catch (final IOException e) {
+            throw new CliException("Error when writing \"" + flags.output + "\": " + e.getMessage());
+        }
+    }
 
-        ksuids.forEach(ksuid -> {
-            if (flags.verbose) {
-                printStream.printf("%s: ", ksuid);
+    /**
+     * Generate or parse KSUIDs and print them.
+     *
+     * @param target output for bulk writes of formatted blocks
+     * @param out    print stream writing to the same output, for one KSUID at a time
+     */
+    private void generate(final OutputStream target, final PrintStream out) throws IOException {
+        if (!flags.positionalArguments.isEmpty()) {
+            final List<Ksuid> ksuids = new ArrayList<>();
+            for (final String arg : flags.positionalArguments) {
+                ksuids.add(parse(arg));
+            }
+            for (final Ksuid ksuid : ksuids) {
+                print(out, ksuid);
             }
-            printer.accept(ksuid);
-        });
+        } else if (flags.parallelism > 1) {
+            generateParallel(target);
+        } else {
+            final KsuidGenerator ksuidGenerator = new KsuidGenerator(random());
+            for (int i = 0; i < flags.count; i++) {
+                final Instant now = Instant.now(clock);
+                final Ksuid ksuid = ksuidGenerator.newKsuid(now);
+                print(out, ksuid);
+            }
+        }
+    }
+
+    private OutputStream openOutput(final long expectedSize) throws IOException {
+        final FileChannel channel = FileChannel.open(Paths.get(flags.output), CREATE, TRUNCATE_EXISTING, READ, WRITE);
+        try {
+            return expectedSize < 0 ? new ChannelOutputStream(channel) : new MappedOutputStream(channel, expectedSize);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private long expectedOutputSize() {
+        final int recordBytes;
+        switch (flags.format) {
+            case "string":
+                // printed with println, so followed by the platform line separator
+                recordBytes = Base62.KSUID_ENCODED_LENGTH + System.lineSeparator().length();
+                break;
+            case "payload":
+                recordBytes = Ksuid.PAYLOAD_BYTES;
+                break;
+            case "raw":
+                recordBytes = Ksuid.TOTAL_BYTES;
+                break;
+            default:
+                throw new CliException("-mmap needs a fixed-width format: string, payload or raw");
+        }
+        final long records = flags.positionalArguments.isEmpty() ? flags.count : flags.positionalArguments.size();
+        // verbose mode prefixes every record with the KSUID string and ": "
+        return records * (flags.verbose ? Base62.KSUID_ENCODED_LENGTH + ": ".length() + recordBytes : recordBytes);
+    }
+
+    private void print(final PrintStream out, final Ksuid ksuid) {
+        if (flags.verbose) {
+            out.print(ksuid);
+            out.print(": ");
+        }
+        switch (flags.format) {
+            case "inspect":
+                printInspect(out, ksuid);
+                break;
+            case "time":
+                printTime(out, ksuid);
+                break;
+            case "timestamp":
+                printTimestamp(out, ksuid);
+                break;
+            case "payload":
+                printPayload(out, ksuid);
+                break;
+            case "raw":
+                printRaw(out, ksuid);
+                break;
+            case "template":
+                printTemplate(out, ksuid);
+                break;
+            default:
+                printString(out, ksuid);
+                break;
+        }
+    }
+
+    private Random random() {
+        if (random == null) {
+            random = randomSupplier.get();
+        }
+        return random;
+    }
+
+    private void generateParallel(final OutputStream out) throws IOException {
+        final ParallelGenerator generator = new ParallelGenerator(flags.parallelism, this::workerGenerator, clock, this::print);
+        if (flags.unordered) {
+            generator.generateUnordered(flags.count, out);
+        } else {
+            generator.generateOrdered(flags.count, out);
+        }
+        out.flush();
+    }
+
+    private KsuidGenerator workerGenerator(final int worker) {
+        // each worker draws from its own source so they do not contend on one lock
+        final Random random = random();
+        final Random workerRandom = random instanceof SecureRandom ? new SecureRandom() : new Random(random.nextLong());
+        return new KsuidGenerator(workerRandom);
     }
 
     private Ksuid parse(final String arg) {
@@ -112,39 +256,107 @@ public final class Main {
                 continue;
             }
 
-            final Supplier<String> value = () -> {
-                if (!iterator.hasNext()) {
-                    throw new CliException("flag needs an argument: " + flag);
-                }
-                return iterator.next();
-            };
-
             switch (flag) {
                 case "-n":
-                    final String countValue = value.get();
+                    flags.count = parseInt(flag, value(iterator, flag));
+                    break;
+
+                case "-check":
+                    flags.check = value(iterator, flag);
+                    break;
+
+                case "-check-fpp":
+                    final String fppValue = value(iterator, flag);
                     try {
-                        flags.count = Integer.parseInt(countValue);
-                    } catch (final Exception e) {
-                        throw new CliException("invalid value \"" + countValue + "\" for flag -n: parse error");
+                        flags.checkFpp = Double.parseDouble(fppValue);
+                    } catch (final NumberFormatException e) {
+                        throw new CliException("invalid value \"" + fppValue + "\" for flag -check-fpp: parse error");
+                    }
+                    if (!(flags.checkFpp > 0 && flags.checkFpp < 1)) {
+                        throw new CliException("invalid value \"" + fppValue + "\" for flag -check-fpp: must be between 0 and 1");
                     }
                     break;
 
                 case "-f":
-                    final String formatValue = value.get();
-                    if (!printers.containsKey(formatValue)) {
+                    final String formatValue = value(iterator, flag);
+                    if (!FORMATS.contains(formatValue)) {
                         throw new CliException("Bad formatting function: " + formatValue);
                     }
                     flags.format = formatValue;
                     break;
 
                 case "-t":
-                    flags.templateText = value.get();
+                    flags.templateText = value(iterator, flag);
                     break;
 
                 case "-v":
                     flags.verbose = true;
                     break;
 
+                case "-bench":
+                    flags.bench = true;
+                    break;
+
+                case "-bench-format":
+                    final String benchFormatValue = value(iterator, flag);
+                    if (!benchFormatValue.equals("text") && !benchFormatValue.equals("json")) {
+                        throw new CliException("Bad benchmark format: " + benchFormatValue);
+                    }
+                    flags.benchFormat = benchFormatValue;
+                    break;
+
+                case "-bench-threads":
+                    flags.benchThreads = parsePositiveInt(flag, value(iterator, flag));
+                    break;
+
+                case "-bench-time":
+                    flags.benchTime = parseDuration(flag, value(iterator, flag));
+                    break;
+
+                case "-bench-warmup":
+                    flags.benchWarmup = parseDuration(flag, value(iterator, flag));
+                    break;
+
+                case "-load":
+                    flags.load = value(iterator, flag);
+                    break;
+
+                case "-load-batch":
+                    flags.loadBatch = parsePositiveInt(flag, value(iterator, flag));
+                    if (flags.loadBatch > KsuidServer.MAX_COUNT) {
+                        throw new CliException("invalid value \"" + flags.loadBatch + "\" for flag " + flag
+                                               + ": must be at most " + KsuidServer.MAX_COUNT);
+                    }
+                    break;
+
+                case "-load-connections":
+                    flags.loadConnections = parsePositiveInt(flag, value(iterator, flag));
+                    break;
+
+                case "-load-depth":
+                    flags.loadDepth = parsePositiveInt(flag, value(iterator, flag));
+                    break;
+
+                case "-mmap":
+                    flags.mmap = true;
+                    break;
+
+                case "-o":
+                    flags.output = value(iterator, flag);
+                    break;
+
+                case "-p":
+                    flags.parallelism = parsePositiveInt(flag, value(iterator, flag));
+                    break;
+
+                case "-serve":
+                    flags.serve = value(iterator, flag);
+                    break;
+
+                case "-u":
+                    flags.unordered = true;
+                    break;
+
                 case "-h":
                     printUsage(0);
                     break;
@@ -155,56 +367,286 @@ public final class Main {
         }
     }
 
+    private static String value(final Iterator<String> iterator, final String flag) {
+        if (!iterator.hasNext()) {
+            throw new CliException("flag needs an argument: " + flag);
+        }
+        return iterator.next();
+    }
+
+    private static int parseInt(final String flag, final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (final Exception e) {
+            throw new CliException("invalid value \"" + value + "\" for flag " + flag + ": parse error");
+        }
+    }
+
+    private static int parsePositiveInt(final String flag, final String value) {
+        final int result = parseInt(flag, value);
+        if (result < 1) {
+            throw new CliException("invalid value \"" + value + "\" for flag " + flag + ": must be positive");
+        }
+        return result;
+    }
+
+    private static Duration parseDuration(final String flag, final String value) {
+        final Matcher matcher = Pattern.compile("(\\d+)(ns|us|ms|s|m|h)").matcher(value);
+        if (!matcher.matches()) {
+            throw new CliException("invalid value \"" + value + "\" for flag " + flag + ": parse error");
+        }
+        final ChronoUnit unit;
+        switch (matcher.group(2)) {
+            case "ns":
+                unit = ChronoUnit.NANOS;
+                break;
+            case "us":
+                unit = ChronoUnit.MICROS;
+                break;
+            case "ms":
+                unit = ChronoUnit.MILLIS;
+                break;
+            case "s":
+                unit = ChronoUnit.SECONDS;
+                break;
+            case "m":
+                unit = ChronoUnit.MINUTES;
+                break;
+            default:
+                unit = ChronoUnit.HOURS;
+                break;
+        }
+        try {
+            return Duration.of(Long.parseLong(matcher.group(1)), unit);
+        } catch (final ArithmeticException | NumberFormatException e) {
+            throw new CliException("invalid value \"" + value + "\" for flag " + flag + ": parse error");
+        }
+    }
+
     private void printUsage(final int exitCode) {
         printStream.print("Usage of ksuid:\n"
+                + "  -bench\n"
+                + "        Measure throughput, allocation and latency of KSUID operations instead of generating KSUIDs.\n"
+                + "  -bench-format string\n"
+                + "        Benchmark output, one of text or json. (default \"text\")\n"
+                + "  -bench-threads int\n"
+                + "        Run benchmarks with 1, 2, 4, ... up to this many threads. (default 1)\n"
+                + "  -bench-time duration\n"
+                + "        Measurement time of each benchmark and of -load. (default 3s)\n"
+                + "  -bench-warmup duration\n"
+                + "        Warm-up time of each benchmark and of -load. (default 1s)\n"
+                + "  -check string\n"
+                + "        Check the KSUIDs in this file for duplicates. Reads text, raw records with -f raw, or KSUID files.\n"
+                + "  -check-fpp float\n"
+                + "        False positive rate of the Bloom filter used by -check. (default 1e-06)\n"
                 + "  -f string\n"
                 + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
+                + "  -load string\n"
+                + "        Measure throughput and latency of the -serve server at this address. Requests -f string or raw.\n"
+                + "  -load-batch int\n"
+                + "        Number of KSUIDs per -load request. (default 100)\n"
+                + "  -load-connections int\n"
+                + "        Number of -load connections, each on its own thread. (default 1)\n"
+                + "  -load-depth int\n"
+                + "        Number of -load requests in flight on each connection. (default 16)\n"
+                + "  -mmap\n"
+                + "        With -o, preallocate the file and write it through a memory mapping. Needs -f string, payload or raw.\n"
                 + "  -n int\n"
                 + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
+                + "  -o string\n"
+                + "        Write output to this file instead of standard output.\n"
+                + "  -p int\n"
+                + "        Number of threads generating KSUIDs. Output is sorted unless -u is given. (default 1)\n"
+                + "  -serve string\n"
+                + "        Hand out KSUIDs to clients connecting to this address, host:port or unix:/path on Java 17+.\n"
+                + "        Monotonic unless -u is given.\n"
                 + "  -t string\n"
                 + "        The Go template used to format the output.\n"
+                + "  -u    Write KSUIDs generated with -p in the order they are generated instead of sorting them,\n"
+                + "        or serve unordered KSUIDs with -serve.\n"
                 + "  -v    Turn on verbose mode.\n"
                 + "");
         exit.accept(exitCode);
     }
 
-    private void printString(final Ksuid ksuid) {
-        printStream.println(ksuid);
+    private void runCheck() {
+        final Path path = Paths.get(flags.check);
+        final boolean raw = flags.format.equals("raw");
+        try {
+            final KsuidUniquenessChecker checker = new KsuidUniquenessChecker(RecordFiles.estimateCount(path, raw), flags.checkFpp);
+            final long start = System.nanoTime();
+            final long count = RecordFiles.forEach(path, raw, checker::add);
+            final long firstPass = System.nanoTime();
+            if (checker.hasSuspects()) {
+                RecordFiles.forEach(path, raw, checker::confirm);
+            }
+            final long secondPass = System.nanoTime();
+
+            final Set<Ksuid> duplicates = checker.getDuplicates();
+            printStream.printf(Locale.ROOT, "Checked %d KSUIDs in %.3f s (%.0f/s)%n",
+                               count, (firstPass - start) / 1e9, count / ((firstPass - start) / 1e9));
+            printStream.printf(Locale.ROOT, "Bloom filter: %d bytes, %d hashes, false positive rate %s%n",
+                               checker.getFilterBytes(), checker.getHashCount(), checker.getFalsePositiveRate());
+            printStream.printf(Locale.ROOT, "Suspects: %d, confirmed in %.3f s%n", checker.getSuspectCount(), (secondPass - firstPass) / 1e9);
+            printStream.printf(Locale.ROOT, "Duplicates: %d%n", duplicates.size());
+            duplicates.stream().sorted().forEach(printStream::println);
+            if (!duplicates.isEmpty()) {
+                exit.accept(1);
+            }
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new CliException("Error when checking \"" + flags.check + "\": " + e.getMessage());
+        }
+    }
+
+    private void runServer() {
+        final KsuidGenerator generator = flags.unordered ? new KsuidGenerator(random()) : new MonotonicKsuidGenerator(random(), clock);
+        final KsuidServer server;
+        try {
+            server = new KsuidServer(flags.serve, generator, clock);
+        } catch (final IOException | IllegalArgumentException e) {
+            throw serveFailure(e);
+        }
+        try {
+            final Thread serverThread = Thread.currentThread();
+            // let the server close its connections and remove its socket file on Ctrl-C
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                try {
+                    serverThread.join(1000);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            printStream.println("Serving KSUIDs on " + server.getAddress());
+            printStream.flush();
+            server.run();
+        } catch (final IOException | IllegalArgumentException e) {
+            throw serveFailure(e);
+        } finally {
+            server.close();
+        }
+    }
+
+    private CliException serveFailure(final Exception e) {
+        return new CliException("Error when serving on \"" + flags.serve + "\": " + e.getMessage());
+    }
+
+    private void runLoad() {
+        final byte format;
+        switch (flags.format) {
+            case "string":
+                format = KsuidServer.STRING;
+                break;
+            case "raw":
+                format = KsuidServer.RAW;
+                break;
+            default:
+                throw new CliException("-load needs -f string or raw");
+        }
+        final LoadClient.Result result;
+        try {
+            result = new LoadClient(flags.load, format, flags.loadConnections, flags.loadDepth, flags.loadBatch,
+                                    flags.benchWarmup, flags.benchTime).run();
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new CliException("Error when loading \"" + flags.load + "\": " + e.getMessage());
+        }
+        final LatencyHistogram histogram = result.getHistogram();
+        printStream.printf(Locale.ROOT, "%11s %5s %5s %6s %12s %12s %9s %9s %9s %9s %9s%n",
+                           "connections", "depth", "batch", "format", "requests/s", "ksuids/s", "p50", "p90", "p99", "p99.9", "max");
+        printStream.printf(Locale.ROOT, "%11d %5d %5d %6s %12.0f %12.0f %7dns %7dns %7dns %7dns %7dns%n",
+                           flags.loadConnections,
+                           flags.loadDepth,
+                           flags.loadBatch,
+                           flags.format,
+                           result.getRequestsPerSecond(),
+                           result.getKsuidsPerSecond(),
+                           histogram.getValueAtPercentile(50),
+                           histogram.getValueAtPercentile(90),
+                           histogram.getValueAtPercentile(99),
+                           histogram.getValueAtPercentile(99.9),
+                           histogram.getMaxValue());
+    }
+
+    private void runBenchmarks() {
+        final Benchmark benchmark = new Benchmark(random(), clock, flags.benchWarmup, flags.benchTime);
+        if (flags.benchFormat.equals("json")) {
+            benchmark.run(flags.benchThreads, this::printBenchmarkJson);
+        } else {
+            printStream.printf(Locale.ROOT, "%-10s %7s %14s %8s %9s %9s %9s %9s %9s%n",
+                               "benchmark", "threads", "ops/s", "B/op", "p50", "p90", "p99", "p99.9", "max");
+            benchmark.run(flags.benchThreads, this::printBenchmarkText);
+        }
+    }
+
+    private void printBenchmarkText(final Benchmark.Result result) {
+        final LatencyHistogram histogram = result.getHistogram();
+        printStream.printf(Locale.ROOT, "%-10s %7d %14.0f %8.1f %7dns %7dns %7dns %7dns %7dns%n",
+                           result.getName(),
+                           result.getThreads(),
+                           result.getOpsPerSecond(),
+                           result.getBytesPerOp(),
+                           histogram.getValueAtPercentile(50),
+                           histogram.getValueAtPercentile(90),
+                           histogram.getValueAtPercentile(99),
+                           histogram.getValueAtPercentile(99.9),
+                           histogram.getMaxValue());
+    }
+
+    private void printBenchmarkJson(final Benchmark.Result result) {
+        final LatencyHistogram histogram = result.getHistogram();
+        final double bytesPerOp = result.getBytesPerOp();
+        printStream.printf(Locale.ROOT, "{\"benchmark\":\"%s\",\"threads\":%d,\"ops\":%d,\"opsPerSecond\":%.1f,\"bytesPerOp\":%s,"
+                                        + "\"latencyNanos\":{\"mean\":%.1f,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"p99.9\":%d,\"max\":%d}}%n",
+                           result.getName(),
+                           result.getThreads(),
+                           result.getOps(),
+                           result.getOpsPerSecond(),
+                           Double.isNaN(bytesPerOp) ? "null" : String.format(Locale.ROOT, "%.1f", bytesPerOp),
+                           histogram.getMean(),
+                           histogram.getValueAtPercentile(50),
+                           histogram.getValueAtPercentile(90),
+                           histogram.getValueAtPercentile(99),
+                           histogram.getValueAtPercentile(99.9),
+                           histogram.getMaxValue());
+    }
+
+    private void printString(final PrintStream out, final Ksuid ksuid) {
+        out.println(ksuid);
     }
 
-    private void printInspect(final Ksuid ksuid) {
-        printStream.println(ksuid.toInspectString());
+    private void printInspect(final PrintStream out, final Ksuid ksuid) {
+        out.println(ksuid.toInspectString());
     }
 
-    private void printTime(final Ksuid ksuid) {
-        printStream.println(ksuid.getTime());
+    private void printTime(final PrintStream out, final Ksuid ksuid) {
+        out.println(ksuid.getTime());
     }
 
-    private void printTimestamp(final Ksuid ksuid) {
-        printStream.println(ksuid.getTimestamp());
+    private void printTimestamp(final PrintStream out, final Ksuid ksuid) {
+        out.println(ksuid.getTimestamp());
     }
 
-    private void printPayload(final Ksuid ksuid) {
-        printByteArray(ksuid.getPayload());
+    private void printPayload(final PrintStream out, final Ksuid ksuid) {
+        printByteArray(out, ksuid.getPayload());
     }
 
-    private void printRaw(final Ksuid ksuid) {
-        printByteArray(ksuid.asRaw());
+    private void printRaw(final PrintStream out, final Ksuid ksuid) {
+        printByteArray(out, ksuid.asRaw());
     }
 
-    private void printTemplate(final Ksuid ksuid) {
+    private void printTemplate(final PrintStream out, final Ksuid ksuid) {
         String result = flags.templateText;
         result = result.replace("{{.String}}", ksuid.toString());
         result = result.replace("{{.Raw}}", ksuid.asRaw());
         result = result.replace("{{.Time}}", ksuid.getTime());
         result = result.replace("{{.Timestamp}}", ksuid.getTimestamp() + "");
         result = result.replace("{{.Payload}}", ksuid.getPayload());
-        printStream.println(result);
+        out.println(result);
     }
 
-    private void printByteArray(final String hexBytes) {
+    private void printByteArray(final PrintStream out, final String hexBytes) {
         try {
-            printStream.write(Hex.hexDecode(hexBytes));
+            out.write(Hex.hexDecode(hexBytes));
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -215,6 +657,22 @@ public final class Main {
         private String format = "string";
         private String templateText = "";
         private boolean verbose;
+        private String output;
+        private String check;
+        private double checkFpp = 1e-6;
+        private boolean mmap;
+        private int parallelism = 1;
+        private boolean unordered;
+        private boolean bench;
+        private String benchFormat = "text";
+        private int benchThreads = 1;
+        private Duration benchTime = Duration.ofSeconds(3);
+        private Duration benchWarmup = Duration.ofSeconds(1);
+        private String serve;
+        private String load;
+        private int loadBatch = 100;
+        private int loadConnections = 1;
+        private int loadDepth = 16;
         private final List<String> positionalArguments = new ArrayList<>();
     }
 
@@ -0,0 +1,78 @@
+package com.github.ksuid;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Output stream writing into a file of known size through memory mappings.
+ * <p>
+ * The file is extended to the expected size up front and mapped in segments of {@value #SEGMENT_BYTES} bytes,
+ * so writes are plain memory copies and the kernel writes the pages back in the background.
+ * Writing more than the expected size fails; if less is written the file is truncated when the stream is closed.
+ * Instances are not threadsafe. Closing the stream closes the channel.
+ */
+final class MappedOutputStream extends OutputStream {
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+
+    MappedOutputStream(final FileChannel channel, final long size) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        channel.truncate(0);
+        map(0);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (!segment.hasRemaining()) {
+            next();
+        }
+        segment.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (!segment.hasRemaining()) {
+                next();
+            }
+            final int chunk = Math.min(remaining, segment.remaining());
+            segment.put(bytes, position, chunk);
+            position += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            final long written = segmentStart + segment.position();
+            if (written < size) {
+                channel.truncate(written);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void next() throws IOException {
+        final long start = segmentStart + segment.capacity();
+        if (start >= size) {
+            throw new IOException("output exceeds the expected size of " + size + " bytes");
+        }
+        map(start);
+    }
+
+    private void map(final long start) throws IOException {
+        segmentStart = start;
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(SEGMENT_BYTES, size - start));
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.ksuid;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.github.ksuid.Ksuid.PAYLOAD_BYTES;
+
+/**
+ * Generate strictly increasing K-Sortable Globally Unique IDs (KSUID).
+ * <p>
+ * The first KSUID in each second gets a random payload. Every further KSUID in the same second
+ * is the previous KSUID plus one, so KSUIDs handed out by one generator are strictly increasing
+ * across all threads. If the clock goes backwards the generator keeps counting from the last
+ * issued KSUID instead of waiting for the clock to catch up.
+ * <p>
+ * The last issued KSUID is kept in a single atomic reference and advanced with compare-and-set,
+ * so the generator never blocks. Note that only the first KSUID in a second is unpredictable,
+ * the ones following it can be guessed from their predecessor.
+ * <p>
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public class MonotonicKsuidGenerator extends KsuidGenerator {
+    private final Clock clock;
+    private final AtomicReference<State> last = new AtomicReference<>();
+
+    /**
+     * Construct a monotonic KSUID generator using the system UTC clock.
+     *
+     * @param random source of random bytes for payload, SecureRandom is recommended
+     */
+    public MonotonicKsuidGenerator(final Random random) {
+        this(random, Clock.systemUTC());
+    }
+
+    /**
+     * Construct a monotonic KSUID generator.
+     *
+     * @param random source of random bytes for payload, SecureRandom is recommended
+     * @param clock  clock from which the timestamp component is taken
+     */
+    public MonotonicKsuidGenerator(final Random random, final Clock clock) {
+        super(random);
+        this.clock = clock;
+    }
+
+    /**
+     * Construct a monotonic KSUID generator.
+     *
+     * @param payloadSupplier supplier of byte arrays which must be {@link Ksuid#PAYLOAD_BYTES PAYLOAD_BYTES} in length
+     * @param clock           clock from which the timestamp component is taken
+     */
+    public MonotonicKsuidGenerator(final Supplier<byte[]> payloadSupplier, final Clock clock) {
+        super(payloadSupplier);
+        this.clock = clock;
+    }
+
+    /**
+     * Generate a new KSUID with a timestamp component derived from the generator's clock.
+     *
+     * @return a Ksuid object greater than any previously generated by this generator
+     * @throws IllegalStateException if the last generated KSUID is {@link Ksuid#MAX}
+     */
+    @Override
+    public Ksuid newKsuid() {
+        return newKsuid(clock.instant());
+    }
+
+    /**
+     * Generate a new KSUID with a timestamp component derived from an Instant.
+     * <p>
+     * If the Instant is in an earlier second than the last generated KSUID,
+     * the timestamp of the last generated KSUID is used instead.
+     *
+     * @param instant an Instant from which to derive the timestamp component
+     * @return a Ksuid object greater than any previously generated by this generator
+     * @throws IllegalStateException if the last generated KSUID is {@link Ksuid#MAX}
+     */
+    @Override
+    public Ksuid newKsuid(final Instant instant) {
+        final Object event = KsuidEvents.beginGenerate();
+        final int timestamp = toTimestamp(instant);
+        byte[] payload = null;
+        while (true) {
+            final State current = last.get();
+            final State next;
+            if (current == null || Integer.compareUnsigned(timestamp, current.timestamp) > 0) {
+                if (payload == null) {
+                    payload = nextPayload(event);
+                }
+                next = new State(timestamp, payload);
+            } else {
+                next = current.increment();
+            }
+            if (last.compareAndSet(current, next)) {
+                KsuidEvents.commitGenerate(event, getClass(), next.timestamp);
+                return next.toKsuid();
+            }
+        }
+    }
+
+    /**
+     * The last issued KSUID as a 32-bit timestamp and a 128-bit payload.
+     */
+    private static final class State {
+        private final int timestamp;
+        private final long payloadHigh;
+        private final long payloadLow;
+
+        private State(final int timestamp, final long payloadHigh, final long payloadLow) {
+            this.timestamp = timestamp;
+            this.payloadHigh = payloadHigh;
+            this.payloadLow = payloadLow;
+        }
+
+        private State(final int timestamp, final byte[] payload) {
+            this(timestamp, Bytes.getLong(payload, 0), Bytes.getLong(payload, Long.BYTES));
+        }
+
+        private State increment() {
+            final long low = payloadLow + 1;
+            if (low != 0) {
+                return new State(timestamp, payloadHigh, low);
+            }
+            final long high = payloadHigh + 1;
+            if (high != 0) {
+                return new State(timestamp, high, low);
+            }
+            if (timestamp == -1) {
+                throw new IllegalStateException("no KSUID is greater than " + Ksuid.MAX);
+            }
+            // the payload wrapped around, carry into the timestamp
+            return new State(timestamp + 1, high, low);
+        }
+
+        private Ksuid toKsuid() {
+            final byte[] payload = new byte[PAYLOAD_BYTES];
+            Bytes.putLong(payload, 0, payloadHigh);
+            Bytes.putLong(payload, Long.BYTES, payloadLow);
+            return Ksuid.newBuilder()
+                        .withTimestamp(timestamp)
+                        .withPayload(payload)
+                        .build();
+        }
+    }
+}
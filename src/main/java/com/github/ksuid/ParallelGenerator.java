@@ -0,0 +1,320 @@
+package com.github.ksuid;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Generate and print KSUIDs on several worker threads for {@code ksuid -p}.
+ * <p>
+ * Every worker has its own generator and formats its KSUIDs into its own buffer, in blocks of
+ * {@value #BLOCK_RECORDS} records. In unordered mode the blocks are written to the output as soon as they are full.
+ * In ordered mode each worker sorts its KSUIDs before formatting them, and the calling thread merges the workers'
+ * blocks into globally sorted output with a {@link LoserTree}, copying the already formatted bytes. The payloads stay
+ * as random as those of a single generator. A worker holds back the KSUIDs of the latest second it has generated,
+ * since it may still generate smaller ones in that second, and never lets its timestamps go backwards. At most
+ * {@value #QUEUED_BLOCKS} blocks per worker are waiting to be merged, so memory use grows with the number of KSUIDs
+ * a worker generates in one second but not with the count.
+ */
+final class ParallelGenerator {
+    private static final int BLOCK_RECORDS = 4096;
+    private static final int QUEUED_BLOCKS = 4;
+
+    private final int threads;
+    private final IntFunction<KsuidGenerator> generators;
+    private final Clock clock;
+    private final BiConsumer<PrintStream, Ksuid> printer;
+
+    /**
+     * Construct a parallel generator.
+     *
+     * @param threads    number of worker threads
+     * @param generators creates the generator of each worker from the worker index
+     * @param clock      clock from which the timestamp component is taken
+     * @param printer    formats one KSUID
+     */
+    ParallelGenerator(final int threads, final IntFunction<KsuidGenerator> generators, final Clock clock,
+                      final BiConsumer<PrintStream, Ksuid> printer) {
+        this.threads = threads;
+        this.generators = generators;
+        this.clock = clock;
+        this.printer = printer;
+    }
+
+    /**
+     * Print KSUIDs in the order the workers produce them.
+     *
+     * @param count number of KSUIDs
+     * @param out   output shared by all workers
+     */
+    void generateUnordered(final long count, final OutputStream out) {
+        final Object event = KsuidEvents.beginBulk();
+        final Worker[] workers = start(count, block -> {
+            synchronized (out) {
+                out.write(block.buffer.array(), 0, block.buffer.size());
+            }
+        });
+        join(workers);
+        KsuidEvents.commitBulk(event, "generateUnordered", count);
+    }
+
+    /**
+     * Print KSUIDs in ascending order.
+     *
+     * @param count number of KSUIDs
+     * @param out   output
+     */
+    void generateOrdered(final long count, final OutputStream out) throws IOException {
+        final Object event = KsuidEvents.beginBulk();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final BlockingQueue<Block>[] queues = new BlockingQueue[threads];
+        for (int i = 0; i < threads; i++) {
+            queues[i] = new ArrayBlockingQueue<>(QUEUED_BLOCKS);
+        }
+        final Worker[] workers = start(count, null, queues);
+
+        final Cursor[] cursors = new Cursor[threads];
+        for (int i = 0; i < threads; i++) {
+            cursors[i] = new Cursor(queues[i]);
+            cursors[i].advanceBlock();
+        }
+        final LoserTree heads = new LoserTree(threads) {
+            @Override
+            int compare(final int left, final int right) {
+                return cursors[left].compareTo(cursors[right]);
+            }
+        };
+        heads.init();
+        for (Cursor cursor = cursors[heads.winner()]; !cursor.isExhausted(); cursor = cursors[heads.winner()]) {
+            cursor.writeTo(out);
+            cursor.advance();
+            heads.replay();
+        }
+        join(workers);
+        KsuidEvents.commitBulk(event, "generateOrdered", count);
+    }
+
+    private Worker[] start(final long count, final BlockSink sink) {
+        return start(count, sink, null);
+    }
+
+    private Worker[] start(final long count, final BlockSink sink, final BlockingQueue<Block>[] queues) {
+        final Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            final long share = count / threads + (i < count % threads ? 1 : 0);
+            final KsuidGenerator generator = generators.apply(i);
+            final BlockSink workerSink = queues == null ? sink : queues[i]::put;
+            workers[i] = new Worker(generator, share, workerSink, queues != null);
+            workers[i].setName("ksuid-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        return workers;
+    }
+
+    private static void join(final Worker[] workers) {
+        for (final Worker worker : workers) {
+            try {
+                worker.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("generation interrupted", e);
+            }
+        }
+        for (final Worker worker : workers) {
+            if (worker.failure instanceof IOException) {
+                throw new UncheckedIOException((IOException) worker.failure);
+            }
+            if (worker.failure != null) {
+                throw new IllegalStateException("generation failed", worker.failure);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockSink {
+        void accept(Block block) throws IOException, InterruptedException;
+    }
+
+    private final class Worker extends Thread {
+        private final KsuidGenerator generator;
+        private final long count;
+        private final BlockSink sink;
+        private final boolean ordered;
+        private Throwable failure;
+
+        private Worker(final KsuidGenerator generator, final long count, final BlockSink sink, final boolean ordered) {
+            this.generator = generator;
+            this.count = count;
+            this.sink = sink;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (ordered) {
+                    generateSorted();
+                } else {
+                    generate();
+                }
+            } catch (final Throwable e) {
+                failure = e;
+            } finally {
+                try {
+                    // an empty block marks the end of this worker's KSUIDs
+                    sink.accept(new Block(0));
+                } catch (final IOException | InterruptedException ignore) {
+                    // the merging thread will not wait for a block that cannot be queued
+                }
+            }
+        }
+
+        private void generate() throws IOException, InterruptedException {
+            long remaining = count;
+            while (remaining > 0) {
+                final int records = (int) Math.min(BLOCK_RECORDS, remaining);
+                final Block block = new Block(records);
+                for (int i = 0; i < records; i++) {
+                    final Ksuid ksuid = generator.newKsuid(Instant.now(clock));
+                    printer.accept(block.printStream, ksuid);
+                    block.add(ksuid);
+                }
+                sink.accept(block);
+                remaining -= records;
+            }
+        }
+
+        private void generateSorted() throws IOException, InterruptedException {
+            final List<Ksuid> pending = new ArrayList<>();
+            long latestSecond = Long.MIN_VALUE;
+            long remaining = count;
+            while (remaining > 0) {
+                final int records = (int) Math.min(BLOCK_RECORDS, remaining);
+                for (int i = 0; i < records; i++) {
+                    Instant now = Instant.now(clock);
+                    if (now.getEpochSecond() < latestSecond) {
+                        now = Instant.ofEpochSecond(latestSecond);
+                    }
+                    latestSecond = now.getEpochSecond();
+                    pending.add(generator.newKsuid(now));
+                }
+                remaining -= records;
+                pending.sort(null);
+
+                // KSUIDs of the latest second are kept until no smaller ones can follow
+                int complete = pending.size();
+                if (remaining > 0) {
+                    final int latest = pending.get(complete - 1).getTimestamp();
+                    while (complete > 0 && pending.get(complete - 1).getTimestamp() == latest) {
+                        complete--;
+                    }
+                }
+                final List<Ksuid> done = pending.subList(0, complete);
+                for (int start = 0; start < done.size(); start += BLOCK_RECORDS) {
+                    final List<Ksuid> ksuids = done.subList(start, Math.min(start + BLOCK_RECORDS, done.size()));
+                    final Block block = new Block(ksuids.size());
+                    for (final Ksuid ksuid : ksuids) {
+                        printer.accept(block.printStream, ksuid);
+                        block.add(ksuid);
+                    }
+                    sink.accept(block);
+                }
+                done.clear();
+            }
+        }
+    }
+
+    /**
+     * Formatted KSUIDs of one worker, with the end offset of each record in the buffer.
+     */
+    private static final class Block {
+        private final Ksuid[] ksuids;
+        private final int[] ends;
+        private final Buffer buffer = new Buffer();
+        private final PrintStream printStream = new PrintStream(buffer);
+        private int size;
+
+        private Block(final int capacity) {
+            ksuids = new Ksuid[capacity];
+            ends = new int[capacity];
+        }
+
+        private void add(final Ksuid ksuid) {
+            printStream.flush();
+            ksuids[size] = ksuid;
+            ends[size] = buffer.size();
+            size++;
+        }
+    }
+
+    /**
+     * Position of the merge in one worker's blocks.
+     */
+    private static final class Cursor {
+        private final BlockingQueue<Block> queue;
+        private Block block;
+        private int index;
+
+        private Cursor(final BlockingQueue<Block> queue) {
+            this.queue = queue;
+        }
+
+        private void advanceBlock() {
+            try {
+                block = queue.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("generation interrupted", e);
+            }
+            index = 0;
+        }
+
+        private void advance() {
+            index++;
+            if (index == block.size) {
+                advanceBlock();
+            }
+        }
+
+        private boolean isExhausted() {
+            return block.size == 0;
+        }
+
+        private void writeTo(final OutputStream out) throws IOException {
+            final int start = index == 0 ? 0 : block.ends[index - 1];
+            out.write(block.buffer.array(), start, block.ends[index] - start);
+        }
+
+        private int compareTo(final Cursor other) {
+            // an empty block marks the end, which sorts after all KSUIDs
+            if (isExhausted() || other.isExhausted()) {
+                return Boolean.compare(isExhausted(), other.isExhausted());
+            }
+            return block.ksuids[index].compareTo(other.block.ksuids[other.index]);
+        }
+    }
+
+    /**
+     * Byte array output stream exposing its array, so blocks can be written without copying.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        private Buffer() {
+            super(BLOCK_RECORDS * 32);
+        }
+
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.ksuid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static com.github.ksuid.Base62.KSUID_ENCODED_LENGTH;
+import static com.github.ksuid.Ksuid.TOTAL_BYTES;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Utility class to stream the KSUIDs in a file as 20-byte records without creating Ksuid objects.
+ * <p>
+ * Three layouts are read: files written by {@link KsuidFileWriter}, recognised by their header,
+ * raw 20-byte records back to back, and text with one KSUID string per line.
+ */
+final class RecordFiles {
+    private static final int BUFFER_BYTES = TOTAL_BYTES * 52_428;
+
+    private RecordFiles() {
+        throw new AssertionError("static utility class");
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(byte[] bytes, int offset);
+    }
+
+    /**
+     * Estimate the number of KSUIDs in a file from its size.
+     *
+     * @param path the file
+     * @param raw  whether the file contains raw records if it has no KSUID file header
+     * @return estimated number of KSUIDs
+     * @throws IOException if the file cannot be read
+     */
+    static long estimateCount(final Path path, final boolean raw) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (hasHeader(channel)) {
+                return (channel.size() - KsuidFileWriter.HEADER_BYTES) / TOTAL_BYTES;
+            }
+            return channel.size() / (raw ? TOTAL_BYTES : KSUID_ENCODED_LENGTH + 1);
+        }
+    }
+
+    /**
+     * Pass every KSUID in a file to a consumer. The record array is reused between calls.
+     *
+     * @param path     the file
+     * @param raw      whether the file contains raw records if it has no KSUID file header
+     * @param consumer receives each record
+     * @return number of KSUIDs
+     * @throws IOException if the file cannot be read or contains an invalid KSUID
+     */
+    static long forEach(final Path path, final boolean raw, final RecordConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (hasHeader(channel)) {
+                channel.position(KsuidFileWriter.HEADER_BYTES);
+                return forEachRecord(channel, consumer);
+            }
+            channel.position(0);
+            return raw ? forEachRecord(channel, consumer) : forEachLine(channel, consumer);
+        }
+    }
+
+    static boolean hasHeader(final FileChannel channel) throws IOException {
+        if (channel.size() < KsuidFileWriter.HEADER_BYTES) {
+            return false;
+        }
+        final ByteBuffer magic = ByteBuffer.allocate(KsuidFileWriter.MAGIC.length);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) >= 0) {
+            // keep reading
+        }
+        return Arrays.equals(magic.array(), KsuidFileWriter.MAGIC);
+    }
+
+    private static long forEachRecord(final FileChannel channel, final RecordConsumer consumer) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        final byte[] bytes = buffer.array();
+        long count = 0;
+        while (channel.read(buffer) >= 0) {
+            final int records = buffer.position() / TOTAL_BYTES;
+            for (int i = 0; i < records; i++) {
+                consumer.accept(bytes, i * TOTAL_BYTES);
+            }
+            count += records;
+            buffer.limit(buffer.position()).position(records * TOTAL_BYTES);
+            buffer.compact();
+        }
+        if (buffer.position() > 0) {
+            throw new IOException("file ends with a partial record of " + buffer.position() + " bytes");
+        }
+        return count;
+    }
+
+    private static long forEachLine(final FileChannel channel, final RecordConsumer consumer) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        final byte[] text = buffer.array();
+        final byte[] record = new byte[TOTAL_BYTES];
+        long count = 0;
+        long line = 0;
+        boolean end = false;
+        while (!end) {
+            end = channel.read(buffer) < 0;
+            int start = 0;
+            for (int i = 0; i < buffer.position(); i++) {
+                if (text[i] == '\n' || end && i == buffer.position() - 1) {
+                    line++;
+                    int lineEnd = text[i] == '\n' ? i : i + 1;
+                    if (lineEnd > start && text[lineEnd - 1] == '\r') {
+                        lineEnd--;
+                    }
+                    if (lineEnd > start) {
+                        decodeLine(text, start, lineEnd - start, record, line);
+                        consumer.accept(record, 0);
+                        count++;
+                    }
+                    start = i + 1;
+                }
+            }
+            if (!end && start == 0 && !buffer.hasRemaining()) {
+                throw new IOException("line " + (line + 1) + " is too long");
+            }
+            buffer.limit(buffer.position()).position(start);
+            buffer.compact();
+        }
+        return count;
+    }
+
+    private static void decodeLine(final byte[] text, final int offset, final int length, final byte[] record,
+                                   final long line) throws IOException {
+        if (length != KSUID_ENCODED_LENGTH) {
+            throw new IOException("line " + line + " is not a KSUID of " + KSUID_ENCODED_LENGTH + " characters");
+        }
+        try {
+            Base62.decodeKsuid(text, offset, record, 0);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("line " + line + " is not a valid KSUID: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.ksuid;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static com.github.ksuid.Ksuid.PAYLOAD_BYTES;
+
+/**
+ * Generate K-Sortable Globally Unique IDs (KSUID) that carry a node or shard identifier.
+ * <p>
+ * The lowest {@code shardBits} bits of the payload hold the shard, the remaining payload bits are random.
+ * Because the shard sits in the least significant bits of the 160-bit KSUID value, it can be read back
+ * with a single bit operation from the raw bytes, and from the string representation by accumulating the
+ * Base62 digits modulo 2<sup>32</sup>, without decoding the whole KSUID.
+ * <p>
+ * KSUIDs generated by nodes with different shards can never collide with each other.
+ * <p>
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public class ShardedKsuidGenerator extends KsuidGenerator {
+    /**
+     * The maximum number of payload bits that can be reserved for the shard.
+     */
+    public static final int MAX_SHARD_BITS = 31;
+
+    private static final int ENCODED_LENGTH = 27;
+
+    private final int shardBits;
+    private final int shard;
+
+    /**
+     * Construct a sharded KSUID generator.
+     *
+     * @param random    source of random bytes for payload, SecureRandom is recommended
+     * @param shardBits number of payload bits reserved for the shard, between 1 and {@link #MAX_SHARD_BITS}
+     * @param shard     the shard of this generator, between 0 and 2<sup>shardBits</sup> - 1
+     */
+    public ShardedKsuidGenerator(final Random random, final int shardBits, final int shard) {
+        super(random);
+        this.shardBits = checkShardBits(shardBits);
+        this.shard = checkShard(shardBits, shard);
+    }
+
+    /**
+     * Construct a sharded KSUID generator.
+     *
+     * @param payloadSupplier supplier of byte arrays which must be {@link Ksuid#PAYLOAD_BYTES PAYLOAD_BYTES} in length
+     * @param shardBits       number of payload bits reserved for the shard, between 1 and {@link #MAX_SHARD_BITS}
+     * @param shard           the shard of this generator, between 0 and 2<sup>shardBits</sup> - 1
+     */
+    public ShardedKsuidGenerator(final Supplier<byte[]> payloadSupplier, final int shardBits, final int shard) {
+        super(payloadSupplier);
+        this.shardBits = checkShardBits(shardBits);
+        this.shard = checkShard(shardBits, shard);
+    }
+
+    /**
+     * Get the number of payload bits reserved for the shard.
+     *
+     * @return shard bits
+     */
+    public int getShardBits() {
+        return shardBits;
+    }
+
+    /**
+     * Get the shard stamped into every KSUID generated by this generator.
+     *
+     * @return shard
+     */
+    public int getShard() {
+        return shard;
+    }
+
+    @Override
+    byte[] nextPayload() {
+        final byte[] payload = super.nextPayload();
+        final int offset = PAYLOAD_BYTES - Integer.BYTES;
+        Bytes.putInt(payload, offset, (Bytes.getInt(payload, offset) & ~mask(shardBits)) | shard);
+        return payload;
+    }
+
+    /**
+     * Read the shard from a KSUID.
+     *
+     * @param ksuid     the KSUID
+     * @param shardBits number of payload bits reserved for the shard
+     * @return the shard
+     */
+    public static int shardOf(final Ksuid ksuid, final int shardBits) {
+        return shardOf(ksuid.rawBytes(), 0, shardBits);
+    }
+
+    /**
+     * Read the shard from a 20-byte KSUID record, in the form returned by {@link Ksuid#asBytes()}.
+     *
+     * @param bytes     array containing the record
+     * @param offset    offset of the record in the array
+     * @param shardBits number of payload bits reserved for the shard
+     * @return the shard
+     */
+    public static int shardOf(final byte[] bytes, final int offset, final int shardBits) {
+        return Bytes.getInt(bytes, offset + Ksuid.TOTAL_BYTES - Integer.BYTES) & mask(checkShardBits(shardBits));
+    }
+
+    /**
+     * Read the shard from a KSUID string, in the form returned by {@link Ksuid#toString()}.
+     * <p>
+     * Only the low 32 bits of the KSUID value are computed, so a string that is too large
+     * to be a valid KSUID is not detected.
+     *
+     * @param ksuidString the 27-character KSUID string
+     * @param shardBits   number of payload bits reserved for the shard
+     * @return the shard
+     * @throws IllegalArgumentException if the string is not 27 Base62 characters
+     */
+    public static int shardOf(final CharSequence ksuidString, final int shardBits) {
+        final int mask = mask(checkShardBits(shardBits));
+        if (ksuidString.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("ksuid string is not expected length of " + ENCODED_LENGTH + " characters");
+        }
+        // the low bits of a sum of products only depend on the low bits of the terms,
+        // so int overflow gives exactly the value modulo 2^32
+        int low = 0;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            low = low * 62 + Base62.indexOf(ksuidString.charAt(i));
+        }
+        return low & mask;
+    }
+
+    private static int mask(final int shardBits) {
+        return (1 << shardBits) - 1;
+    }
+
+    private static int checkShardBits(final int shardBits) {
+        if (shardBits < 1 || shardBits > MAX_SHARD_BITS) {
+            throw new IllegalArgumentException("shardBits must be between 1 and " + MAX_SHARD_BITS);
+        }
+        return shardBits;
+    }
+
+    private static int checkShard(final int shardBits, final int shard) {
+        if (shard < 0 || shard > mask(shardBits)) {
+            throw new IllegalArgumentException("shard must be between 0 and " + mask(shardBits));
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.ksuid;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Utility class to open server and client channels for addresses given as {@code host:port}.
+ * <p>
+ * This is the Java 8 implementation. The Java 17 implementation also accepts {@code unix:/path}
+ * for Unix domain sockets.
+ */
+final class SocketAddresses {
+    static final String UNIX_PREFIX = "unix:";
+
+    private SocketAddresses() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Open a server channel listening on an address.
+     *
+     * @param address {@code host:port}, port 0 picks a free port and an empty host the loopback address
+     * @return the bound channel
+     * @throws IOException if the address cannot be bound
+     */
+    static ServerSocketChannel openServer(final String address) throws IOException {
+        final SocketAddress socketAddress = parse(address);
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(socketAddress);
+            return channel;
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a blocking client channel connected to an address.
+     *
+     * @param address {@code host:port}
+     * @return the connected channel
+     * @throws IOException if the connection fails
+     */
+    static SocketChannel connect(final String address) throws IOException {
+        final SocketChannel channel = SocketChannel.open(parse(address));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return channel;
+    }
+
+    /**
+     * Render the local address of a server channel in the form accepted by {@link #connect(String)}.
+     *
+     * @param channel a bound server channel
+     * @return the address
+     * @throws IOException if the channel is closed
+     */
+    static String toString(final ServerSocketChannel channel) throws IOException {
+        final InetSocketAddress local = (InetSocketAddress) channel.getLocalAddress();
+        final String host = local.getAddress().getHostAddress();
+        return (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + local.getPort();
+    }
+
+    /**
+     * Release what a server channel leaves behind after it is closed. Nothing for TCP.
+     *
+     * @param address the address the channel was bound to
+     */
+    static void cleanUp(final String address) {
+        // nothing to do
+    }
+
+    private static SocketAddress parse(final String address) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            throw new IllegalArgumentException("Unix domain sockets need Java 17 or later: " + address);
+        }
+        return InetSocketAddresses.parse(address);
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.ksuid;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Generate K-Sortable Globally Unique IDs (KSUID) that are ordered within a second.
+ * <p>
+ * The leading payload bytes hold the fraction of the second, taken from the generator's clock, as a
+ * fixed-point binary fraction: two bytes for {@link ChronoUnit#MILLIS MILLIS} precision and three bytes
+ * for {@link ChronoUnit#MICROS MICROS} precision. The remaining payload bytes are random.
+ * KSUIDs generated close together in time therefore sort close together, which keeps inserts into
+ * ordered indexes local.
+ * <p>
+ * The KSUIDs are regular 20-byte KSUIDs and sort correctly against KSUIDs from any other generator.
+ * The finer-grained instant can be recovered with {@link Ksuid#getInstant(ChronoUnit)}.
+ * <p>
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public class SubsecondKsuidGenerator extends KsuidGenerator {
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
+
+    private final Clock clock;
+    private final ChronoUnit precision;
+
+    /**
+     * Construct a sub-second KSUID generator.
+     *
+     * @param random    source of random bytes for payload, SecureRandom is recommended
+     * @param clock     clock from which the timestamp component and second fraction are taken
+     * @param precision either {@link ChronoUnit#MILLIS MILLIS} or {@link ChronoUnit#MICROS MICROS}
+     */
+    public SubsecondKsuidGenerator(final Random random, final Clock clock, final ChronoUnit precision) {
+        super(random);
+        this.clock = clock;
+        this.precision = checkPrecision(precision);
+    }
+
+    /**
+     * Construct a sub-second KSUID generator.
+     *
+     * @param payloadSupplier supplier of byte arrays which must be {@link Ksuid#PAYLOAD_BYTES PAYLOAD_BYTES} in length
+     * @param clock           clock from which the timestamp component and second fraction are taken
+     * @param precision       either {@link ChronoUnit#MILLIS MILLIS} or {@link ChronoUnit#MICROS MICROS}
+     */
+    public SubsecondKsuidGenerator(final Supplier<byte[]> payloadSupplier, final Clock clock, final ChronoUnit precision) {
+        super(payloadSupplier);
+        this.clock = clock;
+        this.precision = checkPrecision(precision);
+    }
+
+    /**
+     * Get the precision of the second fraction.
+     *
+     * @return {@link ChronoUnit#MILLIS MILLIS} or {@link ChronoUnit#MICROS MICROS}
+     */
+    public ChronoUnit getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Generate a new KSUID with timestamp component and second fraction derived from the generator's clock.
+     *
+     * @return a Ksuid object
+     */
+    @Override
+    public Ksuid newKsuid() {
+        return newKsuid(clock.instant());
+    }
+
+    /**
+     * Generate a new KSUID with timestamp component and second fraction derived from an Instant.
+     *
+     * @param instant an Instant from which to derive the timestamp component and second fraction
+     * @return a Ksuid object
+     */
+    @Override
+    public Ksuid newKsuid(final Instant instant) {
+        final Object event = KsuidEvents.beginGenerate();
+        final byte[] payload = nextPayload(event);
+        final int fractionBytes = fractionBytes(precision);
+        final long unitsPerSecond = unitsPerSecond(precision);
+        final long units = instant.getNano() / (NANOS_PER_SECOND / unitsPerSecond);
+        // round up so that decoding with round down gives back the same number of units
+        final long fraction = ((units << (fractionBytes * 8)) + unitsPerSecond - 1) / unitsPerSecond;
+        for (int i = 0; i < fractionBytes; i++) {
+            payload[i] = (byte) (fraction >>> ((fractionBytes - 1 - i) * 8));
+        }
+        final int timestamp = toTimestamp(instant);
+        final Ksuid ksuid = Ksuid.newBuilder()
+                                 .withTimestamp(timestamp)
+                                 .withPayload(payload)
+                                 .build();
+        KsuidEvents.commitGenerate(event, getClass(), timestamp);
+        return ksuid;
+    }
+
+    /**
+     * Read the second fraction from the leading bytes of a payload.
+     *
+     * @param payload   the payload
+     * @param precision {@link ChronoUnit#MILLIS MILLIS} or {@link ChronoUnit#MICROS MICROS}
+     * @return nanoseconds into the second, truncated to the precision
+     */
+    static long nanosOf(final byte[] payload, final ChronoUnit precision) {
+        final int fractionBytes = fractionBytes(checkPrecision(precision));
+        final long unitsPerSecond = unitsPerSecond(precision);
+        long fraction = 0;
+        for (int i = 0; i < fractionBytes; i++) {
+            fraction = (fraction << 8) | (payload[i] & 0xFF);
+        }
+        final long units = (fraction * unitsPerSecond) >>> (fractionBytes * 8);
+        return units * (NANOS_PER_SECOND / unitsPerSecond);
+    }
+
+    private static ChronoUnit checkPrecision(final ChronoUnit precision) {
+        if (precision != ChronoUnit.MILLIS && precision != ChronoUnit.MICROS) {
+            throw new IllegalArgumentException("precision must be MILLIS or MICROS");
+        }
+        return precision;
+    }
+
+    private static int fractionBytes(final ChronoUnit precision) {
+        return precision == ChronoUnit.MILLIS ? 2 : 3;
+    }
+
+    private static long unitsPerSecond(final ChronoUnit precision) {
+        return precision == ChronoUnit.MILLIS ? 1_000 : 1_000_000;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.ksuid;
+
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class to render KSUID times as <code>2017-10-09 21:00:47 -0700 PDT</code>.
+ * <p>
+ * The output is the same as {@code String.format("%1$tF %1$tT %1$tz %1$tZ", zonedDateTime)} in the default
+ * format locale, but uses a precompiled {@link DateTimeFormatter} and remembers the last rendered second per
+ * zone, so consecutive KSUIDs from the same second share one string. Locales that format numbers with digits
+ * other than ASCII fall back to {@link String#format(String, Object...)}.
+ */
+final class TimeFormatter {
+    private static final DateTimeFormatter DATE_TIME_OFFSET = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss xx ", Locale.ROOT);
+    private static final Map<ZoneId, ZoneCache> CACHE = new ConcurrentHashMap<>();
+
+    // digits of the last locale asked for, which is nearly always the default format locale
+    private static volatile LocaleDigits digits;
+
+    private TimeFormatter() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Render a second in a timezone.
+     *
+     * @param epochSecond seconds since the epoch of 1970-01-01T00:00:00Z
+     * @param zoneId      the timezone
+     * @return the rendered time
+     */
+    static String format(final long epochSecond, final ZoneId zoneId) {
+        final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        ZoneCache cache = CACHE.get(zoneId);
+        if (cache == null || !cache.locale.equals(locale)) {
+            cache = new ZoneCache(zoneId, locale);
+            CACHE.put(zoneId, cache);
+        }
+
+        final Rendered last = cache.last;
+        if (last != null && last.epochSecond == epochSecond) {
+            return last.text;
+        }
+
+        final ZonedDateTime dateTime = Instant.ofEpochSecond(epochSecond).atZone(zoneId);
+        if (!cache.asciiDigits) {
+            return String.format("%1$tF %1$tT %1$tz %1$tZ", dateTime);
+        }
+        final StringBuilder builder = new StringBuilder(32);
+        DATE_TIME_OFFSET.formatTo(dateTime, builder);
+        builder.append(cache.zoneName(dateTime));
+        final String text = builder.toString();
+        cache.last = new Rendered(epochSecond, text);
+        return text;
+    }
+
+    /**
+     * Check whether the default format locale writes numbers with ASCII digits, as {@link Integer#toString(int)} does.
+     *
+     * @return true if the locale uses ASCII digits
+     */
+    static boolean usesAsciiDigits() {
+        return usesAsciiDigits(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    private static boolean usesAsciiDigits(final Locale locale) {
+        LocaleDigits cached = digits;
+        if (cached == null || !cached.locale.equals(locale)) {
+            cached = new LocaleDigits(locale, DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0');
+            digits = cached;
+        }
+        return cached.ascii;
+    }
+
+    /**
+     * Zone names and the last rendered second of one timezone in one locale.
+     */
+    private static final class ZoneCache {
+        private final ZoneId zoneId;
+        private final Locale locale;
+        private final boolean asciiDigits;
+        private final String standardName;
+        private final String daylightName;
+        private volatile Rendered last;
+
+        private ZoneCache(final ZoneId zoneId, final Locale locale) {
+            this.zoneId = zoneId;
+            this.locale = locale;
+            this.asciiDigits = usesAsciiDigits(locale);
+            if (zoneId instanceof ZoneOffset) {
+                standardName = zoneId.getId();
+                daylightName = zoneId.getId();
+            } else {
+                // the names java.util.Formatter uses for %tZ
+                final TimeZone timeZone = TimeZone.getTimeZone(zoneId.getId());
+                standardName = timeZone.getDisplayName(false, TimeZone.SHORT, locale);
+                daylightName = timeZone.getDisplayName(true, TimeZone.SHORT, locale);
+            }
+        }
+
+        private String zoneName(final ZonedDateTime dateTime) {
+            return zoneId.getRules().isDaylightSavings(dateTime.toInstant()) ? daylightName : standardName;
+        }
+    }
+
+    private static final class LocaleDigits {
+        private final Locale locale;
+        private final boolean ascii;
+
+        private LocaleDigits(final Locale locale, final boolean ascii) {
+            this.locale = locale;
+            this.ascii = ascii;
+        }
+    }
+
+    private static final class Rendered {
+        private final long epochSecond;
+        private final String text;
+
+        private Rendered(final long epochSecond, final String text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.ksuid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Utility class to read and write big-endian integers in byte arrays and to compare byte ranges.
+ * <p>
+ * This is the Java 17 implementation. It reads and writes whole ints and longs through
+ * {@code VarHandle} byte array views, which the JIT compiles into single loads and stores.
+ * <p>
+ * Bounds are not checked beyond the checks of the array view accesses themselves.
+ */
+final class Bytes {
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private Bytes() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Read a big-endian int.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @return the int
+     */
+    static int getInt(final byte[] bytes, final int offset) {
+        return (int) INT.get(bytes, offset);
+    }
+
+    /**
+     * Read a big-endian long.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @return the long
+     */
+    static long getLong(final byte[] bytes, final int offset) {
+        return (long) LONG.get(bytes, offset);
+    }
+
+    /**
+     * Write a big-endian int.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @param value  the int
+     */
+    static void putInt(final byte[] bytes, final int offset, final int value) {
+        INT.set(bytes, offset, value);
+    }
+
+    /**
+     * Write a big-endian long.
+     *
+     * @param bytes  the array
+     * @param offset offset of the first byte
+     * @param value  the long
+     */
+    static void putLong(final byte[] bytes, final int offset, final long value) {
+        LONG.set(bytes, offset, value);
+    }
+
+    /**
+     * Compare two ranges of byte arrays in unsigned lexicographic order, a shorter range first if it is a prefix
+     * of the longer one.
+     *
+     * @param left      the first array
+     * @param leftFrom  first index of the first range, inclusive
+     * @param leftTo    last index of the first range, exclusive
+     * @param right     the second array
+     * @param rightFrom first index of the second range, inclusive
+     * @param rightTo   last index of the second range, exclusive
+     * @return a negative integer, zero, or a positive integer as the first range is less than,
+     *         equal to, or greater than the second range
+     */
+    static int compareUnsigned(final byte[] left, final int leftFrom, final int leftTo,
+                               final byte[] right, final int rightFrom, final int rightTo) {
+        return Arrays.compareUnsigned(left, leftFrom, leftTo, right, rightFrom, rightTo);
+    }
+
+    /**
+     * Compare the remaining bytes of two buffers in unsigned lexicographic order, without changing their positions.
+     *
+     * @param left  the first buffer
+     * @param right the second buffer
+     * @return a negative integer, zero, or a positive integer as the first buffer is less than,
+     *         equal to, or greater than the second buffer
+     */
+    static int compareUnsigned(final ByteBuffer left, final ByteBuffer right) {
+        final int mismatch = left.mismatch(right);
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == left.remaining() || mismatch == right.remaining()) {
+            return left.remaining() - right.remaining();
+        }
+        return Byte.toUnsignedInt(left.get(left.position() + mismatch))
+                - Byte.toUnsignedInt(right.get(right.position() + mismatch));
+    }
+
+}
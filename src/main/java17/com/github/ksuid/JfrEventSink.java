@@ -0,0 +1,145 @@
+package com.github.ksuid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Timestamp;
+
+import static com.github.ksuid.Ksuid.EPOCH;
+
+/**
+ * JDK Flight Recorder implementation of the {@link KsuidEvents} sink, loaded reflectively.
+ * <p>
+ * Each event class has one shared instance that is only asked whether the event is enabled,
+ * so nothing is allocated while the events are disabled. Loading the event classes registers them
+ * and starts up the Flight Recorder, so they are only loaded once a recorder has been initialized,
+ * from the command line, with jcmd or in code; short-lived processes like the CLI never pay for it.
+ */
+final class JfrEventSink implements KsuidEvents.Sink {
+    private static final int MAX_INPUT_LENGTH = 64;
+
+    @Override
+    public Object beginGenerate() {
+        if (!FlightRecorder.isInitialized() || !Probes.GENERATE.isEnabled()) {
+            return null;
+        }
+        final GenerateEvent event = new GenerateEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void entropyWait(final Object event, final long nanos) {
+        ((GenerateEvent) event).entropyWait += nanos;
+    }
+
+    @Override
+    public void commitGenerate(final Object event, final Class<?> generator, final int timestamp) {
+        final GenerateEvent generate = (GenerateEvent) event;
+        generate.end();
+        if (generate.shouldCommit()) {
+            generate.generator = generator.getName();
+            generate.clockSecond = (Integer.toUnsignedLong(timestamp) + EPOCH) * 1000;
+            generate.commit();
+        }
+    }
+
+    @Override
+    public void parseFailure(final String input, final String message) {
+        if (!FlightRecorder.isInitialized() || !Probes.PARSE_FAILURE.isEnabled()) {
+            return;
+        }
+        final ParseFailureEvent event = new ParseFailureEvent();
+        if (event.shouldCommit()) {
+            event.input = input == null || input.length() <= MAX_INPUT_LENGTH ? input : input.substring(0, MAX_INPUT_LENGTH);
+            event.inputLength = input == null ? 0 : input.length();
+            event.message = message;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginBulk() {
+        if (!FlightRecorder.isInitialized() || !Probes.BULK.isEnabled()) {
+            return null;
+        }
+        final BulkEvent event = new BulkEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commitBulk(final Object event, final String operation, final long count) {
+        final BulkEvent bulk = (BulkEvent) event;
+        bulk.end();
+        if (bulk.shouldCommit()) {
+            bulk.operation = operation;
+            bulk.count = count;
+            bulk.commit();
+        }
+    }
+
+    private static final class Probes {
+        private static final GenerateEvent GENERATE = new GenerateEvent();
+        private static final ParseFailureEvent PARSE_FAILURE = new ParseFailureEvent();
+        private static final BulkEvent BULK = new BulkEvent();
+    }
+
+    @Name("com.github.ksuid.Generate")
+    @Label("KSUID Generation")
+    @Description("A KSUID was generated")
+    @Category("KSUID")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class GenerateEvent extends Event {
+        @Label("Generator")
+        String generator;
+
+        @Label("Entropy Wait")
+        @Description("Time spent getting the random payload")
+        @Timespan(Timespan.NANOSECONDS)
+        long entropyWait;
+
+        @Label("Clock Second")
+        @Description("Second of the KSUID timestamp")
+        @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+        long clockSecond;
+    }
+
+    @Name("com.github.ksuid.ParseFailure")
+    @Label("KSUID Parse Failure")
+    @Description("A string could not be parsed as a KSUID")
+    @Category("KSUID")
+    @Enabled(false)
+    static final class ParseFailureEvent extends Event {
+        @Label("Input")
+        @Description("The rejected string, cut after " + MAX_INPUT_LENGTH + " characters")
+        String input;
+
+        @Label("Input Length")
+        int inputLength;
+
+        @Label("Message")
+        String message;
+    }
+
+    @Name("com.github.ksuid.Bulk")
+    @Label("KSUID Bulk Operation")
+    @Description("A batch of KSUIDs was encoded, decoded, generated or checked")
+    @Category("KSUID")
+    @Enabled(false)
+    static final class BulkEvent extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Count")
+        @Description("Number of KSUIDs")
+        long count;
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.ksuid;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Publisher} of new KSUIDs, for stamping the elements of a reactive pipeline with IDs that are
+ * generated in batches instead of one at a time.
+ * <p>
+ * Every subscriber gets its own subscription with its own demand and its own KSUIDs. When a subscriber requests
+ * {@code n} KSUIDs, exactly {@code n} are generated with {@link KsuidGenerator#newKsuids(Instant, int)}, in batches
+ * of up to {@value #MAX_BATCH}, and delivered to {@code onNext}. A generator constructed with a {@code Random} draws
+ * the payloads of a batch at once. The timestamp of a batch is the time it is generated, which may be a little
+ * earlier than the time its KSUIDs are delivered. The publisher never completes; subscribers cancel when they are
+ * done, or are sent {@code onError} if generation fails or they request a non-positive number.
+ * <p>
+ * KSUIDs are delivered on the thread that calls {@code request}, and by the thread already delivering if another
+ * one requests at the same time. Subscriptions coordinate with atomic counters instead of locks, so they can be used
+ * from virtual threads without pinning them, apart from a lock inside the generator's {@code SecureRandom} that is
+ * taken once per batch.
+ * <p>
+ * This class is part of the Java 17 classes of the multi-release jar and is not available on earlier runtimes.
+ * Instances are threadsafe.
+ * Unless otherwise noted, passing a {@code null} argument to a method of this class
+ * will cause a {@link java.lang.NullPointerException NullPointerException} to be thrown.
+ */
+public final class KsuidPublisher implements Flow.Publisher<Ksuid> {
+    private static final int MAX_BATCH = 1024;
+
+    private final KsuidGenerator generator;
+    private final Clock clock;
+
+    /**
+     * Construct a publisher of KSUIDs with the current time.
+     *
+     * @param generator generator of the KSUIDs
+     */
+    public KsuidPublisher(final KsuidGenerator generator) {
+        this(generator, Clock.systemUTC());
+    }
+
+    /**
+     * Construct a publisher of KSUIDs with a timestamp component from a clock.
+     *
+     * @param generator generator of the KSUIDs
+     * @param clock     clock from which the timestamp component is taken
+     */
+    public KsuidPublisher(final KsuidGenerator generator, final Clock clock) {
+        this.generator = Objects.requireNonNull(generator, "generator");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Subscribe to new KSUIDs.
+     *
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Ksuid> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new Subscription(subscriber));
+    }
+
+    /**
+     * Demand of one subscriber. Whichever thread moves the work counter from zero delivers, and loops until
+     * the requests that arrived in the meantime are also served, so deliveries never overlap or recurse.
+     */
+    private final class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Ksuid> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean invalid;
+        private volatile long invalidRequest;
+
+        private Subscription(final Flow.Subscriber<? super Ksuid> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = n;
+                invalid = true;
+            } else {
+                // demand of Long.MAX_VALUE or more is unbounded
+                requested.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            deliver();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void deliver() {
+            if (work.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                while (demand > 0 && !cancelled && !invalid) {
+                    final int batch = (int) Math.min(demand, MAX_BATCH);
+                    final Ksuid[] ksuids;
+                    try {
+                        ksuids = generator.newKsuids(Instant.now(clock), batch);
+                    } catch (final RuntimeException e) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    for (final Ksuid ksuid : ksuids) {
+                        if (cancelled) {
+                            return;
+                        }
+                        subscriber.onNext(ksuid);
+                    }
+                    demand = demand == Long.MAX_VALUE ? demand : requested.addAndGet(-batch);
+                }
+                if (invalid && !cancelled) {
+                    cancelled = true;
+                    subscriber.onError(new IllegalArgumentException("request must be positive: " + invalidRequest));
+                    return;
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.ksuid;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Utility class to open server and client channels for addresses given as {@code host:port} or {@code unix:/path}.
+ * <p>
+ * This is the Java 17 implementation. It adds Unix domain sockets, which avoid the TCP stack for local clients.
+ */
+final class SocketAddresses {
+    static final String UNIX_PREFIX = "unix:";
+
+    private SocketAddresses() {
+        throw new AssertionError("static utility class");
+    }
+
+    /**
+     * Open a server channel listening on an address.
+     *
+     * @param address {@code host:port}, port 0 picks a free port and an empty host the loopback address, or {@code unix:/path}
+     * @return the bound channel
+     * @throws IOException if the address cannot be bound
+     */
+    static ServerSocketChannel openServer(final String address) throws IOException {
+        final SocketAddress socketAddress = parse(address);
+        final boolean unix = socketAddress instanceof UnixDomainSocketAddress;
+        final ServerSocketChannel channel = unix ? ServerSocketChannel.open(StandardProtocolFamily.UNIX) : ServerSocketChannel.open();
+        try {
+            if (!unix) {
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            }
+            channel.bind(socketAddress);
+            return channel;
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open a blocking client channel connected to an address.
+     *
+     * @param address {@code host:port} or {@code unix:/path}
+     * @return the connected channel
+     * @throws IOException if the connection fails
+     */
+    static SocketChannel connect(final String address) throws IOException {
+        final SocketAddress socketAddress = parse(address);
+        final SocketChannel channel = SocketChannel.open(socketAddress);
+        if (socketAddress instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        return channel;
+    }
+
+    /**
+     * Render the local address of a server channel in the form accepted by {@link #connect(String)}.
+     *
+     * @param channel a bound server channel
+     * @return the address
+     * @throws IOException if the channel is closed
+     */
+    static String toString(final ServerSocketChannel channel) throws IOException {
+        final SocketAddress local = channel.getLocalAddress();
+        if (local instanceof UnixDomainSocketAddress) {
+            return UNIX_PREFIX + ((UnixDomainSocketAddress) local).getPath();
+        }
+        final InetSocketAddress inet = (InetSocketAddress) local;
+        final String host = inet.getAddress().getHostAddress();
+        return (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + inet.getPort();
+    }
+
+    /**
+     * Release what a server channel leaves behind after it is closed: the socket file of a Unix domain socket.
+     *
+     * @param address the address the channel was bound to
+     */
+    static void cleanUp(final String address) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            try {
+                Files.deleteIfExists(Paths.get(address.substring(UNIX_PREFIX.length())));
+            } catch (final IOException e) {
+                // best effort, a later bind reports the file
+            }
+        }
+    }
+
+    private static SocketAddress parse(final String address) {
+        if (address.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(address.substring(UNIX_PREFIX.length()));
+        }
+        return InetSocketAddresses.parse(address);
+    }
+}
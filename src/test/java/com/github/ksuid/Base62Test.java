@@ -11,15 +11,21 @@ import java.lang.reflect.InvocationTargetException;
 import java.math.BigInteger;
 import java.time.Instant;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
 import java.util.Map.Entry;
 import java.util.Random;
 
 import static com.github.ksuid.Base62.BASE;
 import static com.github.ksuid.Base62.BASE_62_CHARACTERS;
+import static com.github.ksuid.Base62.KSUID_ENCODED_LENGTH;
 import static com.github.ksuid.Base62.base62Decode;
 import static com.github.ksuid.Base62.base62Encode;
+import static com.github.ksuid.Base62.decodeKsuid;
+import static com.github.ksuid.Base62.encodeKsuid;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.stream.IntStream.range;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
 
 @RunWith(Theories.class)
 public class Base62Test {
@@ -113,4 +119,118 @@ public class Base62Test {
         final byte[] ksuidBytes = ksuid.asBytes();
         assertThat(Base62.base62Encode(ksuidBytes, 27)).isEqualTo("IRIRk6W1GtAY07Hp2RJ1blLjvEo");
     }
+
+    @Test
+    public void encodeKsuidMatchesBigIntegerEncoding() {
+        final Random random = new Random(42L);
+        final byte[] bytes = new byte[20];
+        final char[] chars = new char[KSUID_ENCODED_LENGTH + 2];
+        final byte[] ascii = new byte[KSUID_ENCODED_LENGTH + 2];
+        for (int i = 0; i < 10_000; i++) {
+            random.nextBytes(bytes);
+            if (i % 3 == 0) {
+                bytes[0] = 0; // exercise leading zero digits
+            }
+            final String expected = base62Encode(bytes, KSUID_ENCODED_LENGTH);
+            encodeKsuid(bytes, 0, chars, 1);
+            encodeKsuid(bytes, 0, ascii, 2);
+            assertThat(new String(chars, 1, KSUID_ENCODED_LENGTH)).isEqualTo(expected);
+            assertThat(new String(ascii, 2, KSUID_ENCODED_LENGTH, US_ASCII)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void encodeKsuidBoundaries() {
+        final char[] chars = new char[KSUID_ENCODED_LENGTH];
+        encodeKsuid(new byte[20], 0, chars, 0);
+        assertThat(new String(chars)).isEqualTo("000000000000000000000000000");
+
+        final byte[] max = new byte[20];
+        Arrays.fill(max, (byte) 0xFF);
+        encodeKsuid(max, 0, chars, 0);
+        assertThat(new String(chars)).isEqualTo("aWgEPTl1tmebfsQzFP4bxwgy80V");
+    }
+
+    @Test
+    public void decodeKsuidRoundTrip() {
+        final Random random = new Random(7L);
+        final byte[] bytes = new byte[20];
+        final byte[] decoded = new byte[23];
+        for (int i = 0; i < 10_000; i++) {
+            random.nextBytes(bytes);
+            final String s = base62Encode(bytes, KSUID_ENCODED_LENGTH);
+            decodeKsuid(s, 0, decoded, 3);
+            assertThat(Arrays.copyOfRange(decoded, 3, 23)).isEqualTo(bytes);
+            decodeKsuid(("  " + s).getBytes(US_ASCII), 2, decoded, 0);
+            assertThat(Arrays.copyOf(decoded, 20)).isEqualTo(bytes);
+        }
+    }
+
+    @Test
+    public void decodeKsuidMaximum() {
+        final byte[] decoded = new byte[20];
+        decodeKsuid("aWgEPTl1tmebfsQzFP4bxwgy80V", 0, decoded, 0);
+        assertThat(Hex.hexEncode(decoded)).isEqualTo("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF");
+    }
+
+    @Test
+    public void decodeKsuidOverflow() {
+        assertThatCode(() -> decodeKsuid("aWgEPTl1tmebfsQzFP4bxwgy80W", 0, new byte[20], 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string exceeds the maximum value of 20 bytes");
+        assertThatCode(() -> decodeKsuid("zzzzzzzzzzzzzzzzzzzzzzzzzzz".getBytes(US_ASCII), 0, new byte[20], 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string exceeds the maximum value of 20 bytes");
+    }
+
+    @Test
+    public void decodeKsuidInvalidCharacter() {
+        assertThatCode(() -> decodeKsuid("0ujtsYcgvSTl8PAuAdqWYSMn\u00e9Ov", 0, new byte[20], 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'\u00e9' is not a valid Base62 character");
+        assertThatCode(() -> decodeKsuid("0ujtsYcgvSTl8PAuAdqWYSMn-Ov".getBytes(US_ASCII), 0, new byte[20], 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'-' is not a valid Base62 character");
+    }
+
+    @Test
+    public void checkKsuidAgreesWithDecode() {
+        final Random random = new Random(1L);
+        final char[] chars = new char[KSUID_ENCODED_LENGTH];
+        for (int i = 0; i < 100_000; i++) {
+            // leading digits around those of the largest KSUID, so about half of the strings overflow
+            chars[0] = BASE_62_CHARACTERS[36 + random.nextInt(2)];
+            chars[1] = BASE_62_CHARACTERS[30 + random.nextInt(5)];
+            for (int j = 2; j < chars.length; j++) {
+                chars[j] = random.nextInt(4) == 0 ? "aWgEPTl1tmebfsQzFP4bxwgy80V".charAt(j) : BASE_62_CHARACTERS[random.nextInt(62)];
+            }
+            final String string = new String(chars);
+            final boolean decodes = decodes(string);
+            assertThat(checks(string)).as(string).isEqualTo(decodes);
+        }
+        assertThat(checks("aWgEPTl1tmebfsQzFP4bxwgy80V")).isTrue();
+        assertThat(checks("aWgEPTl1tmebfsQzFP4bxwgy80W")).isFalse();
+        assertThat(checks("000000000000000000000000000")).isTrue();
+        assertThatCode(() -> Base62.checkKsuid("0ujtsYcgvSTl8PAuAdqWYSMn\u00e9Ov", 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'\u00e9' is not a valid Base62 character");
+    }
+
+    private static boolean decodes(final String string) {
+        try {
+            decodeKsuid(string, 0, new byte[20], 0);
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean checks(final String string) {
+        try {
+            Base62.checkKsuid(string, 0);
+            return true;
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BenchmarkTest {
+    @Test
+    public void noAllocationCounterWithoutThreadBean() {
+        assertThat(Benchmark.allocationCounter("com.sun.management.NoSuchThreadMXBean")).isNull();
+        assertThat(Benchmark.allocationCounter("java.lang.String")).isNull();
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BytesTest {
+
+    @Test(expected = InvocationTargetException.class)
+    public void utilityClass() throws Exception {
+        final Constructor<Bytes> constructor = Bytes.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void matchesByteBuffer() {
+        final Random random = new Random(99L);
+        final byte[] bytes = new byte[20];
+        for (int i = 0; i < 1_000; i++) {
+            random.nextBytes(bytes);
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            final int offset = random.nextInt(13);
+            assertThat(Bytes.getInt(bytes, offset)).isEqualTo(buffer.getInt(offset));
+            assertThat(Bytes.getLong(bytes, offset)).isEqualTo(buffer.getLong(offset));
+        }
+    }
+
+    @Test
+    public void putThenGet() {
+        final byte[] bytes = new byte[13];
+        Bytes.putLong(bytes, 1, 0x0123456789ABCDEFL);
+        Bytes.putInt(bytes, 9, 0xFEDCBA98);
+        assertThat(Hex.hexEncode(bytes)).isEqualTo("000123456789ABCDEFFEDCBA98");
+        assertThat(Bytes.getLong(bytes, 1)).isEqualTo(0x0123456789ABCDEFL);
+        assertThat(Bytes.getInt(bytes, 9)).isEqualTo(0xFEDCBA98);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FastKsuidGeneratorTest {
+    private static final Instant INSTANT = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    public void payloadFromSplitRandom() {
+        final Ksuid ksuid = new FastKsuidGenerator(42L).newKsuid(INSTANT);
+        assertThat(ksuid.getInstant()).isEqualTo(INSTANT);
+
+        // the constructing thread gets the first split of the root, which the constructor draws one payload from
+        final SplittableRandom random = new SplittableRandom(42L).split();
+        random.nextLong();
+        random.nextLong();
+        final byte[] payload = new byte[Ksuid.PAYLOAD_BYTES];
+        Bytes.putLong(payload, 0, random.nextLong());
+        Bytes.putLong(payload, Long.BYTES, random.nextLong());
+        assertThat(ksuid.getPayload()).isEqualTo(Hex.hexEncode(payload));
+    }
+
+    @Test
+    public void reproducibleOnConstructingThread() {
+        final FastKsuidGenerator first = new FastKsuidGenerator(7L);
+        final FastKsuidGenerator second = new FastKsuidGenerator(7L);
+        for (int i = 0; i < 100; i++) {
+            assertThat(first.newKsuid(INSTANT)).isEqualTo(second.newKsuid(INSTANT));
+        }
+        assertThat(new FastKsuidGenerator(8L).newKsuid(INSTANT)).isNotEqualTo(new FastKsuidGenerator(7L).newKsuid(INSTANT));
+    }
+
+    @Test
+    public void currentTime() {
+        final long before = Instant.now().getEpochSecond();
+        final Ksuid ksuid = new FastKsuidGenerator().newKsuid();
+        final long after = Instant.now().getEpochSecond();
+        assertThat(ksuid.getInstant().getEpochSecond()).isBetween(before, after);
+    }
+
+    @Test
+    public void threadsDoNotRepeat() throws InterruptedException {
+        final FastKsuidGenerator generator = new FastKsuidGenerator(1L);
+        final Set<Ksuid> ksuids = ConcurrentHashMap.newKeySet();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ksuids.add(generator.newKsuid(INSTANT));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(ksuids).hasSize(40_000);
+
+        // payload bits look uniform
+        final Set<Integer> firstBytes = new HashSet<>();
+        for (final Ksuid ksuid : ksuids) {
+            firstBytes.add(ksuid.asBytes()[Ksuid.TIMESTAMP_BYTES] & 0xFF);
+        }
+        assertThat(firstBytes).hasSize(256);
+    }
+}
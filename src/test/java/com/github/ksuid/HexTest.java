@@ -33,6 +33,13 @@ public class HexTest {
         assertThat(Hex.hexDecode(HEX.toLowerCase())).isEqualTo(PLAIN_TEXT.getBytes());
     }
 
+    @Test
+    public void hexEncodeIntoChars() {
+        final char[] chars = new char[HEX.length()];
+        Hex.hexEncode(PLAIN_TEXT.getBytes(), chars);
+        assertThat(new String(chars)).isEqualTo(HEX);
+    }
+
     @Test
     public void hexDecodeNull() {
         assertThat(Hex.hexDecode(null)).isNull();
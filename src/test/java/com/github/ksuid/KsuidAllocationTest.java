@@ -0,0 +1,189 @@
+package com.github.ksuid;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNoException;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation budgets of the hot paths, measured with the per-thread allocation counter of HotSpot's
+ * {@code com.sun.management.ThreadMXBean}. Each operation is repeated in rounds and the smallest average
+ * is taken, so class loading, interpretation and the counter's own overhead fall out. Objects that an
+ * operation returns are kept in an array so that the JIT cannot elide them. Budgets are expressed in
+ * objects of the same shape allocated in the same way, so they hold whatever the object layout of the JVM.
+ * The tests are skipped on JVMs without the allocation counter.
+ */
+public class KsuidAllocationTest {
+    private static final int ITERATIONS = 10_000;
+    private static final int ROUNDS = 10;
+    private static final int MASK = 1023;
+
+    private final Ksuid[] ksuids = new Ksuid[MASK + 1];
+    private final Ksuid[] copies = new Ksuid[MASK + 1];
+    private final String[] strings = new String[MASK + 1];
+    private final Object[] retained = new Object[ITERATIONS];
+    private ThreadMXBean threads;
+    private Method allocatedBytes;
+    private long sink;
+
+    @Before
+    public void requireAllocationCounter() {
+        threads = ManagementFactory.getThreadMXBean();
+        try {
+            final Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            assumeTrue(type.isInstance(threads));
+            assumeTrue((Boolean) type.getMethod("isThreadAllocatedMemorySupported").invoke(threads));
+            type.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(threads, true);
+            allocatedBytes = type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (final ReflectiveOperationException | UnsupportedOperationException e) {
+            assumeNoException(e);
+        }
+
+        final KsuidGenerator generator = new KsuidGenerator(new Random(1L));
+        for (int i = 0; i <= MASK; i++) {
+            ksuids[i] = generator.newKsuid();
+            copies[i] = Ksuid.newBuilder().withKsuidBytes(ksuids[i].asBytes()).build();
+            strings[i] = ksuids[i].toString();
+        }
+    }
+
+    @Test
+    public void compareWithoutAllocating() {
+        assertThat(bytesPerOperation(i -> ksuids[i & MASK].compareTo(ksuids[(i + 1) & MASK]))).isZero();
+        assertThat(bytesPerOperation(i -> Ksuid.compare(ksuids[i & MASK].rawBytes(), 0,
+                                                        copies[i & MASK].rawBytes(), 0))).isZero();
+        final byte[] left = ksuids[0].asBytes();
+        final byte[] right = ksuids[1].asBytes();
+        assertThat(bytesPerOperation(i -> KsuidKeys.compare(left, 0, left.length, right, 0, right.length))).isZero();
+    }
+
+    @Test
+    public void equalsAndHashCodeWithoutAllocating() {
+        assertThat(bytesPerOperation(i -> ksuids[i & MASK].equals(copies[i & MASK]) ? 1 : 0)).isZero();
+        assertThat(bytesPerOperation(i -> ksuids[i & MASK].equals(copies[(i + 1) & MASK]) ? 1 : 0)).isZero();
+        assertThat(bytesPerOperation(i -> ksuids[i & MASK].hashCode())).isZero();
+    }
+
+    @Test
+    public void readTimestampsWithoutAllocating() {
+        assertThat(bytesPerOperation(i -> Ksuid.timestampOf(strings[i & MASK]))).isZero();
+        assertThat(bytesPerOperation(i -> ksuids[i & MASK].getTimestamp())).isZero();
+    }
+
+    @Test
+    public void checkLocaleDigitsWithoutAllocating() {
+        assertThat(bytesPerOperation(i -> TimeFormatter.usesAsciiDigits() ? 1 : 0)).isZero();
+    }
+
+    @Test
+    public void viewRecordsWithoutAllocating() {
+        final byte[] records = new byte[(MASK + 1) * Ksuid.TOTAL_BYTES];
+        for (int i = 0; i <= MASK; i++) {
+            System.arraycopy(ksuids[i].rawBytes(), 0, records, i * Ksuid.TOTAL_BYTES, Ksuid.TOTAL_BYTES);
+        }
+        final KsuidView left = new KsuidView();
+        final KsuidView right = new KsuidView();
+        final char[] chars = new char[Base62.KSUID_ENCODED_LENGTH];
+        assertThat(bytesPerOperation(i -> left.wrap(records, (i & MASK) * Ksuid.TOTAL_BYTES)
+                                              .compareTo(right.wrap(records, ((i + 1) & MASK) * Ksuid.TOTAL_BYTES))))
+                .isZero();
+        assertThat(bytesPerOperation(i -> {
+            left.wrap(records, (i & MASK) * Ksuid.TOTAL_BYTES).encodeTo(chars, 0);
+            return chars[0];
+        })).isZero();
+    }
+
+    @Test
+    public void encodeToOneString() {
+        // the string with its array, and the buffer it is encoded in
+        final long string = bytesRetainedPerOperation(i -> {
+            final char[] chars = new char[Base62.KSUID_ENCODED_LENGTH];
+            chars[0] = (char) ('0' + (i & 7));
+            return new String(chars);
+        });
+        assertThat(bytesRetainedPerOperation(i -> ksuids[i & MASK].toString())).isLessThanOrEqualTo(string);
+        // the string of a lazy KSUID is returned as given, so only the KSUID itself is allocated
+        assertThat(bytesRetainedPerOperation(i -> Ksuid.fromStringLazy(strings[i & MASK]).toString()))
+                .isLessThanOrEqualTo(bytesRetainedPerOperation(i -> Ksuid.fromStringLazy(strings[i & MASK])));
+    }
+
+    @Test
+    public void retainedSizeOfKsuid() {
+        final long ksuid = bytesRetainedPerOperation(i -> new Shape())
+                + bytesRetainedPerOperation(i -> new byte[Ksuid.PAYLOAD_BYTES])
+                + bytesRetainedPerOperation(i -> new byte[Ksuid.TOTAL_BYTES]);
+        // the object, its payload and its bytes, and nothing else
+        assertThat(bytesRetainedPerOperation(i -> Ksuid.fromWords(i, i, i))).isEqualTo(ksuid);
+        assertThat(ksuid).isLessThanOrEqualTo(128);
+    }
+
+    @Test
+    public void decodeToOneKsuid() {
+        final long ksuid = bytesRetainedPerOperation(i -> Ksuid.fromWords(i, i, i));
+        final long builder = bytesRetainedPerOperation(i -> new Shape());
+        assertThat(bytesRetainedPerOperation(i -> Ksuid.fromString(strings[i & MASK])))
+                .isLessThanOrEqualTo(ksuid + builder);
+        // a lazy KSUID is smaller than a decoded one until it is decoded
+        assertThat(bytesRetainedPerOperation(i -> Ksuid.fromStringLazy(strings[i & MASK]))).isLessThan(ksuid);
+    }
+
+    /**
+     * Measure an operation that returns a primitive.
+     */
+    private long bytesPerOperation(final IntUnaryOperator operation) {
+        long least = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long before = allocatedBytes();
+            long result = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                result += operation.applyAsInt(i);
+            }
+            least = Math.min(least, (allocatedBytes() - before) / ITERATIONS);
+            sink += result;
+        }
+        return least;
+    }
+
+    /**
+     * Measure an operation that returns an object, keeping the objects until the round ends.
+     */
+    private long bytesRetainedPerOperation(final IntFunction<?> operation) {
+        long least = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long before = allocatedBytes();
+            for (int i = 0; i < ITERATIONS; i++) {
+                retained[i] = operation.apply(i);
+            }
+            least = Math.min(least, (allocatedBytes() - before) / ITERATIONS);
+            sink += retained[round].hashCode();
+        }
+        return least;
+    }
+
+    private long allocatedBytes() {
+        try {
+            return (Long) allocatedBytes.invoke(threads, Thread.currentThread().getId());
+        } catch (final ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * An object with the fields of a {@link Ksuid}, and of its {@link Ksuid.Builder}.
+     */
+    @SuppressWarnings("unused")
+    private static final class Shape {
+        private int timestamp;
+        private byte[] payload;
+        private byte[] ksuidBytes;
+    }
+}
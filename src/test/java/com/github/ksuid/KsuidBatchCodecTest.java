@@ -0,0 +1,122 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class KsuidBatchCodecTest {
+    private static final Ksuid FIRST = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+    private static final Ksuid SECOND = Ksuid.fromString("24rUCafWbTglyvWlQEuaxKqqiuY");
+
+    @Test
+    public void encodeFixedWidth() {
+        final KsuidBatchCodec codec = KsuidBatchCodec.fixedWidth();
+        assertThat(codec.stride()).isEqualTo(27);
+        assertThat(new String(codec.encode(FIRST, SECOND))).isEqualTo("0ujtsYcgvSTl8PAuAdqWYSMnLOv24rUCafWbTglyvWlQEuaxKqqiuY");
+        assertThat(new String(codec.encodeAscii(FIRST, SECOND), US_ASCII)).isEqualTo("0ujtsYcgvSTl8PAuAdqWYSMnLOv24rUCafWbTglyvWlQEuaxKqqiuY");
+    }
+
+    @Test
+    public void encodeWithSeparator() {
+        final KsuidBatchCodec codec = KsuidBatchCodec.withSeparator("\r\n");
+        assertThat(codec.stride()).isEqualTo(29);
+        assertThat(new String(codec.encode(FIRST, SECOND))).isEqualTo("0ujtsYcgvSTl8PAuAdqWYSMnLOv\r\n24rUCafWbTglyvWlQEuaxKqqiuY\r\n");
+    }
+
+    @Test
+    public void encodeRecords() {
+        final byte[] records = records(FIRST, SECOND);
+        final KsuidBatchCodec codec = KsuidBatchCodec.withSeparator(",");
+        assertThat(new String(codec.encodeRecords(records))).isEqualTo("0ujtsYcgvSTl8PAuAdqWYSMnLOv,24rUCafWbTglyvWlQEuaxKqqiuY,");
+        assertThat(new String(codec.encodeRecordsAscii(records), US_ASCII)).isEqualTo("0ujtsYcgvSTl8PAuAdqWYSMnLOv,24rUCafWbTglyvWlQEuaxKqqiuY,");
+    }
+
+    @Test
+    public void decodeWithAndWithoutTrailingSeparator() {
+        final KsuidBatchCodec codec = KsuidBatchCodec.withSeparator("\n");
+        final byte[] expected = records(FIRST, SECOND);
+        assertThat(codec.decode("0ujtsYcgvSTl8PAuAdqWYSMnLOv\n24rUCafWbTglyvWlQEuaxKqqiuY\n".toCharArray())).isEqualTo(expected);
+        assertThat(codec.decode("0ujtsYcgvSTl8PAuAdqWYSMnLOv\n24rUCafWbTglyvWlQEuaxKqqiuY".toCharArray())).isEqualTo(expected);
+        assertThat(codec.decodeAscii("0ujtsYcgvSTl8PAuAdqWYSMnLOv\n24rUCafWbTglyvWlQEuaxKqqiuY".getBytes(US_ASCII))).isEqualTo(expected);
+    }
+
+    @Test
+    public void roundTripSerialAndParallel() {
+        final List<Ksuid> ksuids = randomKsuids(50_000);
+        final byte[] records = records(ksuids.toArray(new Ksuid[0]));
+
+        for (final KsuidBatchCodec codec : new KsuidBatchCodec[] {
+                KsuidBatchCodec.fixedWidth(),
+                KsuidBatchCodec.withSeparator("\n"),
+                KsuidBatchCodec.withSeparator("\n").parallel()}) {
+            final char[] chars = codec.encode(ksuids);
+            final byte[] ascii = codec.encodeAscii(ksuids);
+            assertThat(codec.encodeRecords(records)).isEqualTo(chars);
+            assertThat(codec.encodeRecordsAscii(records)).isEqualTo(ascii);
+            // lists without random access are copied, not walked for every KSUID
+            assertThat(codec.encode(new LinkedList<>(ksuids))).isEqualTo(chars);
+            assertThat(codec.encodeAscii(new LinkedList<>(ksuids))).isEqualTo(ascii);
+            assertThat(new String(ascii, US_ASCII)).isEqualTo(new String(chars));
+            assertThat(new String(chars, codec.stride(), 27)).isEqualTo(ksuids.get(1).toString());
+
+            assertThat(codec.decode(chars)).isEqualTo(records);
+            assertThat(codec.decodeAscii(ascii)).isEqualTo(records);
+        }
+    }
+
+    @Test
+    public void encodeAndDecodeWithOffsets() {
+        final KsuidBatchCodec codec = KsuidBatchCodec.withSeparator(" ");
+        final byte[] records = records(FIRST, SECOND, FIRST);
+        final char[] chars = new char[2 + 2 * codec.stride()];
+        codec.encodeRecords(records, Ksuid.TOTAL_BYTES, 2, chars, 2);
+        assertThat(new String(chars, 2, chars.length - 2)).isEqualTo("24rUCafWbTglyvWlQEuaxKqqiuY 0ujtsYcgvSTl8PAuAdqWYSMnLOv ");
+
+        final byte[] decoded = new byte[2 * Ksuid.TOTAL_BYTES];
+        codec.decode(chars, 2, 2, decoded, 0);
+        assertThat(decoded).isEqualTo(records(SECOND, FIRST));
+    }
+
+    @Test
+    public void invalidInput() {
+        final KsuidBatchCodec codec = KsuidBatchCodec.withSeparator("\n");
+        assertThatCode(() -> codec.decode("0ujtsYcgvSTl8PAuAdqWYSMnL\n".toCharArray()))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("encoded length 26 is not a multiple of 28");
+        assertThatCode(() -> codec.decode("0ujtsYcgvSTl8PAuAdqWYSMnL-v\n".toCharArray()))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'-' is not a valid Base62 character");
+        assertThatCode(() -> codec.encodeRecords(new byte[21]))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("records length 21 is not a multiple of 20");
+        assertThatCode(() -> codec.encodeRecords(new byte[40], 0, 2, new char[55], 0))
+                .isExactlyInstanceOf(IndexOutOfBoundsException.class);
+        assertThatCode(() -> KsuidBatchCodec.withSeparator("§"))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("separator must be ASCII");
+    }
+
+    private static List<Ksuid> randomKsuids(final int count) {
+        final KsuidGenerator generator = new KsuidGenerator(new Random(123L));
+        final List<Ksuid> ksuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ksuids.add(generator.newKsuid());
+        }
+        return ksuids;
+    }
+
+    private static byte[] records(final Ksuid... ksuids) {
+        final byte[] records = new byte[ksuids.length * Ksuid.TOTAL_BYTES];
+        for (int i = 0; i < ksuids.length; i++) {
+            System.arraycopy(ksuids[i].asBytes(), 0, records, i * Ksuid.TOTAL_BYTES, Ksuid.TOTAL_BYTES);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KsuidBlockCodecTest {
+    private static final Ksuid FIRST = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+    private static final Ksuid SECOND = Ksuid.fromString("24rUCafWbTglyvWlQEuaxKqqiuY");
+
+    @Test
+    public void encodeBlockLayout() {
+        final ByteBuffer encoded = KsuidBlockCodec.create().encode(Arrays.asList(FIRST, FIRST, SECOND));
+        final byte[] bytes = new byte[encoded.remaining()];
+        encoded.duplicate().get(bytes);
+
+        // count, body bytes: first timestamp, run of 2, zig-zag delta of 5 bytes, run of 1, payloads
+        assertThat(bytes).hasSize(2 + 4 + 1 + 5 + 1 + 3 * 16);
+        assertThat(bytes[0]).isEqualTo((byte) 3);
+        assertThat(bytes[1]).isEqualTo((byte) (4 + 1 + 5 + 1 + 3 * 16));
+        assertThat(Arrays.copyOfRange(bytes, 2, 6)).isEqualTo(Arrays.copyOf(FIRST.asBytes(), 4));
+        assertThat(bytes[6]).isEqualTo((byte) 2);
+        assertThat(bytes[12]).isEqualTo((byte) 1);
+        assertThat(Arrays.copyOfRange(bytes, 13, 29)).isEqualTo(Arrays.copyOfRange(FIRST.asBytes(), 4, 20));
+        assertThat(KsuidBlockCodec.decode(encoded)).containsExactly(FIRST, FIRST, SECOND);
+    }
+
+    @Test
+    public void sizeComparedToRawAndStrings() {
+        // 10 seconds of 10,000 KSUIDs per second
+        final Random random = new Random(4L);
+        final KsuidGenerator generator = new KsuidGenerator(random);
+        final Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ksuids.add(generator.newKsuid(start.plusSeconds(i / 10_000)));
+        }
+        Collections.shuffle(ksuids, random);
+        final double sorted = (double) KsuidBlockCodec.create().encodeSorted(ksuids).remaining() / ksuids.size();
+        final double shuffled = (double) KsuidBlockCodec.create().encode(ksuids).remaining() / ksuids.size();
+        // raw records take 20 bytes and strings 27 characters; payloads are random and stay 16 bytes
+        assertThat(sorted).isLessThan(0.81 * Ksuid.TOTAL_BYTES).isLessThan(0.6 * Base62.KSUID_ENCODED_LENGTH);
+        // in any order, most KSUIDs start a new run of timestamps
+        assertThat(shuffled).isLessThan(0.9 * Ksuid.TOTAL_BYTES).isLessThan(0.67 * Base62.KSUID_ENCODED_LENGTH);
+    }
+
+    @Test
+    public void roundTripSortedStream() {
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(new Random(1L), Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int second = 0; second < 100; second++) {
+            final Instant instant = Instant.parse("2024-01-01T00:00:00Z").plusSeconds(second);
+            for (int i = 0; i < 100; i++) {
+                ksuids.add(generator.newKsuid(instant));
+            }
+        }
+
+        final ByteBuffer encoded = KsuidBlockCodec.create().encode(ksuids);
+        // 10 blocks with headers and first timestamps, about 11 runs of 3 bytes each
+        assertThat(encoded.remaining()).isBetween(10_000 * 16, 10_000 * 16 + 10 * (6 + 4 + 11 * 3));
+        assertThat(KsuidBlockCodec.decode(encoded)).isEqualTo(ksuids);
+        assertThat(encoded.hasRemaining()).isFalse();
+    }
+
+    @Test
+    public void roundTripAnyOrder() {
+        final Random random = new Random(2L);
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            final byte[] payload = new byte[Ksuid.PAYLOAD_BYTES];
+            random.nextBytes(payload);
+            final int timestamp = i % 7 == 0 ? (i % 2 == 0 ? 0 : -1) : random.nextInt();
+            ksuids.add(Ksuid.newBuilder().withTimestamp(timestamp).withPayload(payload).build());
+        }
+
+        final KsuidBlockCodec codec = KsuidBlockCodec.withBlockSize(333);
+        final ByteBuffer encoded = codec.encode(ksuids);
+        assertThat(encoded.remaining()).isLessThanOrEqualTo(16 * KsuidBlockCodec.maxEncodedSize(333));
+        assertThat(KsuidBlockCodec.decode(encoded)).isEqualTo(ksuids);
+
+        final List<Ksuid> sorted = new ArrayList<>(ksuids);
+        sorted.sort(null);
+        final ByteBuffer encodedSorted = codec.encodeSorted(ksuids);
+        assertThat(KsuidBlockCodec.decode(encodedSorted)).isEqualTo(sorted);
+    }
+
+    @Test
+    public void streamThroughSmallBuffers() {
+        final KsuidGenerator generator = new KsuidGenerator(new Random(3L));
+        final List<Ksuid> ksuids = new ArrayList<>();
+        final KsuidBlockCodec.Encoder encoder = KsuidBlockCodec.withBlockSize(100).newEncoder();
+        final ByteBuffer wire = ByteBuffer.allocate(1 << 20);
+        final ByteBuffer chunk = ByteBuffer.allocate(7);
+        for (int i = 0; i < 1_050; i++) {
+            final Ksuid ksuid = generator.newKsuid(Instant.ofEpochSecond(1_700_000_000L + i / 30));
+            ksuids.add(ksuid);
+            encoder.add(ksuid.asBytes(), 0);
+            chunk.clear();
+            encoder.drainTo(chunk);
+            wire.put((ByteBuffer) chunk.flip());
+        }
+        encoder.finish();
+        assertThat(encoder.blockCount()).isEqualTo(11);
+        while (encoder.pendingBytes() > 0) {
+            chunk.clear();
+            encoder.drainTo(chunk);
+            wire.put((ByteBuffer) chunk.flip());
+        }
+        wire.flip();
+
+        // feed the decoder a few bytes at a time, as if reading from a socket
+        final ByteBuffer input = ByteBuffer.allocate(4096);
+        final byte[] records = new byte[100 * Ksuid.TOTAL_BYTES];
+        final List<Ksuid> decoded = new ArrayList<>();
+        while (wire.hasRemaining()) {
+            final ByteBuffer slice = wire.duplicate();
+            slice.limit(wire.position() + Math.min(wire.remaining(), 13));
+            wire.position(slice.limit());
+            input.put(slice);
+            input.flip();
+            int count;
+            while ((count = KsuidBlockCodec.decodeBlock(input, records, 0)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    decoded.add(Ksuid.newBuilder().withKsuidBytes(Arrays.copyOfRange(records, i * 20, i * 20 + 20)).build());
+                }
+            }
+            input.compact();
+        }
+        assertThat(input.position()).isZero();
+        assertThat(decoded).isEqualTo(ksuids);
+    }
+
+    @Test
+    public void randomAccessByBlock() {
+        final KsuidGenerator generator = new KsuidGenerator(new Random(4L));
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            ksuids.add(generator.newKsuid(Instant.ofEpochSecond(1_700_000_000L + i)));
+        }
+        ksuids.sort(null);
+        final ByteBuffer encoded = KsuidBlockCodec.withBlockSize(100).encode(ksuids);
+
+        // find the block holding the KSUID of second 1_700_000_555 without decoding the others
+        final int target = KsuidGenerator.toTimestamp(Instant.ofEpochSecond(1_700_000_555L));
+        int skipped = 0;
+        while (true) {
+            final ByteBuffer next = encoded.duplicate();
+            if (KsuidBlockCodec.skipBlock(next) < 0 || !next.hasRemaining() || KsuidBlockCodec.firstTimestamp(next) > target) {
+                break;
+            }
+            KsuidBlockCodec.skipBlock(encoded);
+            skipped++;
+        }
+        assertThat(skipped).isEqualTo(5);
+        assertThat(KsuidBlockCodec.firstTimestamp(encoded)).isEqualTo(ksuids.get(500).getTimestamp());
+        final byte[] records = new byte[100 * Ksuid.TOTAL_BYTES];
+        assertThat(KsuidBlockCodec.decodeBlock(encoded, records, 0)).isEqualTo(100);
+        assertThat(Arrays.copyOfRange(records, 55 * 20, 56 * 20)).isEqualTo(ksuids.get(555).asBytes());
+    }
+
+    @Test
+    public void incompleteBlocks() {
+        final ByteBuffer encoded = KsuidBlockCodec.create().encode(Arrays.asList(FIRST, SECOND));
+        final byte[] records = new byte[40];
+        for (int length = 0; length < encoded.remaining(); length++) {
+            final ByteBuffer partial = encoded.duplicate();
+            partial.limit(length);
+            assertThat(KsuidBlockCodec.decodeBlock(partial, records, 0)).isEqualTo(-1);
+            assertThat(partial.position()).isZero();
+            assertThat(KsuidBlockCodec.skipBlock(partial)).isEqualTo(-1);
+            assertThat(partial.position()).isZero();
+        }
+        final ByteBuffer truncated = encoded.duplicate();
+        truncated.limit(truncated.limit() - 1);
+        assertThatThrownBy(() -> KsuidBlockCodec.decode(truncated))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("incomplete block at position 0");
+    }
+
+    @Test
+    public void invalidBlocks() {
+        final byte[] valid = bytes(KsuidBlockCodec.create().encode(Arrays.asList(FIRST, SECOND)));
+        final byte[] records = new byte[40];
+
+        final byte[] zeroCount = valid.clone();
+        zeroCount[0] = 0;
+        assertThatThrownBy(() -> KsuidBlockCodec.decodeBlock(ByteBuffer.wrap(zeroCount), records, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("invalid block at position 0");
+
+        final byte[] longRun = valid.clone();
+        longRun[6] = 3; // first run longer than the block
+        assertThatThrownBy(() -> KsuidBlockCodec.decodeBlock(ByteBuffer.wrap(longRun), records, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("invalid block at position 0");
+
+        final byte[] extraBody = Arrays.copyOf(valid, valid.length + 1);
+        extraBody[1]++;
+        assertThatThrownBy(() -> KsuidBlockCodec.decodeBlock(ByteBuffer.wrap(extraBody), records, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("invalid block at position 0");
+
+        assertThatThrownBy(() -> KsuidBlockCodec.decodeBlock(ByteBuffer.wrap(valid), new byte[39], 0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> KsuidBlockCodec.withBlockSize(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KsuidBlockCodec.withBlockSize(KsuidBlockCodec.MAX_BLOCK_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] bytes(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.ksuid;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class KsuidFileReaderTest {
+    private static final Instant START = Instant.parse("2021-06-01T00:00:00Z");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Ksuid> ksuids = new ArrayList<>();
+    private Path path;
+
+    @Before
+    public void writeFile() throws IOException {
+        final KsuidGenerator generator = new KsuidGenerator(new Random(42L));
+        for (int i = 0; i < 5_000; i++) {
+            ksuids.add(generator.newKsuid(START.plusSeconds(i / 10 * 2)));
+        }
+        Collections.sort(ksuids);
+        path = folder.getRoot().toPath().resolve("ksuids");
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            for (final Ksuid ksuid : ksuids) {
+                writer.write(ksuid);
+            }
+        }
+    }
+
+    @Test
+    public void randomAccess() throws IOException {
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.size()).isEqualTo(ksuids.size());
+            assertThat(reader.isSorted()).isTrue();
+            for (final int index : new int[] {0, 1, 2_500, 4_999}) {
+                assertThat(reader.get(index)).isEqualTo(ksuids.get(index));
+                assertThat(reader.getTimestamp(index)).isEqualTo(ksuids.get(index).getTimestamp());
+                assertThat(reader.view(index, new KsuidView()).contentEquals(ksuids.get(index))).isTrue();
+            }
+            assertThatCode(() -> reader.get(5_000)).isExactlyInstanceOf(IndexOutOfBoundsException.class);
+            assertThatCode(() -> reader.get(-1)).isExactlyInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    public void binarySearchKsuid() throws IOException {
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            for (int i = 0; i < ksuids.size(); i += 97) {
+                assertThat(reader.binarySearch(ksuids.get(i))).isEqualTo(i);
+            }
+            final Ksuid missing = new KsuidGenerator(new Random(1L)).newKsuid(START.plusSeconds(101));
+            final int expected = Collections.binarySearch(ksuids, missing);
+            assertThat(expected).isNegative();
+            assertThat(reader.binarySearch(missing)).isEqualTo(expected);
+            assertThat(reader.binarySearch(Ksuid.fromString("000000000000000000000000000"))).isEqualTo(-1);
+            assertThat(reader.binarySearch(Ksuid.fromString("aWgEPTl1tmebfsQzFP4bxwgy80V"))).isEqualTo(-5_001);
+        }
+    }
+
+    @Test
+    public void binarySearchInstant() throws IOException {
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.binarySearch(START.minusSeconds(1))).isEqualTo(0);
+            assertThat(reader.binarySearch(START)).isEqualTo(0);
+            assertThat(reader.binarySearch(START.plusSeconds(2))).isEqualTo(10);
+            assertThat(reader.binarySearch(START.plusSeconds(3))).isEqualTo(20);
+            assertThat(reader.binarySearch(START.plusSeconds(1_000))).isEqualTo(5_000);
+        }
+    }
+
+    @Test
+    public void streamTimeRangeBeyondKsuidTimestamps() throws IOException {
+        final Instant first = Instant.ofEpochSecond(Ksuid.EPOCH);
+        final Instant last = Instant.ofEpochSecond(Ksuid.EPOCH + 0xFFFFFFFFL);
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.binarySearch(Instant.EPOCH)).isEqualTo(0);
+            assertThat(reader.binarySearch(first.minusSeconds(1))).isEqualTo(0);
+            assertThat(reader.binarySearch(last.plusSeconds(1))).isEqualTo(5_000);
+            assertThat(reader.binarySearch(Instant.MAX)).isEqualTo(5_000);
+            assertThat(reader.stream(Instant.EPOCH, START.plusSeconds(2), false).collect(toList()))
+                    .isEqualTo(ksuids.subList(0, 10));
+            assertThat(reader.stream(START.plusSeconds(998), last.plusSeconds(1), false).collect(toList()))
+                    .isEqualTo(ksuids.subList(4_990, 5_000));
+            assertThat(reader.stream(Instant.MIN, Instant.MAX, false).count()).isEqualTo(5_000);
+            assertThat(reader.stream(Instant.MIN, Instant.EPOCH, false).count()).isZero();
+        }
+    }
+
+    @Test
+    public void streamTimeRange() throws IOException {
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.stream(START.plusSeconds(4), START.plusSeconds(8), false).collect(toList()))
+                    .isEqualTo(ksuids.subList(20, 40));
+            assertThat(reader.stream(START.plusSeconds(8), START.plusSeconds(4), false).count()).isZero();
+        }
+    }
+
+    @Test
+    public void parallelStream() throws IOException {
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.stream(true).collect(toList())).isEqualTo(ksuids);
+
+            final Spliterator<Ksuid> spliterator = reader.spliterator(0, reader.size());
+            assertThat(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED)).isTrue();
+            // files may hold duplicates
+            assertThat(spliterator.hasCharacteristics(Spliterator.DISTINCT)).isFalse();
+            final Spliterator<Ksuid> prefix = spliterator.trySplit();
+            assertThat(prefix.estimateSize()).isEqualTo(2_500);
+            assertThat(spliterator.estimateSize()).isEqualTo(2_500);
+        }
+    }
+
+    @Test
+    public void unsortedFileRejectsSearch() throws IOException {
+        final Path unsorted = folder.getRoot().toPath().resolve("unsorted");
+        try (KsuidFileWriter writer = new KsuidFileWriter(unsorted)) {
+            writer.write(ksuids.get(1));
+            writer.write(ksuids.get(0));
+        }
+        try (KsuidFileReader reader = new KsuidFileReader(unsorted)) {
+            assertThat(reader.spliterator(0, reader.size()).hasCharacteristics(Spliterator.SORTED)).isFalse();
+            assertThatCode(() -> reader.binarySearch(ksuids.get(0)))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("KSUID file is not sorted");
+        }
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        final Path empty = folder.getRoot().toPath().resolve("empty");
+        new KsuidFileWriter(empty).close();
+        try (KsuidFileReader reader = new KsuidFileReader(empty)) {
+            assertThat(reader.size()).isZero();
+            assertThat(reader.binarySearch(ksuids.get(0))).isEqualTo(-1);
+            assertThat(reader.stream(false).count()).isZero();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.ksuid;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class KsuidFileWriterTest {
+    private static final Ksuid FIRST = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+    private static final Ksuid SECOND = Ksuid.fromString("24rUCafWbTglyvWlQEuaxKqqiuY");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeRecords() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("ksuids");
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            writer.write(FIRST);
+            writer.write(SECOND.asBytes(), 0);
+            assertThat(writer.isSorted()).isTrue();
+        }
+
+        final byte[] file = Files.readAllBytes(path);
+        assertThat(file).hasSize(16 + 2 * 20);
+        assertThat(ByteBuffer.wrap(file, 0, 8)).isEqualTo(ByteBuffer.wrap("KSUIDREC".getBytes()));
+        assertThat(ByteBuffer.wrap(file).getInt(8)).isEqualTo(1);
+        assertThat(ByteBuffer.wrap(file).getInt(12)).isEqualTo(1);
+        assertThat(ByteBuffer.wrap(file, 16, 20)).isEqualTo(ByteBuffer.wrap(FIRST.asBytes()));
+        assertThat(ByteBuffer.wrap(file, 36, 20)).isEqualTo(ByteBuffer.wrap(SECOND.asBytes()));
+    }
+
+    @Test
+    public void appendTracksOrder() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("ksuids");
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            writer.write(SECOND);
+        }
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            assertThat(writer.isSorted()).isTrue();
+            writer.write(FIRST);
+            assertThat(writer.isSorted()).isFalse();
+        }
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.isSorted()).isFalse();
+            assertThat(reader.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void clearSortedFlagBeforeWritingUnsortedRecords() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("ksuids");
+        final KsuidFileWriter writer = new KsuidFileWriter(path);
+        try {
+            writer.write(SECOND);
+            writer.write(FIRST);
+            // more records than the buffer holds, so some reach the file before the writer is flushed
+            for (int i = 0; i < 5000; i++) {
+                writer.write(FIRST);
+            }
+            assertThat(Files.size(path)).isGreaterThan(16);
+            assertThat(ByteBuffer.wrap(Files.readAllBytes(path)).getInt(12)).isZero();
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void appendDropsPartialRecord() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("ksuids");
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            writer.write(FIRST);
+        }
+        try (FileChannel channel = FileChannel.open(path, WRITE, APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[7]));
+        }
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            writer.write(SECOND);
+        }
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.size()).isEqualTo(2);
+            assertThat(reader.get(1)).isEqualTo(SECOND);
+        }
+    }
+
+    @Test
+    public void writeManyRecords() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("ksuids");
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(new Random(7L));
+        try (KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.write(generator.newKsuid());
+            }
+        }
+        assertThat(Files.size(path)).isEqualTo(16 + 10_000 * 20);
+    }
+
+    @Test
+    public void rejectInvalidFile() throws IOException {
+        final Path path = folder.newFile().toPath();
+        Files.write(path, "not a ksuid file".getBytes());
+        assertThatCode(() -> new KsuidFileWriter(path))
+                .isExactlyInstanceOf(IOException.class)
+                .hasMessage("not a KSUID file: " + path);
+
+        Files.write(path, new byte[] {'K', 'S', 'U', 'I', 'D', 'R', 'E', 'C', 0, 0, 0, 2, 0, 0, 0, 0});
+        assertThatCode(() -> new KsuidFileReader(path))
+                .isExactlyInstanceOf(IOException.class)
+                .hasMessage("unsupported KSUID file version 2: " + path);
+    }
+}
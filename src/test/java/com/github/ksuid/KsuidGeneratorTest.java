@@ -8,6 +8,7 @@ import org.junit.runner.RunWith;
 
 import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Random;
 
 import static java.time.Instant.now;
 import static java.time.temporal.ChronoUnit.SECONDS;
@@ -50,4 +51,30 @@ public class KsuidGeneratorTest {
     public void testGenerate() {
         assertThat(KsuidGenerator.generate()).matches("[0-9a-zA-Z]{27}");
     }
+
+    @Test
+    public void newKsuidsInBulk() {
+        final Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+        final KsuidGenerator single = new KsuidGenerator(new Random(1L));
+        final Ksuid[] expected = new Ksuid[2_500];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = single.newKsuid(instant);
+        }
+        // java.util.Random produces the same bytes for one large draw as for many small ones
+        assertThat(new KsuidGenerator(new Random(1L)).newKsuids(instant, expected.length)).containsExactly(expected);
+        assertThat(new KsuidGenerator(new SecureRandom()).newKsuids(instant, 3))
+                .hasSize(3)
+                .doesNotHaveDuplicates()
+                .allSatisfy(ksuid -> assertThat(ksuid.getInstant()).isEqualTo(instant));
+        assertThat(single.newKsuids(instant, 0)).isEmpty();
+        assertThatCode(() -> single.newKsuids(instant, -1))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("count must not be negative: -1");
+
+        // subclasses generate one by one, so their newKsuid is used
+        final Ksuid[] monotonic = new MonotonicKsuidGenerator(new Random(1L)).newKsuids(instant, 100);
+        assertThat(monotonic).isSorted().doesNotHaveDuplicates();
+        assertThat(new KsuidGenerator(() -> new byte[16]).newKsuids(instant, 2))
+                .containsOnly(Ksuid.fromWords(KsuidGenerator.toTimestamp(instant), 0, 0));
+    }
 }
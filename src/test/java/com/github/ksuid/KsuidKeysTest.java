@@ -0,0 +1,147 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KsuidKeysTest {
+    @Test
+    public void agreesWithKsuidOrder() {
+        final Random random = new Random(1L);
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final byte[] bytes = new byte[Ksuid.TOTAL_BYTES];
+            random.nextBytes(bytes);
+            if (i % 2 == 0 && !ksuids.isEmpty()) {
+                // share a prefix of any length with an earlier KSUID, so every byte position decides some comparisons
+                final int shared = random.nextInt(Ksuid.TOTAL_BYTES + 1);
+                System.arraycopy(ksuids.get(random.nextInt(ksuids.size())).asBytes(), 0, bytes, 0, shared);
+            }
+            ksuids.add(Ksuid.newBuilder().withKsuidBytes(bytes).build());
+        }
+        ksuids.add(Ksuid.NIL);
+        ksuids.add(Ksuid.MAX);
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(2 * Ksuid.TOTAL_BYTES);
+        final ByteBuffer littleEndian = ByteBuffer.allocateDirect(2 * Ksuid.TOTAL_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (final Ksuid left : ksuids) {
+            for (final Ksuid right : ksuids) {
+                final int expected = Integer.signum(left.compareTo(right));
+                assertThat(Integer.signum(KsuidKeys.comparator().compare(left.asBytes(), right.asBytes())))
+                        .isEqualTo(expected);
+                assertThat(Integer.signum(KsuidKeys.compare(ByteBuffer.wrap(left.asBytes()), ByteBuffer.wrap(right.asBytes()))))
+                        .isEqualTo(expected);
+                assertThat(Integer.signum(KsuidKeys.compare(put(direct, left, right, 0), put(direct, left, right, 1))))
+                        .isEqualTo(expected);
+                assertThat(Integer.signum(KsuidKeys.compare(put(littleEndian, left, right, 0), put(littleEndian, left, right, 1))))
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void compareSlices() {
+        final byte[] left = Hex.hexDecode("AA0669F7EFB5A1CD34B5F99D1154FB6853345C9735FF");
+        final byte[] right = Hex.hexDecode("BBBB0669F7EFB5A1CD34B5F99D1154FB6853345C9735");
+        assertThat(KsuidKeys.compare(left, 1, 20, right, 2, 20)).isZero();
+        assertThat(KsuidKeys.compare(left, 1, 21, right, 2, 20)).isPositive();
+        assertThat(KsuidKeys.compare(left, 1, 19, right, 2, 20)).isNegative();
+        assertThat(KsuidKeys.compare(left, 0, 1, right, 0, 1)).isNegative();
+        // 0xFF sorts after 0x00 as an unsigned byte
+        assertThat(KsuidKeys.compare(new byte[] {(byte) 0xFF}, 0, 1, new byte[] {0}, 0, 1)).isPositive();
+        assertThat(KsuidKeys.compare(left, 0, 0, right, 0, 0)).isZero();
+    }
+
+    @Test
+    public void compareBuffersKeepsPositions() {
+        final byte[] bytes = Hex.hexDecode("0669F7EFB5A1CD34B5F99D1154FB6853345C9735");
+        final ByteBuffer heap = ByteBuffer.allocate(30);
+        heap.position(3);
+        heap.put(bytes).position(3).limit(23);
+        final ByteBuffer slice = ((ByteBuffer) ByteBuffer.allocate(30).position(5)).slice();
+        slice.put(bytes).flip();
+        final ByteBuffer direct = ByteBuffer.allocateDirect(30);
+        direct.position(7);
+        direct.put(bytes).position(7).limit(27);
+        final ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+
+        for (final ByteBuffer left : Arrays.asList(heap, slice, direct, readOnly)) {
+            for (final ByteBuffer right : Arrays.asList(heap, slice, direct, readOnly)) {
+                assertThat(KsuidKeys.bufferComparator().compare(left, right)).isZero();
+            }
+        }
+        assertThat(heap.position()).isEqualTo(3);
+        assertThat(direct.position()).isEqualTo(7);
+        assertThat(slice.position()).isZero();
+
+        direct.limit(26);
+        assertThat(KsuidKeys.compare(direct, heap)).isNegative();
+        assertThat(KsuidKeys.compare(heap, direct)).isPositive();
+        direct.position(8);
+        assertThat(KsuidKeys.compare(direct, heap)).isPositive();
+    }
+
+    @Test
+    public void sortKeysWithSuffixes() {
+        final Ksuid first = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+        final Ksuid second = first.next();
+        final byte[] firstWithSuffix = Arrays.copyOf(first.asBytes(), 25);
+        Arrays.fill(firstWithSuffix, 20, 25, (byte) 0xFF);
+        final List<byte[]> keys = new ArrayList<>(Arrays.asList(second.asBytes(), firstWithSuffix, first.asBytes()));
+        keys.sort(KsuidKeys.comparator());
+        assertThat(keys).containsExactly(first.asBytes(), firstWithSuffix, second.asBytes());
+    }
+
+    @Test
+    public void timestampPrefixes() {
+        final Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+        final Ksuid ksuid = Ksuid.fromInstant(instant);
+        for (int length = 1; length <= 4; length++) {
+            assertThat(KsuidKeys.timestampPrefix(instant, length)).isEqualTo(Arrays.copyOf(ksuid.asBytes(), length));
+        }
+        assertThat(Hex.hexEncode(KsuidKeys.timestampPrefix(instant, 4))).isEqualTo("121FB280");
+        // 2^16 seconds share the first 2 bytes
+        assertThat(KsuidKeys.timestampPrefix(instant.plusSeconds(0x4D7F), 2)).isEqualTo(KsuidKeys.timestampPrefix(instant, 2));
+        assertThat(KsuidKeys.timestampPrefix(instant.plusSeconds(0x4D80), 2)).isNotEqualTo(KsuidKeys.timestampPrefix(instant, 2));
+        assertThatThrownBy(() -> KsuidKeys.timestampPrefix(instant, 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("prefix length must be between 1 and 4: 5");
+        assertThatThrownBy(() -> KsuidKeys.timestampPrefix(instant, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void prefixUpperBounds() {
+        assertThat(KsuidKeys.prefixUpperBound(Hex.hexDecode("0E2E3500"))).isEqualTo(Hex.hexDecode("0E2E3501"));
+        assertThat(KsuidKeys.prefixUpperBound(Hex.hexDecode("0E2EFFFF"))).isEqualTo(Hex.hexDecode("0E2F"));
+        assertThat(KsuidKeys.prefixUpperBound(Hex.hexDecode("FFFF"))).isNull();
+        assertThat(KsuidKeys.prefixUpperBound(new byte[0])).isNull();
+
+        // every KSUID with the prefix sorts below the bound, and the next prefix does not
+        final byte[] prefix = Hex.hexDecode("0E2EFF");
+        final byte[] bound = KsuidKeys.prefixUpperBound(prefix);
+        final byte[] last = new byte[Ksuid.TOTAL_BYTES];
+        Arrays.fill(last, (byte) 0xFF);
+        System.arraycopy(prefix, 0, last, 0, prefix.length);
+        assertThat(KsuidKeys.comparator().compare(last, bound)).isNegative();
+        assertThat(KsuidKeys.comparator().compare(Ksuid.newBuilder().withKsuidBytes(last).build().next().asBytes(), bound))
+                .isPositive();
+    }
+
+    private static ByteBuffer put(final ByteBuffer buffer, final Ksuid left, final Ksuid right, final int index) {
+        buffer.clear();
+        buffer.put(left.asBytes()).put(right.asBytes());
+        final ByteBuffer view = buffer.duplicate().order(buffer.order());
+        view.position(index * Ksuid.TOTAL_BYTES).limit((index + 1) * Ksuid.TOTAL_BYTES);
+        return view;
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.ksuid;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class KsuidMergerTest {
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mergeAllKindsOfSources() throws IOException {
+        final KsuidGenerator generator = new KsuidGenerator(new Random(1L));
+        final List<List<Ksuid>> inputs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final List<Ksuid> input = new ArrayList<>();
+            for (int j = 0; j < 3_000; j++) {
+                input.add(generator.newKsuid(START.plusSeconds(j / 100)));
+            }
+            Collections.sort(input);
+            inputs.add(input);
+        }
+
+        final Path withHeader = folder.getRoot().toPath().resolve("with-header");
+        try (KsuidFileWriter writer = new KsuidFileWriter(withHeader)) {
+            for (final Ksuid ksuid : inputs.get(3)) {
+                writer.write(ksuid);
+            }
+        }
+        final Path raw = folder.getRoot().toPath().resolve("raw");
+        Files.write(raw, records(inputs.get(4)));
+
+        final List<KsuidMerger.Source> sources = Arrays.asList(
+                KsuidMerger.source(inputs.get(0).iterator()),
+                KsuidMerger.stringSource(inputs.get(1).stream().map(Ksuid::toString).iterator()),
+                KsuidMerger.source(new TrickleChannel(records(inputs.get(2)))),
+                KsuidMerger.source(withHeader),
+                KsuidMerger.source(raw));
+        final List<Ksuid> expected = inputs.stream().flatMap(List::stream).sorted().collect(toList());
+        final List<Integer> batches = new ArrayList<>();
+        final List<Ksuid> merged = new ArrayList<>();
+        try (KsuidMerger merger = new KsuidMerger(sources, false)) {
+            assertThat(merger.mergeTo((records, count) -> {
+                batches.add(count);
+                merged.addAll(parse(records, count));
+            })).isEqualTo(expected.size());
+            assertThatCode(() -> merger.mergeTo((records, count) -> { }))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("sources were already merged");
+        }
+        assertThat(merged).isEqualTo(expected);
+        assertThat(batches).containsExactly(4_096, 4_096, 4_096, 2_712);
+    }
+
+    @Test
+    public void mergeHundredsOfSources() throws IOException {
+        final Random random = new Random(2L);
+        final KsuidGenerator generator = new KsuidGenerator(random);
+        final List<List<Ksuid>> inputs = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            final List<Ksuid> input = new ArrayList<>();
+            // some inputs are empty, some span several read-ahead buffers
+            final int size = i % 10 == 0 ? 0 : random.nextInt(1_500);
+            for (int j = 0; j < size; j++) {
+                input.add(generator.newKsuid(START.plusSeconds(random.nextInt(60))));
+            }
+            Collections.sort(input);
+            inputs.add(input);
+        }
+        final List<Ksuid> merged = new ArrayList<>();
+        final List<KsuidMerger.Source> sources = inputs.stream().map(input -> KsuidMerger.source(input.iterator()))
+                                                       .collect(toList());
+        try (KsuidMerger merger = new KsuidMerger(sources, false)) {
+            merger.mergeTo((records, count) -> merged.addAll(parse(records, count)));
+        }
+        assertThat(merged).isEqualTo(inputs.stream().flatMap(List::stream).sorted().collect(toList()));
+    }
+
+    @Test
+    public void dropDuplicates() throws IOException {
+        final Ksuid ksuid = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+        final List<Ksuid> first = Arrays.asList(ksuid, ksuid, ksuid.next(), ksuid.plus(5), ksuid.plus(5));
+        final List<Ksuid> second = Arrays.asList(ksuid.prev(), ksuid, ksuid.plus(5), ksuid.plus(6));
+        final List<Ksuid> third = Collections.singletonList(ksuid.plus(6));
+
+        final List<Ksuid> distinct = merge(true, first, second, third);
+        assertThat(distinct).isEqualTo(new ArrayList<>(new TreeSet<>(distinct)))
+                            .containsExactly(ksuid.prev(), ksuid, ksuid.next(), ksuid.plus(5), ksuid.plus(6));
+        assertThat(merge(false, first, second, third)).hasSize(10).isSorted();
+        assertThat(merge(true, Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    public void mergeIntoFile() throws IOException {
+        final KsuidGenerator generator = new KsuidGenerator(new Random(3L));
+        final List<Ksuid> first = new ArrayList<>();
+        final List<Ksuid> second = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            first.add(generator.newKsuid(START.plusSeconds(i)));
+            second.add(generator.newKsuid(START.plusSeconds(i)));
+        }
+        final Path path = folder.getRoot().toPath().resolve("merged");
+        try (KsuidMerger merger = new KsuidMerger(Arrays.asList(KsuidMerger.source(first.iterator()),
+                                                                KsuidMerger.source(second.iterator())), false);
+             KsuidFileWriter writer = new KsuidFileWriter(path)) {
+            assertThat(merger.mergeTo(writer)).isEqualTo(2_000);
+        }
+        try (KsuidFileReader reader = new KsuidFileReader(path)) {
+            assertThat(reader.isSorted()).isTrue();
+            assertThat(reader.size()).isEqualTo(2_000);
+        }
+    }
+
+    @Test
+    public void rejectInvalidSources() throws IOException {
+        final Ksuid ksuid = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+        assertThatCode(() -> merge(false, Collections.singletonList(ksuid), Arrays.asList(ksuid.next(), ksuid)))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("source 1 is not in ascending order");
+        assertThatCode(() -> new KsuidMerger(Collections.emptyList(), false))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("no sources to merge");
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        final ReadableByteChannel partial = Channels.newChannel(new ByteArrayInputStream(new byte[30]) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+        try (KsuidMerger merger = new KsuidMerger(Collections.singletonList(KsuidMerger.source(partial)), false)) {
+            assertThatCode(() -> merger.mergeTo((records, count) -> { }))
+                    .isExactlyInstanceOf(IOException.class)
+                    .hasMessage("channel ends with a partial record of 10 bytes");
+        }
+        assertThat(closed).isTrue();
+
+        final List<String> strings = Arrays.asList(ksuid.toString(), "0ujtsYcgvSTl8PAuAdqWYSMnLO");
+        try (KsuidMerger merger = new KsuidMerger(Collections.singletonList(KsuidMerger.stringSource(strings.iterator())),
+                                                  false)) {
+            assertThatCode(() -> merger.mergeTo((records, count) -> { }))
+                    .isExactlyInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("ksuid string is not expected length of 27 characters: 0ujtsYcgvSTl8PAuAdqWYSMnLO");
+        }
+    }
+
+    @SafeVarargs
+    private static List<Ksuid> merge(final boolean distinct, final List<Ksuid>... inputs) throws IOException {
+        final List<Ksuid> merged = new ArrayList<>();
+        // iterated here rather than handed on, which -Xlint:varargs reports even for @SafeVarargs
+        final List<KsuidMerger.Source> sources = new ArrayList<>();
+        for (final List<Ksuid> input : inputs) {
+            sources.add(KsuidMerger.source(input.iterator()));
+        }
+        try (KsuidMerger merger = new KsuidMerger(sources, distinct)) {
+            merger.mergeTo((records, count) -> merged.addAll(parse(records, count)));
+        }
+        return merged;
+    }
+
+    private static List<Ksuid> parse(final byte[] records, final int count) {
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ksuids.add(Ksuid.newBuilder()
+                            .withKsuidBytes(Arrays.copyOfRange(records, i * Ksuid.TOTAL_BYTES, (i + 1) * Ksuid.TOTAL_BYTES))
+                            .build());
+        }
+        return ksuids;
+    }
+
+    private static byte[] records(final List<Ksuid> ksuids) {
+        final ByteBuffer buffer = ByteBuffer.allocate(ksuids.size() * Ksuid.TOTAL_BYTES);
+        ksuids.forEach(ksuid -> buffer.put(ksuid.asBytes()));
+        return buffer.array();
+    }
+
+    /**
+     * Channel returning a few bytes per read, so records arrive in pieces.
+     */
+    private static final class TrickleChannel implements ReadableByteChannel {
+        private final ByteBuffer bytes;
+
+        private TrickleChannel(final byte[] bytes) {
+            this.bytes = ByteBuffer.wrap(bytes);
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) {
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            final int length = Math.min(Math.min(7, bytes.remaining()), dst.remaining());
+            final ByteBuffer chunk = bytes.duplicate();
+            chunk.limit(chunk.position() + length);
+            dst.put(chunk);
+            bytes.position(bytes.position() + length);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
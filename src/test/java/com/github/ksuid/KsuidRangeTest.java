@@ -0,0 +1,187 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KsuidRangeTest {
+    private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    public void fromInstants() {
+        final KsuidRange range = KsuidRange.of(FROM.plusMillis(999), FROM.plusSeconds(10));
+        assertThat(range.getLower().getInstant()).isEqualTo(FROM);
+        assertThat(range.getLower().getPayload()).isEqualTo("00000000000000000000000000000000");
+        assertThat(range.getUpper().getInstant()).isEqualTo(FROM.plusSeconds(10));
+        assertThat(range.contains(Ksuid.fromInstant(FROM))).isTrue();
+        assertThat(range.contains(Ksuid.fromInstant(FROM.plusSeconds(9)))).isTrue();
+        assertThat(range.contains(Ksuid.fromInstant(FROM.plusSeconds(10)))).isFalse();
+        assertThat(range.contains(range.getUpper().prev())).isTrue();
+        assertThat(range.contains(range.getLower().prev())).isFalse();
+        assertThat(range).isEqualTo(KsuidRange.of(range.getLower(), range.getUpper()))
+                         .hasSameHashCodeAs(KsuidRange.of(range.getLower(), range.getUpper()));
+        assertThat(range.toString()).isEqualTo("[" + range.getLower() + ", " + range.getUpper() + ")");
+
+        assertThatThrownBy(() -> KsuidRange.of(FROM.plusSeconds(1), FROM))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("lower bound ");
+    }
+
+    @Test
+    public void splitEqually() {
+        final KsuidRange range = KsuidRange.of(FROM, FROM.plusSeconds(3));
+        final List<KsuidRange> parts = range.split(4);
+        assertContiguous(range, parts);
+        // each part is three quarters of a second, 3 * 2^126
+        for (final KsuidRange part : parts) {
+            assertThat(length(part)).isEqualTo(BigInteger.valueOf(3).shiftLeft(126));
+        }
+        assertThat(parts.get(1).getLower().asRaw()).isEqualTo(range.getLower().asRaw().substring(0, 8) + "C" + repeat('0', 31));
+
+        assertThat(range.split(1)).containsExactly(range);
+        assertThatThrownBy(() -> range.split(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("parts must be positive: 0");
+    }
+
+    @Test
+    public void splitSmallAndEmptyRanges() {
+        final Ksuid ksuid = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+        final KsuidRange small = KsuidRange.of(ksuid, ksuid.plus(3));
+        final List<KsuidRange> parts = small.split(5);
+        assertContiguous(small, parts);
+        assertThat(parts.stream().filter(KsuidRange::isEmpty).count()).isEqualTo(2);
+
+        final KsuidRange empty = KsuidRange.of(ksuid, ksuid);
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.contains(ksuid)).isFalse();
+        assertThat(empty.split(3)).containsExactly(empty, empty, empty);
+        assertThatThrownBy(() -> empty.split(3, new long[1]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("expected 0 weights but got 1");
+
+        final KsuidRange everything = KsuidRange.of(Ksuid.NIL, Ksuid.MAX);
+        final List<KsuidRange> halves = everything.split(2);
+        assertContiguous(everything, halves);
+        assertThat(halves.get(1).getLower().asRaw()).isEqualTo("7FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF");
+    }
+
+    @Test
+    public void splitBalancesGeneratedKsuids() {
+        // a busy second in the middle of quiet ones
+        final long[] counts = {100, 100, 5_000, 100, 100};
+        final KsuidGenerator generator = new KsuidGenerator(new Random(1L));
+        final List<Ksuid> ksuids = new ArrayList<>();
+        for (int second = 0; second < counts.length; second++) {
+            for (int i = 0; i < counts[second]; i++) {
+                ksuids.add(generator.newKsuid(FROM.plusSeconds(second)));
+            }
+        }
+        final KsuidRange range = KsuidRange.of(FROM, FROM.plusSeconds(counts.length));
+
+        final List<KsuidRange> equal = range.split(4);
+        assertContiguous(range, equal);
+        // a quarter of the quiet seconds 1 and 3 and half of the busy one fall in each middle part
+        final List<Long> equalCounts = countPerPart(equal, ksuids);
+        assertThat(equalCounts.get(0)).isBetween(125L - 30, 125L + 30);
+        assertThat(equalCounts.get(1)).isBetween(2_575L - 100, 2_575L + 100);
+        assertThat(equalCounts.get(2)).isBetween(2_575L - 100, 2_575L + 100);
+        assertThat(equalCounts.get(3)).isBetween(125L - 30, 125L + 30);
+
+        final List<KsuidRange> weighted = range.split(4, counts);
+        assertContiguous(range, weighted);
+        for (final long count : countPerPart(weighted, ksuids)) {
+            // binomial spread of the share of the busy second, about 30
+            assertThat(count).isBetween(1_350L - 150, 1_350L + 150);
+        }
+        // the busy second is cut into three
+        assertThat(weighted.get(1).getLower().getInstant()).isEqualTo(FROM.plusSeconds(2));
+        assertThat(weighted.get(3).getLower().getInstant()).isEqualTo(FROM.plusSeconds(2));
+    }
+
+    @Test
+    public void splitByWeightsOfPartialSeconds() {
+        // from the middle of the first second to a quarter into the third, equal counts per second
+        final Ksuid lower = Ksuid.fromWords(KsuidGenerator.toTimestamp(FROM), 1L << 63, 0);
+        final Ksuid upper = Ksuid.fromWords(KsuidGenerator.toTimestamp(FROM) + 2, 1L << 62, 0);
+        final KsuidRange range = KsuidRange.of(lower, upper);
+        final List<KsuidRange> parts = range.split(7, new long[] {1_000, 1_000, 1_000});
+        assertContiguous(range, parts);
+        // weight is proportional to length when the counts are equal
+        assertThat(parts).isEqualTo(range.split(7));
+
+        final List<KsuidRange> skewed = range.split(2, new long[] {0, 1, 0});
+        assertThat(skewed.get(0).getUpper()).isEqualTo(Ksuid.fromWords(KsuidGenerator.toTimestamp(FROM) + 1, 1L << 63, 0));
+
+        assertThatThrownBy(() -> range.split(2, new long[] {1, 1}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("expected 3 weights but got 2");
+        assertThatThrownBy(() -> range.split(2, new long[] {1, -1, 1}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("weight 1 is negative: -1");
+        assertThatThrownBy(() -> range.split(2, new long[3]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("weights are all zero");
+    }
+
+    @Test
+    public void parallelStreamOfParts() {
+        final KsuidRange range = KsuidRange.of(FROM, FROM.plusSeconds(60));
+        final Spliterator<KsuidRange> spliterator = range.spliterator(10);
+        assertThat(spliterator.estimateSize()).isEqualTo(10);
+        assertThat(spliterator.hasCharacteristics(Spliterator.SUBSIZED | Spliterator.ORDERED)).isTrue();
+        final Spliterator<KsuidRange> prefix = spliterator.trySplit();
+        assertThat(prefix.estimateSize()).isEqualTo(5);
+        assertThat(spliterator.estimateSize()).isEqualTo(5);
+
+        final List<KsuidRange> parts = StreamSupport.stream(range.spliterator(10), true).collect(Collectors.toList());
+        assertThat(parts).isEqualTo(range.split(10));
+        final long[] weights = new long[60];
+        Arrays.fill(weights, 30, 60, 1);
+        final Map<Boolean, Long> secondHalf = StreamSupport.stream(range.spliterator(6, weights), true)
+                .collect(Collectors.partitioningBy(part -> part.getLower().getInstant().isBefore(FROM.plusSeconds(30)),
+                                                   Collectors.counting()));
+        // the first part starts at the lower bound, all others in the second half
+        assertThat(secondHalf).containsEntry(true, 1L).containsEntry(false, 5L);
+    }
+
+    private static void assertContiguous(final KsuidRange range, final List<KsuidRange> parts) {
+        assertThat(parts.get(0).getLower()).isEqualTo(range.getLower());
+        assertThat(parts.get(parts.size() - 1).getUpper()).isEqualTo(range.getUpper());
+        for (int i = 1; i < parts.size(); i++) {
+            assertThat(parts.get(i).getLower()).isEqualTo(parts.get(i - 1).getUpper());
+            assertThat(parts.get(i).getLower()).isLessThanOrEqualTo(parts.get(i).getUpper());
+        }
+    }
+
+    private static BigInteger length(final KsuidRange range) {
+        return new BigInteger(1, range.getUpper().asBytes()).subtract(new BigInteger(1, range.getLower().asBytes()));
+    }
+
+    private static List<Long> countPerPart(final List<KsuidRange> parts, final List<Ksuid> ksuids) {
+        final List<Long> counts = new ArrayList<>();
+        for (final KsuidRange part : parts) {
+            counts.add(ksuids.stream().filter(part::contains).count());
+        }
+        assertThat(counts.stream().mapToLong(Long::longValue).sum()).isEqualTo(ksuids.size());
+        return counts;
+    }
+
+    private static String repeat(final char c, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.ksuid;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KsuidServerTest {
+    private KsuidServer server;
+    private Thread serverThread;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new KsuidServer("127.0.0.1:0", new MonotonicKsuidGenerator(new Random(1L)));
+        serverThread = start(server);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    public void pipelinedRequests() throws IOException {
+        try (SocketChannel channel = SocketAddresses.connect(server.getAddress())) {
+            // the last request does not fit the initial write buffer
+            final ByteBuffer requests = ByteBuffer.allocate(4 * KsuidServer.REQUEST_BYTES);
+            requests.put(KsuidServer.RAW).putInt(2)
+                    .put(KsuidServer.STRING).putInt(3)
+                    .put(KsuidServer.RAW).putInt(1)
+                    .put(KsuidServer.STRING).putInt(KsuidServer.MAX_COUNT);
+            requests.flip();
+            write(channel, requests);
+
+            final List<Ksuid> ksuids = new ArrayList<>();
+            readRaw(channel, 2, ksuids);
+            readStrings(channel, 3, ksuids);
+            readRaw(channel, 1, ksuids);
+            readStrings(channel, KsuidServer.MAX_COUNT, ksuids);
+
+            assertThat(ksuids).hasSize(6 + KsuidServer.MAX_COUNT).isSorted().doesNotHaveDuplicates();
+        }
+        assertThat(server.getConnectionCount()).isEqualTo(1);
+        assertThat(server.getRequestCount()).isEqualTo(4);
+        assertThat(server.getKsuidCount()).isEqualTo(6 + KsuidServer.MAX_COUNT);
+    }
+
+    @Test
+    public void connectionsShareTheGenerator() throws IOException {
+        try (SocketChannel first = SocketAddresses.connect(server.getAddress());
+             SocketChannel second = SocketAddresses.connect(server.getAddress())) {
+            final List<Ksuid> ksuids = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                final SocketChannel channel = i % 2 == 0 ? first : second;
+                write(channel, (ByteBuffer) ByteBuffer.allocate(KsuidServer.REQUEST_BYTES).put(KsuidServer.RAW).putInt(100).flip());
+                readRaw(channel, 100, ksuids);
+            }
+            assertThat(ksuids).hasSize(1000).isSorted().doesNotHaveDuplicates();
+        }
+        assertThat(server.getConnectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void drawPayloadsOncePerRequest() throws IOException, InterruptedException {
+        final AtomicInteger draws = new AtomicInteger();
+        final Random random = new Random(4L) {
+            @Override
+            public void nextBytes(final byte[] bytes) {
+                draws.incrementAndGet();
+                super.nextBytes(bytes);
+            }
+        };
+        final KsuidServer unordered = new KsuidServer("127.0.0.1:0", new KsuidGenerator(random));
+        // the generator draws once when it is constructed
+        draws.set(0);
+        final Thread thread = start(unordered);
+        try (SocketChannel channel = SocketAddresses.connect(unordered.getAddress())) {
+            write(channel, (ByteBuffer) ByteBuffer.allocate(KsuidServer.REQUEST_BYTES).put(KsuidServer.RAW).putInt(100).flip());
+            final List<Ksuid> ksuids = new ArrayList<>();
+            readRaw(channel, 100, ksuids);
+            assertThat(ksuids).hasSize(100).doesNotHaveDuplicates();
+        } finally {
+            unordered.close();
+            thread.join();
+        }
+        assertThat(draws).hasValue(1);
+    }
+
+    @Test
+    public void invalidRequestClosesConnection() throws IOException {
+        for (final ByteBuffer request : new ByteBuffer[] {
+            ByteBuffer.allocate(KsuidServer.REQUEST_BYTES).put((byte) 'X').putInt(1),
+            ByteBuffer.allocate(KsuidServer.REQUEST_BYTES).put(KsuidServer.RAW).putInt(0),
+            ByteBuffer.allocate(KsuidServer.REQUEST_BYTES).put(KsuidServer.STRING).putInt(KsuidServer.MAX_COUNT + 1),
+        }) {
+            try (SocketChannel channel = SocketAddresses.connect(server.getAddress())) {
+                request.flip();
+                write(channel, request);
+                assertThat(channel.read(ByteBuffer.allocate(1))).isEqualTo(-1);
+            }
+        }
+    }
+
+    @Test
+    public void closeBeforeRun() throws IOException {
+        final KsuidServer unstarted = new KsuidServer("127.0.0.1:0", new KsuidGenerator(new Random(2L)));
+        final String address = unstarted.getAddress();
+        unstarted.close();
+        assertThatThrownBy(() -> SocketAddresses.connect(address)).isInstanceOf(IOException.class);
+        assertThatCode(unstarted::run).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void loadClient() throws IOException {
+        final LoadClient.Result result = new LoadClient(server.getAddress(), KsuidServer.STRING, 2, 8, 50,
+                                                        Duration.ZERO, Duration.ofMillis(100)).run();
+        assertThat(result.getRequestsPerSecond()).isPositive();
+        assertThat(result.getKsuidsPerSecond()).isEqualTo(result.getRequestsPerSecond() * 50);
+        assertThat(result.getHistogram().getTotalCount()).isPositive();
+        assertThat(server.getKsuidCount()).isGreaterThanOrEqualTo(result.getHistogram().getTotalCount() * 50);
+    }
+
+    @Test
+    public void addresses() throws IOException {
+        assertThat(server.getAddress()).matches("127\\.0\\.0\\.1:\\d+");
+        assertThatThrownBy(() -> new KsuidServer("127.0.0.1", new KsuidGenerator(new Random(3L))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("address is not host:port: 127.0.0.1");
+        assertThatThrownBy(() -> new KsuidServer("127.0.0.1:65536", new KsuidGenerator(new Random(3L))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("address has an invalid port: 127.0.0.1:65536");
+        assertThatThrownBy(() -> SocketAddresses.connect("localhost:x"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("address has an invalid port: localhost:x");
+    }
+
+    @Test
+    public void listenOnLoopbackUnlessAskedForAllInterfaces() throws IOException {
+        assertThat(InetSocketAddresses.parse(":7000").getAddress().isLoopbackAddress()).isTrue();
+        assertThat(InetSocketAddresses.parse("0.0.0.0:7000").getAddress().isAnyLocalAddress()).isTrue();
+        assertThat(InetSocketAddresses.parse("[::]:7000").getAddress().isAnyLocalAddress()).isTrue();
+        try (KsuidServer local = new KsuidServer(":0", new KsuidGenerator(new Random(3L)))) {
+            assertThat(local.getAddress()).startsWith(InetAddress.getLoopbackAddress().getHostAddress() + ":");
+        }
+    }
+
+    private static Thread start(final KsuidServer server) {
+        final Thread thread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void write(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer read(final SocketChannel channel, final int bytes) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while (buffer.hasRemaining()) {
+            assertThat(channel.read(buffer)).isNotNegative();
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void readRaw(final SocketChannel channel, final int count, final List<Ksuid> ksuids) throws IOException {
+        final ByteBuffer buffer = read(channel, count * Ksuid.TOTAL_BYTES);
+        for (int i = 0; i < count; i++) {
+            final byte[] bytes = new byte[Ksuid.TOTAL_BYTES];
+            buffer.get(bytes);
+            ksuids.add(Ksuid.newBuilder().withKsuidBytes(bytes).build());
+        }
+    }
+
+    private static void readStrings(final SocketChannel channel, final int count, final List<Ksuid> ksuids) throws IOException {
+        final String strings = new String(read(channel, count * KsuidServer.STRING_BYTES).array(), US_ASCII);
+        for (int i = 0; i < count; i++) {
+            ksuids.add(Ksuid.fromString(strings.substring(i * KsuidServer.STRING_BYTES, (i + 1) * KsuidServer.STRING_BYTES)));
+        }
+    }
+}
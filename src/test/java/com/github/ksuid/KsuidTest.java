@@ -8,6 +8,9 @@ import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.time.Clock;
 import java.time.Duration;
@@ -17,6 +20,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.joining;
@@ -69,6 +73,13 @@ public class KsuidTest {
         assertThat(Ksuid.fromString(ksuidString)).isEqualTo(ksuid);
     }
     
+    @Test
+    public void fromStringBoundaries() {
+        assertThat(Ksuid.fromString("000000000000000000000000000").asRaw()).isEqualTo("0000000000000000000000000000000000000000");
+        assertThat(Ksuid.fromString("aWgEPTl1tmebfsQzFP4bxwgy80V").asRaw()).isEqualTo("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF");
+        assertThat(Ksuid.fromString("aWgEPTl1tmebfsQzFP4bxwgy80V").toString()).isEqualTo("aWgEPTl1tmebfsQzFP4bxwgy80V");
+    }
+
     @Theory
     public void fromInstant(final Ksuid ksuid) {
         final Instant instant = ksuid.getInstant();
@@ -167,6 +178,37 @@ public class KsuidTest {
         assertThat(list).isEqualTo(orderedList);
     }
 
+    @Test
+    public void inspectAndLogStringsMatchFormatterOutput() {
+        final KsuidGenerator generator = new KsuidGenerator(new SecureRandom());
+        for (int i = 0; i < 100; i++) {
+            final Ksuid ksuid = generator.newKsuid(Instant.ofEpochSecond(Ksuid.EPOCH + (i * 7_919_993L) % (1L << 32)));
+            assertThat(ksuid.toInspectString())
+                    .isEqualTo(String.format("REPRESENTATION:%n%n  String: %1$s%n     Raw: %2$s%n%nCOMPONENTS:%n%n       Time: %3$s%n  Timestamp: %4$d%n    Payload: %5$s%n",
+                                             ksuid, ksuid.asRaw(), ksuid.getTime(), ksuid.getTimestamp(), ksuid.getPayload()));
+            assertThat(ksuid.toLogString())
+                    .isEqualTo("Ksuid[string = " + ksuid + ", timestamp = " + ksuid.getTimestamp()
+                                       + ", payload = " + Arrays.toString(Hex.hexDecode(ksuid.getPayload()))
+                                       + ", ksuidBytes = " + Arrays.toString(ksuid.asBytes()) + "]");
+        }
+    }
+
+    @Test
+    public void comparableMatchesStringOrder() {
+        final Ksuid min = Ksuid.fromString("000000000000000000000000000");
+        final Ksuid high = Ksuid.fromString("aWgEPTl1tmebfsQzFP4bxwgy80V");
+        final Ksuid signed = Ksuid.newBuilder().withTimestamp(0x80000000).withPayload(new byte[16]).build();
+        assertThat(min).isLessThan(signed);
+        assertThat(signed).isLessThan(high);
+
+        final KsuidGenerator generator = new KsuidGenerator(new SecureRandom());
+        for (int i = 0; i < 1000; i++) {
+            final Ksuid left = generator.newKsuid(Instant.ofEpochSecond(1_400_000_000L + i % 3));
+            final Ksuid right = generator.newKsuid(Instant.ofEpochSecond(1_400_000_000L + i % 2));
+            assertThat(Integer.signum(left.compareTo(right))).isEqualTo(Integer.signum(left.toString().compareTo(right.toString())));
+        }
+    }
+
     @Theory
     public void constructWithIncorrectPayloadSize(final int incorrectSize) {
         assertThatCode(() -> Ksuid.newBuilder().withTimestamp(TIMESTAMP).withPayload(new byte[incorrectSize]).build())
@@ -194,4 +236,197 @@ public class KsuidTest {
         final Ksuid copy = SerializationUtils.roundtrip(ksuid);
         assertThat(copy).isEqualTo(ksuid);
     }
+
+    @Test
+    public void nilAndMax() {
+        assertThat(Ksuid.NIL.toString()).isEqualTo("000000000000000000000000000");
+        assertThat(Ksuid.MAX.toString()).isEqualTo("aWgEPTl1tmebfsQzFP4bxwgy80V");
+        assertThat(Ksuid.NIL.asRaw()).isEqualTo("0000000000000000000000000000000000000000");
+        assertThat(Ksuid.MAX.asRaw()).isEqualTo("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF");
+    }
+
+    @Test
+    public void nextAndPrev() {
+        final Ksuid ksuid = Ksuid.fromString(KSUID_STRING);
+        assertThat(ksuid.next().asRaw()).isEqualTo("0669F7EFB5A1CD34B5F99D1154FB6853345C9736");
+        assertThat(ksuid.prev().asRaw()).isEqualTo("0669F7EFB5A1CD34B5F99D1154FB6853345C9734");
+        assertThat(ksuid.next().prev()).isEqualTo(ksuid);
+        assertThat(ksuid.next()).isGreaterThan(ksuid);
+
+        // carries and borrows cross the payload words into the timestamp
+        final Ksuid endOfSecond = Ksuid.newBuilder().withKsuidBytes(Hex.hexDecode("0669F7EFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF")).build();
+        assertThat(endOfSecond.next().asRaw()).isEqualTo("0669F7F000000000000000000000000000000000");
+        assertThat(endOfSecond.next().prev()).isEqualTo(endOfSecond);
+        final Ksuid lowWordEnd = Ksuid.newBuilder().withKsuidBytes(Hex.hexDecode("0669F7EF0000000000000000FFFFFFFFFFFFFFFF")).build();
+        assertThat(lowWordEnd.next().asRaw()).isEqualTo("0669F7EF000000000000000100000000" + "00000000");
+
+        assertThat(Ksuid.MAX.next()).isSameAs(Ksuid.MAX);
+        assertThat(Ksuid.NIL.prev()).isSameAs(Ksuid.NIL);
+        assertThat(Ksuid.NIL.next().asRaw()).isEqualTo("0000000000000000000000000000000000000001");
+        assertThat(Ksuid.MAX.prev().asRaw()).isEqualTo("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFE");
+    }
+
+    @Test
+    public void plusSaturates() {
+        final Ksuid ksuid = Ksuid.fromString(KSUID_STRING);
+        assertThat(ksuid.plus(0)).isSameAs(ksuid);
+        assertThat(Ksuid.MAX.prev().plus(Long.MAX_VALUE)).isSameAs(Ksuid.MAX);
+        assertThat(Ksuid.NIL.next().plus(Long.MIN_VALUE)).isSameAs(Ksuid.NIL);
+        assertThat(Ksuid.NIL.plus(Long.MIN_VALUE)).isSameAs(Ksuid.NIL);
+        // (2^63 - 1) - 2^63 goes below zero and saturates before the last step
+        assertThat(Ksuid.NIL.plus(Long.MAX_VALUE).plus(Long.MIN_VALUE).plus(1)).isEqualTo(Ksuid.NIL.next());
+        assertThat(Ksuid.MAX.plus(Long.MIN_VALUE).asRaw()).isEqualTo("FFFFFFFFFFFFFFFFFFFFFFFF7FFFFFFFFFFFFFFF");
+    }
+
+    @Test
+    public void arithmeticMatchesBigInteger() {
+        final Random random = new Random(1L);
+        final BigInteger max = BigInteger.ONE.shiftLeft(160).subtract(BigInteger.ONE);
+        for (int i = 0; i < 10_000; i++) {
+            final byte[] bytes = new byte[20];
+            random.nextBytes(bytes);
+            if (i % 4 == 1) {
+                // near a word boundary
+                Arrays.fill(bytes, 4 + random.nextInt(16), 20, (byte) (i % 8 == 1 ? 0xFF : 0));
+            }
+            final Ksuid ksuid = Ksuid.newBuilder().withKsuidBytes(bytes).build();
+            final BigInteger value = new BigInteger(1, bytes);
+            final long delta = i % 3 == 0 ? random.nextInt(1000) - 500 : random.nextLong();
+
+            final BigInteger sum = value.add(BigInteger.valueOf(delta)).max(BigInteger.ZERO).min(max);
+            assertThat(new BigInteger(1, ksuid.plus(delta).asBytes())).isEqualTo(sum);
+
+            final Ksuid other = i % 2 == 0 ? ksuid.plus(delta) : Ksuid.newBuilder().withKsuidBytes(bytes.clone()).build().plus(random.nextLong());
+            final BigInteger distance = new BigInteger(1, ksuid.asBytes()).subtract(new BigInteger(1, other.asBytes())).abs();
+            final long expected = distance.bitLength() > 64 ? -1 : distance.longValue();
+            assertThat(ksuid.distance(other)).isEqualTo(expected).isEqualTo(other.distance(ksuid));
+        }
+    }
+
+    @Test
+    public void distance() {
+        final Ksuid endOfSecond = Ksuid.newBuilder().withKsuidBytes(Hex.hexDecode("0669F7EFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF0")).build();
+        assertThat(endOfSecond.distance(endOfSecond)).isZero();
+        assertThat(endOfSecond.distance(endOfSecond.plus(100))).isEqualTo(100);
+        assertThat(endOfSecond.plus(100).distance(endOfSecond)).isEqualTo(100);
+        assertThat(Ksuid.NIL.distance(Ksuid.MAX)).isEqualTo(-1);
+        assertThat(Ksuid.NIL.distance(Ksuid.NIL.plus(-1L >>> 1).plus(-1L >>> 1).plus(1))).isEqualTo(-1L);
+        assertThat(Ksuid.NIL.distance(Ksuid.NIL.plus(-1L >>> 1).plus(-1L >>> 1).plus(2))).isEqualTo(-1);
+        assertThat(Long.toUnsignedString(Ksuid.NIL.distance(Ksuid.NIL.plus(-1L >>> 1).plus(-1L >>> 1))))
+                .isEqualTo("18446744073709551614");
+    }
+
+    @Test
+    public void timestampOfString() {
+        assertThat(Ksuid.timestampOf(KSUID_STRING)).isEqualTo(TIMESTAMP);
+        assertThat(Ksuid.timestampOf(new StringBuilder(KSUID_STRING))).isEqualTo(TIMESTAMP);
+        assertThat(Ksuid.instantOf(KSUID_STRING)).isEqualTo(Ksuid.fromString(KSUID_STRING).getInstant());
+        assertThat(Ksuid.timestampOf(Ksuid.MAX.toString())).isEqualTo(-1);
+        assertThat(Ksuid.timestampOf(Ksuid.NIL.toString())).isZero();
+        assertThat(Ksuid.timestampOf(Ksuid.fromWords(5, -1, -1).toString())).isEqualTo(5);
+        assertThat(Ksuid.timestampOf(Ksuid.fromWords(6, 0, 0).toString())).isEqualTo(6);
+
+        assertThatCode(() -> Ksuid.timestampOf("aWgEPTl1tmebfsQzFP4bxwgy80W"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string exceeds the maximum value of 20 bytes");
+        assertThatCode(() -> Ksuid.timestampOf("0ujtsYcgvSTl8PAuAdqWYSMnLO"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string is not expected length of 27 characters");
+        assertThatCode(() -> Ksuid.instantOf("0ujtsYcgvSTl8PAuAdqWYSMnLO-"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'-' is not a valid Base62 character");
+    }
+
+    @Test
+    public void timestampOfMatchesFullDecode() {
+        final Random random = new Random(46L);
+        final char[] chars = new char[27];
+        for (int i = 0; i < 100_000; i++) {
+            final String string;
+            if (i % 2 == 0) {
+                final byte[] bytes = new byte[20];
+                random.nextBytes(bytes);
+                string = Ksuid.newBuilder().withKsuidBytes(bytes).build().toString();
+            } else {
+                // any 27 Base62 characters, about a quarter of them too large for 20 bytes
+                chars[0] = Base62.BASE_62_CHARACTERS[random.nextInt(37)];
+                for (int j = 1; j < chars.length; j++) {
+                    chars[j] = Base62.BASE_62_CHARACTERS[random.nextInt(62)];
+                }
+                string = new String(chars);
+            }
+            Ksuid decoded;
+            try {
+                decoded = Ksuid.fromString(string);
+            } catch (final IllegalArgumentException e) {
+                assertThatCode(() -> Ksuid.timestampOf(string)).isInstanceOf(IllegalArgumentException.class);
+                continue;
+            }
+            assertThat(Ksuid.timestampOf(string)).isEqualTo(decoded.getTimestamp());
+            assertThat(Ksuid.instantOf(string)).isEqualTo(decoded.getInstant());
+            assertThat(Ksuid.timestampOf(decoded.asBytes(), 0)).isEqualTo(decoded.getTimestamp());
+        }
+    }
+
+    @Test
+    public void timestampOfBytes() {
+        final byte[] records = new byte[44];
+        System.arraycopy(Ksuid.fromString(KSUID_STRING).asBytes(), 0, records, 24, 20);
+        assertThat(Ksuid.timestampOf(records, 24)).isEqualTo(TIMESTAMP);
+        assertThat(Ksuid.timestampOf(records, 40)).isEqualTo(Bytes.getInt(records, 40));
+        assertThatCode(() -> Ksuid.timestampOf(records, 41))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("offset 41 is out of bounds for length 44");
+        assertThatCode(() -> Ksuid.timestampOf(records, -1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void lazyFromString() {
+        final Ksuid eager = Ksuid.fromString(KSUID_STRING);
+        final Ksuid lazy = Ksuid.fromStringLazy(KSUID_STRING);
+        assertThat(lazy.toString()).isSameAs(KSUID_STRING);
+        assertThat(lazy).isEqualTo(eager).hasSameHashCodeAs(eager).isEqualByComparingTo(eager);
+        assertThat(eager).isEqualTo(lazy).isEqualByComparingTo(lazy);
+        assertThat(lazy.getTimestamp()).isEqualTo(TIMESTAMP);
+        assertThat(lazy.getPayload()).isEqualTo(PAYLOAD_RAW);
+        assertThat(lazy.asBytes()).isEqualTo(KSUID_BYTES);
+        assertThat(lazy.toLogString()).isEqualTo(eager.toLogString());
+        assertThat(lazy.toInspectString()).isEqualTo(eager.toInspectString());
+        assertThat(lazy.next()).isEqualTo(eager.next());
+        assertThat(lazy.plus(0)).isSameAs(lazy);
+        assertThat(lazy.distance(eager.plus(7))).isEqualTo(7);
+        assertThat(eager.plus(7).distance(lazy)).isEqualTo(7);
+        assertThat(Ksuid.fromStringLazy(Ksuid.MAX.toString())).isEqualTo(Ksuid.MAX);
+
+        final Ksuid copy = SerializationUtils.roundtrip(lazy);
+        assertThat(copy.getClass()).isEqualTo(Ksuid.class);
+        assertThat(copy).isEqualTo(eager);
+    }
+
+    @Test
+    public void lazyFromStringValidates() {
+        assertThatCode(() -> Ksuid.fromStringLazy("0ujtsYcgvSTl8PAuAdqWYSMnLO"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string is not expected length of 27 characters");
+        assertThatCode(() -> Ksuid.fromStringLazy("0ujtsYcgvSTl8PAuAdqWYSMn-Ov"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'-' is not a valid Base62 character");
+        assertThatCode(() -> Ksuid.fromStringLazy("aWgEPTl1tmebfsQzFP4bxwgy80W"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string exceeds the maximum value of 20 bytes");
+    }
+
+    @Test
+    public void lazyOverridesAllPublicMethods() throws NoSuchMethodException {
+        // a method reading the fields of the lazy instance itself would see no value
+        final Class<?> lazy = Ksuid.fromStringLazy(KSUID_STRING).getClass();
+        for (final Method method : Ksuid.class.getDeclaredMethods()) {
+            final int modifiers = method.getModifiers();
+            if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+                assertThat(lazy.getDeclaredMethod(method.getName(), method.getParameterTypes()).getDeclaringClass())
+                        .as(method.toString())
+                        .isEqualTo(lazy);
+            }
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class KsuidUniquenessCheckerTest {
+
+    @Test
+    public void findDuplicates() {
+        final List<Ksuid> ksuids = randomKsuids(new KsuidGenerator(new Random(1L)), 100_000);
+        final Ksuid duplicate = ksuids.get(4_242);
+        ksuids.add(duplicate);
+        ksuids.add(ksuids.get(99_999));
+
+        final KsuidUniquenessChecker checker = new KsuidUniquenessChecker(ksuids.size(), 1e-4);
+        assertThat(checker.findDuplicates(ksuids::stream)).containsExactlyInAnyOrder(duplicate, ksuids.get(99_999));
+        assertThat(checker.getCount()).isEqualTo(100_002);
+    }
+
+    @Test
+    public void noDuplicatesSkipsSecondPass() {
+        final List<Ksuid> ksuids = randomKsuids(new KsuidGenerator(new Random(2L)), 10_000);
+        final KsuidUniquenessChecker checker = new KsuidUniquenessChecker(ksuids.size(), 1e-9);
+        final int[] passes = new int[1];
+        assertThat(checker.findDuplicates(() -> {
+            passes[0]++;
+            return ksuids.stream();
+        })).isEmpty();
+        assertThat(passes[0]).isEqualTo(1);
+    }
+
+    @Test
+    public void falsePositiveRateIsNearTarget() {
+        final KsuidGenerator random = new KsuidGenerator(new Random(3L));
+        final MonotonicKsuidGenerator monotonic = new MonotonicKsuidGenerator(new Random(4L), Clock.fixed(Instant.now(), ZoneOffset.UTC));
+        for (final KsuidGenerator generator : new KsuidGenerator[] {random, monotonic}) {
+            final KsuidUniquenessChecker checker = new KsuidUniquenessChecker(200_000, 0.01);
+            for (int i = 0; i < 200_000; i++) {
+                checker.add(generator.newKsuid());
+            }
+            // the rate rises towards the target as the filter fills up
+            assertThat(checker.getSuspectCount()).isBetween(1, 200_000 / 100 * 2);
+        }
+    }
+
+    @Test
+    public void stringsAndRecords() {
+        final Ksuid ksuid = Ksuid.fromString("24rUCafWbTglyvWlQEuaxKqqiuY");
+        final byte[] records = new byte[45];
+        System.arraycopy(ksuid.asBytes(), 0, records, 25, 20);
+
+        final KsuidUniquenessChecker checker = new KsuidUniquenessChecker(10, 1e-6);
+        assertThat(checker.add("24rUCafWbTglyvWlQEuaxKqqiuY")).isFalse();
+        assertThat(checker.add(records, 25)).isTrue();
+        checker.confirm(ksuid);
+        checker.confirm("24rUCafWbTglyvWlQEuaxKqqiuY");
+        assertThat(checker.getDuplicates()).containsExactly(ksuid);
+        assertThatCode(() -> checker.add(ksuid))
+                .isExactlyInstanceOf(IllegalStateException.class)
+                .hasMessage("cannot add KSUIDs after the second pass has started");
+    }
+
+    @Test
+    public void sizing() {
+        final KsuidUniquenessChecker checker = new KsuidUniquenessChecker(1_000_000, 1e-6);
+        assertThat(checker.getHashCount()).isEqualTo(16);
+        assertThat(checker.getFilterBytes()).isBetween(3_594_000L, 3_595_000L);
+        assertThatCode(() -> new KsuidUniquenessChecker(10, 1))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("falsePositiveRate must be between 0 and 1 exclusive");
+        assertThatCode(() -> new KsuidUniquenessChecker(10, 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Ksuid> randomKsuids(final KsuidGenerator generator, final int count) {
+        final List<Ksuid> ksuids = new ArrayList<>(count + 2);
+        for (int i = 0; i < count; i++) {
+            ksuids.add(generator.newKsuid());
+        }
+        return ksuids;
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class KsuidViewTest {
+    private static final Ksuid KSUID = Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+
+    @Test
+    public void readRecord() {
+        final byte[] records = new byte[45];
+        System.arraycopy(KSUID.asBytes(), 0, records, 25, 20);
+        final KsuidView view = new KsuidView().wrap(records, 25);
+        assertThat(view.getTimestamp()).isEqualTo(KSUID.getTimestamp());
+        assertThat(view.getInstant()).isEqualTo(KSUID.getInstant());
+        assertThat(Long.toHexString(view.getPayloadHigh())).isEqualToIgnoringCase("B5A1CD34B5F99D11");
+        assertThat(Long.toHexString(view.getPayloadLow())).isEqualToIgnoringCase("54FB6853345C9735");
+        assertThat(view.toString()).isEqualTo(KSUID.toString());
+        assertThat(view.toKsuid()).isEqualTo(KSUID);
+        assertThat(view.contentEquals(KSUID)).isTrue();
+        assertThat(view.contentEquals(KSUID.next())).isFalse();
+        assertThat(view.compareTo(KSUID)).isZero();
+
+        assertThat(new KsuidView().contentEquals(Ksuid.NIL)).isTrue();
+        assertThat(new KsuidView().toString()).isEqualTo(Ksuid.NIL.toString());
+    }
+
+    @Test
+    public void rewrapBuffers() {
+        final Ksuid other = Ksuid.fromString("24rUCafWbTglyvWlQEuaxKqqiuY");
+        final ByteBuffer direct = ByteBuffer.allocateDirect(50);
+        direct.position(3);
+        direct.put(KSUID.asBytes()).put(other.asBytes());
+        final ByteBuffer littleEndian = direct.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+        final KsuidView view = new KsuidView();
+        assertThat(view.wrap(direct, 3).toString()).isEqualTo(KSUID.toString());
+        assertThat(view.wrap(littleEndian, 23).toString()).isEqualTo(other.toString());
+        assertThat(view.toKsuid()).isEqualTo(other);
+        assertThat(view.wrap(KSUID).toKsuid()).isEqualTo(KSUID);
+        assertThat(direct.position()).isEqualTo(43);
+
+        // the record is read on wrap
+        final byte[] bytes = KSUID.asBytes();
+        view.wrap(bytes, 0);
+        bytes[0]++;
+        assertThat(view.contentEquals(KSUID)).isTrue();
+
+        assertThatThrownBy(() -> view.wrap(direct, 31))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("index 31 is out of bounds for limit 50");
+        assertThatThrownBy(() -> view.wrap(new byte[19], 0))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("offset 0 is out of bounds for length 19");
+        assertThatThrownBy(() -> view.wrap(bytes, -1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void compareAgreesWithKsuid() {
+        final Random random = new Random(1L);
+        final List<Ksuid> ksuids = new ArrayList<>(Arrays.asList(Ksuid.NIL, Ksuid.MAX));
+        for (int i = 0; i < 200; i++) {
+            final byte[] bytes = new byte[Ksuid.TOTAL_BYTES];
+            random.nextBytes(bytes);
+            if (i % 2 == 0) {
+                System.arraycopy(ksuids.get(random.nextInt(ksuids.size())).asBytes(), 0, bytes, 0, random.nextInt(21));
+            }
+            ksuids.add(Ksuid.newBuilder().withKsuidBytes(bytes).build());
+        }
+        final KsuidView left = new KsuidView();
+        final KsuidView right = new KsuidView();
+        for (final Ksuid a : ksuids) {
+            left.wrap(a);
+            for (final Ksuid b : ksuids) {
+                right.wrap(b);
+                final int expected = Integer.signum(a.compareTo(b));
+                assertThat(Integer.signum(left.compareTo(right))).isEqualTo(expected);
+                assertThat(Integer.signum(left.compareTo(b))).isEqualTo(expected);
+                assertThat(left.contentEquals(b)).isEqualTo(a.equals(b));
+            }
+        }
+    }
+
+    @Test
+    public void encodeIntoCallerBuffers() {
+        final KsuidView view = new KsuidView().wrap(KSUID);
+        final char[] chars = new char[30];
+        view.encodeTo(chars, 3);
+        assertThat(new String(chars, 3, 27)).isEqualTo(KSUID.toString());
+        final byte[] ascii = new byte[27];
+        view.encodeTo(ascii, 0);
+        assertThat(new String(ascii, US_ASCII)).isEqualTo(KSUID.toString());
+        final byte[] raw = new byte[22];
+        view.copyTo(raw, 2);
+        assertThat(Arrays.copyOfRange(raw, 2, 22)).isEqualTo(KSUID.asBytes());
+        final ByteBuffer buffer = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+        view.copyTo(buffer);
+        view.wrap(Ksuid.MAX).copyTo(buffer);
+        assertThat(buffer.position()).isEqualTo(40);
+        assertThat(Arrays.copyOf(buffer.array(), 20)).isEqualTo(KSUID.asBytes());
+        assertThat(Arrays.copyOfRange(buffer.array(), 20, 40)).isEqualTo(Ksuid.MAX.asBytes());
+
+        assertThatThrownBy(() -> view.copyTo(buffer)).isInstanceOf(BufferOverflowException.class);
+        assertThatThrownBy(() -> view.encodeTo(chars, 4))
+                .isInstanceOf(IndexOutOfBoundsException.class)
+                .hasMessage("offset 4 is out of bounds for length 30");
+        assertThatThrownBy(() -> view.encodeTo(ascii, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> view.copyTo(raw, 3)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getTotalCount()).isEqualTo(100);
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(50);
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(99);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100);
+        assertThat(histogram.getMaxValue()).isEqualTo(100);
+        assertThat(histogram.getMean()).isEqualTo(50.5);
+    }
+
+    @Test
+    public void bucketsCoverAllValuesWithBoundedError() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertThat(index).isBetween(previous, previous + 1);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isBetween(value, value + value / 64);
+            previous = index;
+        }
+        final int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertThat(LatencyHistogram.highestEquivalentValue(last)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void percentilesMatchSortedValues() {
+        final Random random = new Random(3L);
+        final long[] values = new long[10_000];
+        final LatencyHistogram first = new LatencyHistogram();
+        final LatencyHistogram second = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            (i % 2 == 0 ? first : second).record(values[i]);
+        }
+        first.add(second);
+        Arrays.sort(values);
+
+        assertThat(first.getTotalCount()).isEqualTo(values.length);
+        assertThat(first.getMaxValue()).isEqualTo(values[values.length - 1]);
+        for (final double percentile : new double[] {50, 90, 99, 99.9}) {
+            final long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            assertThat(first.getValueAtPercentile(percentile)).isBetween(expected, expected + expected / 64);
+        }
+    }
+
+    @Test
+    public void empty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+        assertThat(histogram.getMean()).isZero();
+    }
+}
@@ -2,18 +2,26 @@ package com.github.ksuid;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.MockedConstruction;
 import org.mockito.Mockito;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 import java.util.TimeZone;
@@ -26,8 +34,53 @@ import static org.assertj.core.api.Assertions.assertThatNoException;
 
 public class MainTest {
 
+    private static final String USAGE = "Usage of ksuid:\n"
+            + "  -bench\n"
+            + "        Measure throughput, allocation and latency of KSUID operations instead of generating KSUIDs.\n"
+            + "  -bench-format string\n"
+            + "        Benchmark output, one of text or json. (default \"text\")\n"
+            + "  -bench-threads int\n"
+            + "        Run benchmarks with 1, 2, 4, ... up to this many threads. (default 1)\n"
+            + "  -bench-time duration\n"
+            + "        Measurement time of each benchmark and of -load. (default 3s)\n"
+            + "  -bench-warmup duration\n"
+            + "        Warm-up time of each benchmark and of -load. (default 1s)\n"
+            + "  -check string\n"
+            + "        Check the KSUIDs in this file for duplicates. Reads text, raw records with -f raw, or KSUID files.\n"
+            + "  -check-fpp float\n"
+            + "        False positive rate of the Bloom filter used by -check. (default 1e-06)\n"
+            + "  -f string\n"
+            + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
+            + "  -load string\n"
+            + "        Measure throughput and latency of the -serve server at this address. Requests -f string or raw.\n"
+            + "  -load-batch int\n"
+            + "        Number of KSUIDs per -load request. (default 100)\n"
+            + "  -load-connections int\n"
+            + "        Number of -load connections, each on its own thread. (default 1)\n"
+            + "  -load-depth int\n"
+            + "        Number of -load requests in flight on each connection. (default 16)\n"
+            + "  -mmap\n"
+            + "        With -o, preallocate the file and write it through a memory mapping. Needs -f string, payload or raw.\n"
+            + "  -n int\n"
+            + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
+            + "  -o string\n"
+            + "        Write output to this file instead of standard output.\n"
+            + "  -p int\n"
+            + "        Number of threads generating KSUIDs. Output is sorted unless -u is given. (default 1)\n"
+            + "  -serve string\n"
+            + "        Hand out KSUIDs to clients connecting to this address, host:port or unix:/path on Java 17+.\n"
+            + "        Monotonic unless -u is given.\n"
+            + "  -t string\n"
+            + "        The Go template used to format the output.\n"
+            + "  -u    Write KSUIDs generated with -p in the order they are generated instead of sorting them,\n"
+            + "        or serve unordered KSUIDs with -serve.\n"
+            + "  -v    Turn on verbose mode.\n";
+
     private static final TimeZone defaultTimeZone = TimeZone.getDefault();
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     @BeforeClass
     public static void setUp() {
         TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
@@ -42,15 +95,7 @@ public class MainTest {
     public void testUsage() {
         final RunResult runResult = runMain("-h");
         assertThat(runResult.exitCode).isZero();
-        assertThat(runResult.stdout).isEqualTo("Usage of ksuid:\n"
-                + "  -f string\n"
-                + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
-                + "  -n int\n"
-                + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
-                + "  -t string\n"
-                + "        The Go template used to format the output.\n"
-                + "  -v    Turn on verbose mode.\n"
-                + "");
+        assertThat(runResult.stdout).isEqualTo(USAGE);
     }
 
     @Test
@@ -69,6 +114,103 @@ public class MainTest {
                 + "24rUCeNzQ1KoETEDtwGE1wdazYk\n");
     }
 
+    @Test
+    public void testGenerateParallelOrdered() {
+        // more than one block per worker, all in the same second
+        final RunResult runResult = runMain("-n", "20000", "-p", "3");
+        assertThat(runResult.exitCode).isZero();
+        final List<String> lines = Arrays.asList(runResult.stdout.split("\n"));
+        assertThat(lines).hasSize(20000).isSorted().doesNotHaveDuplicates();
+        assertThat(lines).allSatisfy(line -> assertThat(Ksuid.fromString(line).getInstant()).isEqualTo("2022-02-09T06:27:52Z"));
+        // the payloads are random, not counted up from the first KSUID of the second
+        for (int i = 1; i < lines.size(); i++) {
+            final BigInteger previous = new BigInteger(Ksuid.fromString(lines.get(i - 1)).getPayload(), 16);
+            assertThat(new BigInteger(Ksuid.fromString(lines.get(i)).getPayload(), 16)).isNotEqualTo(previous.add(BigInteger.ONE));
+        }
+    }
+
+    @Test
+    public void testGenerateParallelUnordered() {
+        final RunResult runResult = runMain("-n", "10000", "-p", "3", "-u", "-v", "-f", "timestamp");
+        assertThat(runResult.exitCode).isZero();
+        final List<String> lines = Arrays.asList(runResult.stdout.split("\n"));
+        assertThat(lines).hasSize(10000).doesNotHaveDuplicates();
+        assertThat(lines).allSatisfy(line -> assertThat(line).matches("[0-9A-Za-z]{27}: 244388072"));
+    }
+
+    @Test
+    public void testOutputFile() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("ksuids.txt");
+        final RunResult runResult = runMain("-n", "3", "-o", file.toString());
+        assertThat(runResult.exitCode).isZero();
+        assertThat(runResult.stdout).isEmpty();
+        assertThat(new String(Files.readAllBytes(file), UTF_8)).isEqualTo(runMain("-n", "3").stdout);
+    }
+
+    @Test
+    public void testOutputFileMapped() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("ksuids.txt");
+        assertThat(runMain("-n", "5000", "-p", "2", "-v", "-mmap", "-o", file.toString()).exitCode).isZero();
+        assertThat(new String(Files.readAllBytes(file), UTF_8)).isEqualTo(runMain("-n", "5000", "-p", "2", "-v").stdout);
+
+        // the mapping is sized exactly, whatever the platform's line separator
+        final Path strings = folder.getRoot().toPath().resolve("strings.txt");
+        assertThat(runMain("-n", "3", "-mmap", "-o", strings.toString()).exitCode).isZero();
+        assertThat(Files.size(strings)).isEqualTo(3 * (Base62.KSUID_ENCODED_LENGTH + System.lineSeparator().length()));
+
+        final Path raw = folder.getRoot().toPath().resolve("ksuids.bin");
+        assertThat(runMain("-f", "raw", "-mmap", "-o", raw.toString(), "24rUCafWbTglyvWlQEuaxKqqiuY").exitCode).isZero();
+        assertThat(Files.readAllBytes(raw)).isEqualTo(Ksuid.fromString("24rUCafWbTglyvWlQEuaxKqqiuY").asBytes());
+    }
+
+    @Test
+    public void testOutputFileErrors() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("ksuids.txt");
+        assertThat(runMain("-f", "time", "-mmap", "-o", file.toString()).stdout)
+                .isEqualTo("-mmap needs a fixed-width format: string, payload or raw\n" + USAGE);
+        final String directory = folder.getRoot().toString();
+        assertThat(runMain("-o", directory).stdout).startsWith("Error when writing \"" + directory + "\": ");
+    }
+
+    @Test
+    public void testCheckUnique() {
+        final Path file = folder.getRoot().toPath().resolve("ksuids.txt");
+        assertThat(runMain("-n", "20000", "-p", "2", "-o", file.toString()).exitCode).isZero();
+        final RunResult runResult = runMain("-check", file.toString(), "-check-fpp", "0.01");
+        assertThat(runResult.exitCode).isZero();
+        assertThat(runResult.stdout).matches("Checked 20000 KSUIDs in \\d+\\.\\d{3} s \\(\\d+/s\\)\n"
+                + "Bloom filter: 24000 bytes, 7 hashes, false positive rate 0.01\n"
+                + "Suspects: \\d+, confirmed in \\d+\\.\\d{3} s\n"
+                + "Duplicates: 0\n");
+    }
+
+    @Test
+    public void testCheckDuplicates() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("ksuids.bin");
+        assertThat(runMain("-n", "1000", "-f", "raw", "-o", file.toString()).exitCode).isZero();
+        final byte[] records = Files.readAllBytes(file);
+        final byte[] withDuplicates = Arrays.copyOf(records, records.length + 40);
+        System.arraycopy(records, 400, withDuplicates, records.length, 20);
+        System.arraycopy(records, 400, withDuplicates, records.length + 20, 20);
+        Files.write(file, withDuplicates);
+
+        final RunResult runResult = runMain("-check", file.toString(), "-f", "raw");
+        assertThat(runResult.exitCode).isOne();
+        final byte[] duplicate = Arrays.copyOfRange(records, 400, 420);
+        assertThat(runResult.stdout).contains("Checked 1002 KSUIDs")
+                                    .endsWith("Duplicates: 1\n" + Ksuid.newBuilder().withKsuidBytes(duplicate).build() + "\n");
+    }
+
+    @Test
+    public void testCheckInvalidFile() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("ksuids.txt");
+        Files.write(file, "24rUCafWbTglyvWlQEuaxKqqiuY\nfoo\n".getBytes(UTF_8));
+        assertThat(runMain("-check", file.toString()).stdout)
+                .isEqualTo("Error when checking \"" + file + "\": line 2 is not a KSUID of 27 characters\n" + USAGE);
+        assertThat(runMain("-check-fpp", "2").stdout)
+                .isEqualTo("invalid value \"2\" for flag -check-fpp: must be between 0 and 1\n" + USAGE);
+    }
+
     @Test
     public void testPositionalArgsNoFlags() {
         final RunResult runResult = runMain("24rUCafWbTglyvWlQEuaxKqqiuY", "24rUCfvIRZ0PqLTVlmt7bCVHnCu");
@@ -153,64 +295,118 @@ public class MainTest {
     public void testBadFormattingFunction() {
         final RunResult runResult = runMain("-f", "foo", "24rUCafWbTglyvWlQEuaxKqqiuY");
         assertThat(runResult.exitCode).isOne();
-        assertThat(runResult.stdout).isEqualTo("Bad formatting function: foo\n"
-                + "Usage of ksuid:\n"
-                + "  -f string\n"
-                + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
-                + "  -n int\n"
-                + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
-                + "  -t string\n"
-                + "        The Go template used to format the output.\n"
-                + "  -v    Turn on verbose mode.\n"
-                + "");
+        assertThat(runResult.stdout).isEqualTo("Bad formatting function: foo\n" + USAGE);
     }
 
     @Test
     public void testBadNumber() {
         final RunResult runResult = runMain("-n", "foo");
         assertThat(runResult.exitCode).isOne();
-        assertThat(runResult.stdout).isEqualTo("invalid value \"foo\" for flag -n: parse error\n"
-                + "Usage of ksuid:\n"
-                + "  -f string\n"
-                + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
-                + "  -n int\n"
-                + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
-                + "  -t string\n"
-                + "        The Go template used to format the output.\n"
-                + "  -v    Turn on verbose mode.\n"
-                + "");
+        assertThat(runResult.stdout).isEqualTo("invalid value \"foo\" for flag -n: parse error\n" + USAGE);
     }
 
     @Test
     public void testUnknownFlag() {
         final RunResult runResult = runMain("-z");
         assertThat(runResult.exitCode).isOne();
-        assertThat(runResult.stdout).isEqualTo("flag provided but not defined: -z\n"
-                + "Usage of ksuid:\n"
-                + "  -f string\n"
-                + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
-                + "  -n int\n"
-                + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
-                + "  -t string\n"
-                + "        The Go template used to format the output.\n"
-                + "  -v    Turn on verbose mode.\n"
-                + "");
+        assertThat(runResult.stdout).isEqualTo("flag provided but not defined: -z\n" + USAGE);
     }
 
     @Test
     public void testBadKsuid() {
         final RunResult runResult = runMain("z");
         assertThat(runResult.exitCode).isOne();
-        assertThat(runResult.stdout).isEqualTo("Error when parsing \"z\": Valid encoded KSUIDs are 27 characters\n"
-                + "Usage of ksuid:\n"
-                + "  -f string\n"
-                + "        One of string, inspect, time, timestamp, payload, raw, or template. (default \"string\")\n"
-                + "  -n int\n"
-                + "        Number of KSUIDs to generate when called with no other arguments. (default 1)\n"
-                + "  -t string\n"
-                + "        The Go template used to format the output.\n"
-                + "  -v    Turn on verbose mode.\n"
-                + "");
+        assertThat(runResult.stdout).isEqualTo("Error when parsing \"z\": Valid encoded KSUIDs are 27 characters\n" + USAGE);
+    }
+
+    @Test
+    public void testBenchText() {
+        final RunResult runResult = runMain("-bench", "-bench-warmup", "5ms", "-bench-time", "10ms", "-bench-threads", "2");
+        assertThat(runResult.exitCode).isZero();
+        final String[] lines = runResult.stdout.split("\n");
+        assertThat(lines).hasSize(35);
+        assertThat(lines[0]).matches("benchmark +threads +ops/s +B/op +p50 +p90 +p99 +p99\\.9 +max");
+        assertThat(lines[1]).matches("generate +1 +\\d+ +(\\d+\\.\\d|NaN)( +\\d+ns){5}");
+        assertThat(lines[2]).startsWith("generate         2 ");
+        assertThat(lines[4]).startsWith("monotonic        2 ");
+        assertThat(lines[6]).startsWith("fastKsuid        2 ");
+        assertThat(lines[14]).startsWith("compare          2 ");
+        assertThat(lines[16]).startsWith("compareKey       2 ");
+        assertThat(lines[18]).startsWith("naiveKey         2 ");
+        assertThat(lines[28]).startsWith("blockDec         2 ");
+        assertThat(lines[34]).startsWith("merge256         2 ");
+    }
+
+    @Test
+    public void testBenchJson() {
+        final RunResult runResult = runMain("-bench", "-bench-format", "json", "-bench-warmup", "0s", "-bench-time", "10ms");
+        assertThat(runResult.exitCode).isZero();
+        final String[] lines = runResult.stdout.split("\n");
+        assertThat(lines).hasSize(17);
+        assertThat(lines[4]).matches("\\{\"benchmark\":\"fromString\",\"threads\":1,\"ops\":\\d+,\"opsPerSecond\":\\d+\\.\\d,"
+                + "\"bytesPerOp\":(\\d+\\.\\d|null),\"latencyNanos\":\\{\"mean\":\\d+\\.\\d,\"p50\":\\d+,\"p90\":\\d+,"
+                + "\"p99\":\\d+,\"p99\\.9\":\\d+,\"max\":\\d+}}");
+    }
+
+    @Test
+    public void testBenchBadFlags() {
+        assertThat(runMain("-bench-time", "3").stdout).isEqualTo("invalid value \"3\" for flag -bench-time: parse error\n" + USAGE);
+        assertThat(runMain("-bench-threads", "0").stdout).isEqualTo("invalid value \"0\" for flag -bench-threads: must be positive\n" + USAGE);
+        assertThat(runMain("-bench-format", "xml").stdout).isEqualTo("Bad benchmark format: xml\n" + USAGE);
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        final KsuidServer server = new KsuidServer("127.0.0.1:0", new MonotonicKsuidGenerator(new Random(1L)));
+        final Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serverThread.start();
+        try {
+            final RunResult runResult = runMain("-load", server.getAddress(), "-f", "raw", "-load-connections", "2",
+                                                "-load-depth", "4", "-load-batch", "10", "-bench-warmup", "0s", "-bench-time", "50ms");
+            assertThat(runResult.exitCode).isZero();
+            final String[] lines = runResult.stdout.split("\n");
+            assertThat(lines).hasSize(2);
+            assertThat(lines[0]).matches(" *connections +depth +batch +format +requests/s +ksuids/s +p50 +p90 +p99 +p99\\.9 +max");
+            assertThat(lines[1]).matches(" +2 +4 +10 +raw +\\d+ +\\d+( +\\d+ns){5}");
+            assertThat(server.getConnectionCount()).isEqualTo(2);
+        } finally {
+            server.close();
+            serverThread.join();
+        }
+    }
+
+    @Test
+    public void testServeAndLoadBadFlags() {
+        assertThat(runMain("-load", "127.0.0.1:1", "-f", "time").stdout).isEqualTo("-load needs -f string or raw\n" + USAGE);
+        assertThat(runMain("-load-batch", "65537").stdout)
+                .isEqualTo("invalid value \"65537\" for flag -load-batch: must be at most 65536\n" + USAGE);
+        assertThat(runMain("-load-depth", "0").stdout).isEqualTo("invalid value \"0\" for flag -load-depth: must be positive\n" + USAGE);
+        assertThat(runMain("-serve", "localhost").stdout)
+                .isEqualTo("Error when serving on \"localhost\": address is not host:port: localhost\n" + USAGE);
+    }
+
+    @Test
+    public void testRandomOnlyCreatedForGeneration() {
+        final AtomicInteger created = new AtomicInteger();
+        final Main parser = new Main(new PrintStream(new ByteArrayOutputStream()), code -> { }, () -> {
+            created.incrementAndGet();
+            return new Random(123L);
+        }, Clock.systemUTC());
+        parser.run("-f", "inspect", "0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+        assertThat(created).hasValue(0);
+
+        final Main generator = new Main(new PrintStream(new ByteArrayOutputStream()), code -> { }, () -> {
+            created.incrementAndGet();
+            return new Random(123L);
+        }, Clock.systemUTC());
+        generator.run("-n", "3");
+        assertThat(created).hasValue(1);
     }
 
     @Test
@@ -0,0 +1,116 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MonotonicKsuidGeneratorTest {
+    private static final Instant NOW = Instant.parse("2022-02-09T06:27:52.573Z");
+    private static final Clock FIXED = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    public void sameSecondIncrementsPayload() {
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(new SecureRandom(), FIXED);
+        final Ksuid first = generator.newKsuid();
+        final Ksuid second = generator.newKsuid();
+
+        assertThat(second.getTimestamp()).isEqualTo(first.getTimestamp());
+        assertThat(second).isGreaterThan(first);
+        assertThat(Ksuid.fromString(second.toString())).isEqualTo(second);
+    }
+
+    @Test
+    public void newSecondGetsRandomPayload() {
+        final byte[] payload = Hex.hexDecode("B5A1CD34B5F99D1154FB6853345C9735");
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(() -> payload.clone(), FIXED);
+        generator.newKsuid(NOW);
+        final Ksuid next = generator.newKsuid(NOW.plusSeconds(1));
+
+        assertThat(next.getInstant()).isEqualTo(NOW.plusSeconds(1).truncatedTo(SECONDS));
+        assertThat(next.getPayload()).isEqualTo("B5A1CD34B5F99D1154FB6853345C9735");
+    }
+
+    @Test
+    public void clockRegressionKeepsCounting() {
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(new SecureRandom(), FIXED);
+        final Ksuid first = generator.newKsuid(NOW);
+        final Ksuid second = generator.newKsuid(NOW.minus(Duration.ofMinutes(5)));
+
+        assertThat(second.getTimestamp()).isEqualTo(first.getTimestamp());
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    public void payloadOverflowCarriesIntoTimestamp() {
+        final byte[] payload = new byte[Ksuid.PAYLOAD_BYTES];
+        Arrays.fill(payload, (byte) 0xFF);
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(() -> payload.clone(), FIXED);
+        final Ksuid first = generator.newKsuid();
+        final Ksuid second = generator.newKsuid();
+
+        assertThat(second.getTimestamp()).isEqualTo(first.getTimestamp() + 1);
+        assertThat(second.getPayload()).isEqualTo("00000000000000000000000000000000");
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    public void failAfterMax() {
+        final byte[] payload = new byte[Ksuid.PAYLOAD_BYTES];
+        Arrays.fill(payload, (byte) 0xFF);
+        final Clock last = Clock.fixed(Instant.ofEpochSecond(Ksuid.EPOCH + 0xFFFFFFFFL), ZoneOffset.UTC);
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(() -> payload.clone(), last);
+
+        assertThat(generator.newKsuid()).isEqualTo(Ksuid.MAX);
+        assertThatThrownBy(generator::newKsuid)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("no KSUID is greater than " + Ksuid.MAX);
+    }
+
+    @Test
+    public void strictlyIncreasingAcrossThreads() throws Exception {
+        final int threads = 8;
+        final int perThread = 10_000;
+        final MonotonicKsuidGenerator generator = new MonotonicKsuidGenerator(new SecureRandom(), FIXED);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<List<Ksuid>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    final List<Ksuid> ksuids = new ArrayList<>(perThread);
+                    for (int j = 0; j < perThread; j++) {
+                        ksuids.add(generator.newKsuid());
+                    }
+                    return ksuids;
+                }));
+            }
+
+            final Set<Ksuid> all = new HashSet<>();
+            for (final Future<List<Ksuid>> future : futures) {
+                final List<Ksuid> ksuids = future.get();
+                for (int j = 1; j < ksuids.size(); j++) {
+                    assertThat(ksuids.get(j)).isGreaterThan(ksuids.get(j - 1));
+                }
+                all.addAll(ksuids);
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+@RunWith(Theories.class)
+public class ShardedKsuidGeneratorTest {
+
+    @DataPoints
+    public static final int[] SHARD_BITS = {1, 8, 10, 17, 31};
+
+    @Theory
+    public void shardRoundTrip(final int shardBits) {
+        final Random random = new Random(shardBits);
+        for (int i = 0; i < 100; i++) {
+            final int shard = random.nextInt() >>> (32 - shardBits);
+            final ShardedKsuidGenerator generator = new ShardedKsuidGenerator(new SecureRandom(), shardBits, shard);
+            final Ksuid ksuid = generator.newKsuid();
+
+            assertThat(ShardedKsuidGenerator.shardOf(ksuid, shardBits)).isEqualTo(shard);
+            assertThat(ShardedKsuidGenerator.shardOf(ksuid.asBytes(), 0, shardBits)).isEqualTo(shard);
+            assertThat(ShardedKsuidGenerator.shardOf(ksuid.toString(), shardBits)).isEqualTo(shard);
+        }
+    }
+
+    @Test
+    public void shardFromRecordAtOffset() {
+        final ShardedKsuidGenerator generator = new ShardedKsuidGenerator(new SecureRandom(), 12, 0xABC);
+        final byte[] records = new byte[3 + 2 * Ksuid.TOTAL_BYTES];
+        System.arraycopy(generator.newKsuid().asBytes(), 0, records, 3, Ksuid.TOTAL_BYTES);
+        System.arraycopy(generator.newKsuid().asBytes(), 0, records, 3 + Ksuid.TOTAL_BYTES, Ksuid.TOTAL_BYTES);
+
+        assertThat(ShardedKsuidGenerator.shardOf(records, 3, 12)).isEqualTo(0xABC);
+        assertThat(ShardedKsuidGenerator.shardOf(records, 3 + Ksuid.TOTAL_BYTES, 12)).isEqualTo(0xABC);
+    }
+
+    @Test
+    public void otherPayloadBitsStayRandom() {
+        final byte[] payload = new byte[Ksuid.PAYLOAD_BYTES];
+        Arrays.fill(payload, (byte) 0xFF);
+        final ShardedKsuidGenerator generator = new ShardedKsuidGenerator(() -> payload.clone(), 4, 0);
+
+        assertThat(generator.newKsuid().getPayload()).isEqualTo("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF0");
+        assertThat(generator.getShardBits()).isEqualTo(4);
+        assertThat(generator.getShard()).isZero();
+    }
+
+    @Test
+    public void invalidShardBits() {
+        assertThatCode(() -> new ShardedKsuidGenerator(new SecureRandom(), 0, 0))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("shardBits must be between 1 and 31");
+        assertThatCode(() -> ShardedKsuidGenerator.shardOf(new byte[Ksuid.TOTAL_BYTES], 0, 32))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("shardBits must be between 1 and 31");
+    }
+
+    @Test
+    public void invalidShard() {
+        assertThatCode(() -> new ShardedKsuidGenerator(new SecureRandom(), 4, 16))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("shard must be between 0 and 15");
+    }
+
+    @Test
+    public void invalidString() {
+        assertThatCode(() -> ShardedKsuidGenerator.shardOf("0ujtsYcgvSTl8PAuAdqWYSMnLO", 8))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ksuid string is not expected length of 27 characters");
+        assertThatCode(() -> ShardedKsuidGenerator.shardOf("0ujtsYcgvSTl8PAuAdqWYSMnLO-", 8))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("'-' is not a valid Base62 character");
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.ksuid;
+
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.time.temporal.ChronoUnit.MICROS;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class SubsecondKsuidGeneratorTest {
+    private static final Instant SECOND = Instant.parse("2022-02-09T06:27:52Z");
+    private static final Clock CLOCK = Clock.fixed(SECOND.plusNanos(573_123_456), ZoneOffset.UTC);
+
+    @Test
+    public void millisRoundTrip() {
+        final SubsecondKsuidGenerator generator = new SubsecondKsuidGenerator(new SecureRandom(), CLOCK, MILLIS);
+        for (int millis = 0; millis < 1_000; millis++) {
+            final Instant instant = SECOND.plusMillis(millis).plusNanos(999_999);
+            final Ksuid ksuid = generator.newKsuid(instant);
+            assertThat(ksuid.getInstant(MILLIS)).isEqualTo(instant.truncatedTo(MILLIS));
+            assertThat(ksuid.getInstant()).isEqualTo(SECOND);
+        }
+    }
+
+    @Test
+    public void microsRoundTrip() {
+        final SubsecondKsuidGenerator generator = new SubsecondKsuidGenerator(new SecureRandom(), CLOCK, MICROS);
+        for (int micros = 0; micros < 1_000_000; micros += 7) {
+            final Instant instant = SECOND.plusNanos(micros * 1_000L + 999);
+            assertThat(generator.newKsuid(instant).getInstant(MICROS)).isEqualTo(instant.truncatedTo(MICROS));
+        }
+        assertThat(generator.newKsuid(SECOND.plusNanos(999_999_999)).getInstant(MICROS)).isEqualTo(SECOND.plusNanos(999_999_000));
+    }
+
+    @Test
+    public void newKsuidUsesClock() {
+        final SubsecondKsuidGenerator generator = new SubsecondKsuidGenerator(new SecureRandom(), CLOCK, MICROS);
+        final Ksuid ksuid = generator.newKsuid();
+        assertThat(ksuid.getInstant(MICROS)).isEqualTo(SECOND.plusNanos(573_123_000));
+        assertThat(ksuid.getInstant(MILLIS)).isEqualTo(SECOND.plusMillis(573));
+        assertThat(ksuid.getInstant(SECONDS)).isEqualTo(SECOND);
+    }
+
+    @Test
+    public void remainingPayloadIsRandom() {
+        final byte[] payload = new byte[Ksuid.PAYLOAD_BYTES];
+        Arrays.fill(payload, (byte) 0xAB);
+        final SubsecondKsuidGenerator generator = new SubsecondKsuidGenerator(() -> payload.clone(), CLOCK, MILLIS);
+        assertThat(generator.newKsuid(SECOND).getPayload()).isEqualTo("0000ABABABABABABABABABABABABABAB");
+        assertThat(generator.getPrecision()).isEqualTo(MILLIS);
+    }
+
+    @Test
+    public void sortsByTimeWithinSecondAndAgainstStandardKsuids() {
+        final SubsecondKsuidGenerator generator = new SubsecondKsuidGenerator(new SecureRandom(), CLOCK, MILLIS);
+        final KsuidGenerator standard = new KsuidGenerator(new SecureRandom());
+
+        final List<Ksuid> ordered = new ArrayList<>();
+        ordered.add(standard.newKsuid(SECOND.minusSeconds(1)));
+        for (int millis = 0; millis < 1_000; millis += 10) {
+            ordered.add(generator.newKsuid(SECOND.plusMillis(millis)));
+        }
+        ordered.add(standard.newKsuid(SECOND.plusSeconds(1)));
+
+        final List<Ksuid> shuffled = new ArrayList<>(ordered);
+        Collections.shuffle(shuffled);
+        Collections.sort(shuffled);
+        assertThat(shuffled).isEqualTo(ordered);
+    }
+
+    @Test
+    public void invalidPrecision() {
+        assertThatCode(() -> new SubsecondKsuidGenerator(new SecureRandom(), CLOCK, SECONDS))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("precision must be MILLIS or MICROS");
+        assertThatCode(() -> Ksuid.newKsuid().getInstant(ChronoUnit.NANOS))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("precision must be MILLIS or MICROS");
+    }
+}
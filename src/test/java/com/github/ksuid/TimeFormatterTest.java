@@ -0,0 +1,83 @@
+package com.github.ksuid;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimeFormatterTest {
+    private static final Locale DEFAULT_FORMAT_LOCALE = Locale.getDefault(Locale.Category.FORMAT);
+
+    @After
+    public void restoreLocale() {
+        Locale.setDefault(Locale.Category.FORMAT, DEFAULT_FORMAT_LOCALE);
+    }
+
+    @Test(expected = InvocationTargetException.class)
+    public void utilityClass() throws Exception {
+        final Constructor<TimeFormatter> constructor = TimeFormatter.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void sameAsFormatterInAllZones() {
+        final List<ZoneId> zones = new ArrayList<>();
+        ZoneId.getAvailableZoneIds().forEach(id -> zones.add(ZoneId.of(id)));
+        zones.add(ZoneOffset.UTC);
+        zones.add(ZoneOffset.ofHoursMinutes(-3, -30));
+
+        final Random random = new Random(11L);
+        for (final ZoneId zone : zones) {
+            for (int i = 0; i < 8; i++) {
+                final long epochSecond = Ksuid.EPOCH + (long) random.nextInt();
+                assertFormat(epochSecond, zone);
+                // same second again, now from the cache
+                assertFormat(epochSecond, zone);
+            }
+        }
+    }
+
+    @Test
+    public void sameAsFormatterAroundDaylightSavingChanges() {
+        final ZoneId losAngeles = ZoneId.of("America/Los_Angeles");
+        final long transition = Instant.parse("2022-03-13T10:00:00Z").getEpochSecond();
+        for (long second = transition - 3; second <= transition + 3; second++) {
+            assertFormat(second, losAngeles);
+        }
+        assertThat(TimeFormatter.format(transition - 1, losAngeles)).isEqualTo("2022-03-13 01:59:59 -0800 PST");
+        assertThat(TimeFormatter.format(transition, losAngeles)).isEqualTo("2022-03-13 03:00:00 -0700 PDT");
+    }
+
+    @Test
+    public void sameAsFormatterInOtherLocales() {
+        final ZoneId[] zones = {ZoneId.of("Europe/Berlin"), ZoneId.of("Asia/Tokyo"), ZoneId.of("UTC"), ZoneOffset.UTC};
+        for (final Locale locale : new Locale[] {Locale.GERMANY, Locale.JAPAN, Locale.forLanguageTag("th-TH-u-nu-thai"),
+                                                 Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("hi-IN")}) {
+            Locale.setDefault(Locale.Category.FORMAT, locale);
+            for (final ZoneId zone : zones) {
+                assertFormat(1_600_000_000L, zone);
+            }
+        }
+        Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag("th-TH-u-nu-thai"));
+        assertThat(TimeFormatter.usesAsciiDigits()).isFalse();
+        Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+        assertThat(TimeFormatter.usesAsciiDigits()).isTrue();
+    }
+
+    private static void assertFormat(final long epochSecond, final ZoneId zone) {
+        assertThat(TimeFormatter.format(epochSecond, zone))
+                .as("%s in %s", epochSecond, zone)
+                .isEqualTo(String.format("%1$tF %1$tT %1$tz %1$tZ", Instant.ofEpochSecond(epochSecond).atZone(zone)));
+    }
+}
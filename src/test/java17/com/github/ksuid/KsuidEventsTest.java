@@ -0,0 +1,128 @@
+package com.github.ksuid;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.Assume.assumeTrue;
+
+public class KsuidEventsTest {
+    private static final Instant INSTANT = Instant.parse("2017-10-10T04:00:47Z");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void requireEvents() {
+        // the JFR events are part of the Java 17 classes only
+        assumeTrue(KsuidEvents.isAvailable());
+    }
+
+    @Test
+    public void generateEvents() throws IOException {
+        final List<RecordedEvent> events = record("com.github.ksuid.Generate", () -> {
+            new KsuidGenerator(new SecureRandom()).newKsuid(INSTANT);
+            final MonotonicKsuidGenerator monotonic = new MonotonicKsuidGenerator(new SecureRandom(), Clock.fixed(INSTANT, ZoneOffset.UTC));
+            monotonic.newKsuid();
+            monotonic.newKsuid();
+        });
+
+        assertThat(events).hasSize(3);
+        assertThat(events).extracting(event -> event.getString("generator"))
+                          .containsExactly(KsuidGenerator.class.getName(),
+                                           MonotonicKsuidGenerator.class.getName(),
+                                           MonotonicKsuidGenerator.class.getName());
+        assertThat(events).extracting(event -> event.getInstant("clockSecond")).containsOnly(INSTANT);
+        // only the first KSUID of a second waits for entropy in the monotonic generator
+        assertThat(events.get(1).getDuration("entropyWait")).isPositive();
+        assertThat(events.get(2).getDuration("entropyWait")).isZero();
+    }
+
+    @Test
+    public void parseFailureEvents() throws IOException {
+        final String tooLong = String.join("", Collections.nCopies(10, "0ujtsYcgvSTl8PAuAdqWYSMnLOv"));
+        final List<RecordedEvent> events = record("com.github.ksuid.ParseFailure", () -> {
+            Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv");
+            assertThatCode(() -> Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLO*")).isInstanceOf(IllegalArgumentException.class);
+            assertThatCode(() -> Ksuid.fromString(tooLong)).isInstanceOf(IllegalArgumentException.class);
+        });
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getString("input")).isEqualTo("0ujtsYcgvSTl8PAuAdqWYSMnLO*");
+        assertThat(events.get(0).getString("message")).isNotEmpty();
+        assertThat(events.get(1).getString("input")).isEqualTo(tooLong.substring(0, 64));
+        assertThat(events.get(1).getInt("inputLength")).isEqualTo(270);
+    }
+
+    @Test
+    public void bulkEvents() throws IOException {
+        final List<Ksuid> ksuids = Collections.nCopies(100, Ksuid.fromString("0ujtsYcgvSTl8PAuAdqWYSMnLOv"));
+        final List<RecordedEvent> events = record("com.github.ksuid.Bulk", () -> {
+            final KsuidBatchCodec codec = KsuidBatchCodec.withSeparator("\n");
+            codec.decode(codec.encode(ksuids));
+            new KsuidUniquenessChecker(100, 1e-6).findDuplicates(ksuids::stream);
+        });
+
+        assertThat(events).extracting(event -> event.getString("operation"))
+                          .containsExactly("encode", "decode", "findDuplicates");
+        assertThat(events).extracting(event -> event.getLong("count")).containsOnly(100L);
+    }
+
+    @Test
+    public void disabledByDefault() throws IOException {
+        final Path file = folder.newFile("default.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.start();
+            new KsuidGenerator(new SecureRandom()).newKsuid();
+            assertThatCode(() -> Ksuid.fromString("invalid")).isInstanceOf(IllegalArgumentException.class);
+            KsuidBatchCodec.fixedWidth().encode(Ksuid.newKsuid());
+            recording.stop();
+            recording.dump(file);
+        }
+        assertThat(RecordingFile.readAllEvents(file))
+                .noneMatch(event -> event.getEventType().getName().startsWith("com.github.ksuid."));
+    }
+
+    @Test
+    public void doNothingWithoutFlightRecorder() {
+        // as on a runtime without the jdk.jfr module, where the JFR sink itself still loads
+        final KsuidEvents.Sink sink = KsuidEvents.load("jdk.jfr.NoSuchClass");
+        assertThat(sink).isInstanceOf(KsuidEvents.NoSink.class);
+        assertThat(sink.beginGenerate()).isNull();
+        assertThat(sink.beginBulk()).isNull();
+        assertThatCode(() -> sink.parseFailure("invalid", "message")).doesNotThrowAnyException();
+        assertThat(KsuidEvents.load("jdk.jfr.FlightRecorder")).isNotInstanceOf(KsuidEvents.NoSink.class);
+    }
+
+    private List<RecordedEvent> record(final String eventName, final Runnable action) throws IOException {
+        final Path file = folder.newFile().toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file)
+                            .stream()
+                            .filter(event -> event.getEventType().getName().equals(eventName))
+                            .sorted((left, right) -> left.getStartTime().compareTo(right.getStartTime()))
+                            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.ksuid;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class KsuidPublisherTest {
+    private static final Instant INSTANT = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(INSTANT, ZoneOffset.UTC);
+
+    private final AtomicInteger draws = new AtomicInteger();
+    private final KsuidGenerator generator = new KsuidGenerator(new Random(1L) {
+        @Override
+        public void nextBytes(final byte[] bytes) {
+            draws.incrementAndGet();
+            super.nextBytes(bytes);
+        }
+    });
+
+    @Before
+    public void requirePublisher() {
+        // the publisher is part of the Java 17 classes only
+        try {
+            Class.forName("com.github.ksuid.KsuidPublisher");
+        } catch (final ClassNotFoundException e) {
+            assumeTrue(false);
+        }
+    }
+
+    @Test
+    public void generateExactlyTheDemandInOneDraw() {
+        final KsuidPublisher publisher = new KsuidPublisher(generator, CLOCK);
+        final Recorder recorder = new Recorder((subscription, ksuid) -> { });
+        publisher.subscribe(recorder);
+        // the generator's constructor draws once to check the payload length
+        draws.set(0);
+
+        recorder.subscription.request(5);
+        assertThat(recorder.ksuids).hasSize(5);
+        assertThat(draws).hasValue(1);
+        recorder.subscription.request(3_000);
+        assertThat(recorder.ksuids).hasSize(3_005).doesNotHaveDuplicates();
+        // batches of up to 1024
+        assertThat(draws).hasValue(4);
+        assertThat(recorder.ksuids).allSatisfy(ksuid -> assertThat(ksuid.getInstant()).isEqualTo(INSTANT));
+        // the same KSUIDs as a bulk generation from the same seed
+        assertThat(recorder.ksuids.subList(0, 5)).containsExactly(new KsuidGenerator(new Random(1L)).newKsuids(INSTANT, 5));
+        assertThat(recorder.error).isNull();
+    }
+
+    @Test
+    public void independentSubscribers() {
+        final KsuidPublisher publisher = new KsuidPublisher(generator, CLOCK);
+        final Recorder first = new Recorder((subscription, ksuid) -> { });
+        final Recorder second = new Recorder((subscription, ksuid) -> { });
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        first.subscription.request(10);
+        second.subscription.request(3);
+        first.subscription.request(1);
+        assertThat(first.ksuids).hasSize(11);
+        assertThat(second.ksuids).hasSize(3).doesNotContainAnyElementsOf(first.ksuids);
+    }
+
+    @Test
+    public void requestFromOnNextDoesNotRecurse() {
+        final KsuidPublisher publisher = new KsuidPublisher(generator, CLOCK);
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final Recorder recorder = new Recorder((subscription, ksuid) -> {
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            subscription.request(1);
+            depth.decrementAndGet();
+        });
+        publisher.subscribe(recorder);
+        recorder.cancelAfter = 50_000;
+        recorder.subscription.request(1);
+        assertThat(recorder.ksuids).hasSize(50_000).doesNotHaveDuplicates();
+        assertThat(maxDepth).hasValue(1);
+    }
+
+    @Test
+    public void unboundedDemandUntilCancelled() {
+        final KsuidPublisher publisher = new KsuidPublisher(generator, CLOCK);
+        final Recorder recorder = new Recorder((subscription, ksuid) -> { });
+        publisher.subscribe(recorder);
+        recorder.cancelAfter = 5_000;
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertThat(recorder.ksuids).hasSize(5_000);
+        recorder.subscription.request(10);
+        assertThat(recorder.ksuids).hasSize(5_000);
+        assertThat(recorder.error).isNull();
+    }
+
+    @Test
+    public void rejectNonPositiveRequests() {
+        final KsuidPublisher publisher = new KsuidPublisher(generator, CLOCK);
+        final Recorder recorder = new Recorder((subscription, ksuid) -> { });
+        publisher.subscribe(recorder);
+        recorder.subscription.request(0);
+        assertThat(recorder.error).isInstanceOf(IllegalArgumentException.class)
+                                  .hasMessage("request must be positive: 0");
+        recorder.subscription.request(5);
+        assertThat(recorder.ksuids).isEmpty();
+    }
+
+    @Test
+    public void concurrentRequests() throws InterruptedException {
+        final KsuidPublisher publisher = new KsuidPublisher(new KsuidGenerator(new Random(2L)));
+        final AtomicBoolean delivering = new AtomicBoolean();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final Recorder recorder = new Recorder((subscription, ksuid) -> {
+            if (!delivering.compareAndSet(false, true)) {
+                overlapped.set(true);
+            }
+            delivering.set(false);
+        });
+        publisher.subscribe(recorder);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int j = 0; j < 100; j++) {
+                    recorder.subscription.request(10);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(overlapped).isFalse();
+        synchronized (recorder.ksuids) {
+            assertThat(recorder.ksuids).hasSize(8_000);
+            assertThat(new HashSet<>(recorder.ksuids)).hasSize(8_000);
+        }
+    }
+
+    private static final class Recorder implements Flow.Subscriber<Ksuid> {
+        private final BiConsumer<Flow.Subscription, Ksuid> onNext;
+        private final List<Ksuid> ksuids = new ArrayList<>();
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private long cancelAfter = Long.MAX_VALUE;
+
+        private Recorder(final BiConsumer<Flow.Subscription, Ksuid> onNext) {
+            this.onNext = onNext;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final Ksuid ksuid) {
+            synchronized (ksuids) {
+                ksuids.add(ksuid);
+                if (ksuids.size() == cancelAfter) {
+                    subscription.cancel();
+                    return;
+                }
+            }
+            onNext.accept(subscription, ksuid);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            throw new AssertionError("the publisher never completes");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.ksuid;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+public class KsuidServerUnixTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path socket;
+    private KsuidServer server;
+    private Thread serverThread;
+
+    @Before
+    public void setUp() throws IOException {
+        socket = folder.getRoot().toPath().resolve("ksuid.sock");
+        try {
+            server = new KsuidServer("unix:" + socket, new MonotonicKsuidGenerator(new Random(1L)));
+        } catch (final IllegalArgumentException e) {
+            // Unix domain sockets are part of the Java 17 classes only
+            assumeNoException(e);
+        }
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (server != null) {
+            server.close();
+            serverThread.join();
+            assertThat(socket).doesNotExist();
+        }
+    }
+
+    @Test
+    public void serveOverUnixDomainSocket() throws IOException {
+        assertThat(server.getAddress()).isEqualTo("unix:" + socket);
+        try (SocketChannel channel = SocketAddresses.connect(server.getAddress())) {
+            final ByteBuffer request = ByteBuffer.allocate(2 * KsuidServer.REQUEST_BYTES)
+                                                 .put(KsuidServer.RAW).putInt(1)
+                                                 .put(KsuidServer.RAW).putInt(1)
+                                                 .flip();
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            final ByteBuffer response = ByteBuffer.allocate(2 * Ksuid.TOTAL_BYTES);
+            while (response.hasRemaining()) {
+                assertThat(channel.read(response)).isNotNegative();
+            }
+            final byte[] first = new byte[Ksuid.TOTAL_BYTES];
+            final byte[] second = new byte[Ksuid.TOTAL_BYTES];
+            response.flip();
+            response.get(first).get(second);
+            assertThat(Ksuid.newBuilder().withKsuidBytes(first).build())
+                    .isLessThan(Ksuid.newBuilder().withKsuidBytes(second).build());
+        }
+    }
+
+    @Test
+    public void loadClient() throws IOException {
+        final LoadClient.Result result = new LoadClient(server.getAddress(), KsuidServer.RAW, 1, 4, 10,
+                                                        Duration.ZERO, Duration.ofMillis(50)).run();
+        assertThat(result.getHistogram().getTotalCount()).isPositive();
+    }
+}